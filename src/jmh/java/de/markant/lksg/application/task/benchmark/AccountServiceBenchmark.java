@@ -0,0 +1,64 @@
+package de.markant.lksg.application.task.benchmark;
+
+import de.markant.lksg.application.task.dto.TransactionResultDto;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single threaded cost of the basic account operations: a deposit into one account and the
+ * creation of a new account.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+public class AccountServiceBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "BENCH-DEPOSIT";
+
+    private final AtomicLong nextAccountNumber = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+
+    private AccountService accountService;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start();
+        accountService = context.getBean(AccountService.class);
+        accountService.createAccount(ACCOUNT_NUMBER, Money.of(0.0));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResultDto deposit() {
+        return accountService.deposit(ACCOUNT_NUMBER, Money.of(1.0));
+    }
+
+    @Benchmark
+    public Account createAccount() {
+        return accountService.createAccount("BENCH-" + nextAccountNumber.incrementAndGet(), Money.of(100.0));
+    }
+}
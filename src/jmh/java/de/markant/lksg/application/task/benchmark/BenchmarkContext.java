@@ -0,0 +1,56 @@
+package de.markant.lksg.application.task.benchmark;
+
+import de.markant.lksg.application.task.BankingApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.stream.Stream;
+
+/**
+ * Starts the application against an embedded H2 database, keeping every other setting
+ * (JDBC batching, locking, caching) as configured in application.properties.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Starts the application without a web server.
+     * @param arguments Additional settings, e.g. "--banking.transfer.coalescing.enabled=true".
+     */
+    static ConfigurableApplicationContext start(String... arguments) {
+        return new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(Stream.of(defaultArguments(), arguments).flatMap(Stream::of).toArray(String[]::new));
+    }
+
+    /**
+     * Starts the application with its web server on a random port, see {@link #port}.
+     * @param arguments Additional settings, e.g. "--spring.threads.virtual.enabled=true".
+     */
+    static ConfigurableApplicationContext startServer(String... arguments) {
+        return new SpringApplicationBuilder(BankingApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run(Stream.of(defaultArguments(), new String[]{"--server.port=0"}, arguments)
+                        .flatMap(Stream::of)
+                        .toArray(String[]::new));
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+    }
+
+    // Passed as arguments so they take precedence over application.properties
+    private static String[] defaultArguments() {
+        return new String[]{
+                // IGNORE_UNKNOWN_SETTINGS: the MySQL driver properties are passed to H2 as well
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1;IGNORE_UNKNOWN_SETTINGS=TRUE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN"};
+    }
+}
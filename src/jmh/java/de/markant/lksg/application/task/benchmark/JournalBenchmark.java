@@ -0,0 +1,94 @@
+package de.markant.lksg.application.task.benchmark;
+
+import de.markant.lksg.application.task.config.JournalProperties;
+import de.markant.lksg.application.task.journal.JournalDurability;
+import de.markant.lksg.application.task.journal.TransactionJournal;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
+import de.markant.lksg.application.task.service.LedgerMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Append throughput and latency distribution of the transaction journal on local disk from 8 threads,
+ * for every durability level. Compare with AccountServiceBenchmark for the cost of a database commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+public class JournalBenchmark {
+
+    @Param({"NONE", "GROUP", "SYNC"})
+    private JournalDurability durability;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private Path directory;
+
+    private TransactionJournal journal;
+
+    private Account account;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        JournalProperties properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setDurability(durability);
+        journal = new TransactionJournal(properties, null, null, null, null, null, null, LedgerMode.STATE);
+        journal.start();
+
+        account = new Account("BENCH-1", Money.of(1000.0));
+        account.setAccountId(1L);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        journal.stop();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public long append() {
+        Transaction transaction = Transaction.transactionBuilder()
+                .account(account)
+                .transactionType(TransactionType.DEPOSIT)
+                .oldBalance(Money.of(1000.0))
+                .newBalance(Money.of(1001.0))
+                .transactionAmount(Money.of(1.0))
+                .timeStamp(LocalDateTime.now())
+                .build();
+        transaction.setTransactionId(ids.incrementAndGet());
+        return journal.append(List.of(transaction));
+    }
+}
@@ -0,0 +1,97 @@
+package de.markant.lksg.application.task.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.markant.lksg.application.task.dto.AccountDto;
+import de.markant.lksg.application.task.dto.TransactionResponseDto;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the entities as returned by the account endpoints compared with
+ * the DTOs carrying only what a client needs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializationBenchmark {
+
+    @Param({"10", "1000"})
+    private int transactions;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private Account account;
+
+    private AccountDto accountDto;
+
+    private TransactionResponseDto transactionResponse;
+
+    @Setup
+    public void setup() {
+        account = new Account("BENCH-1", Money.of(1000.0));
+        account.setAccountId(1L);
+        account.setVersion(1L);
+        List<Transaction> ledger = new ArrayList<>(transactions);
+        for (int i = 0; i < transactions; i++) {
+            Transaction transaction = Transaction.transactionBuilder()
+                    .account(account)
+                    .transactionType(TransactionType.DEPOSIT)
+                    .oldBalance(Money.ofMinor(i * 100L))
+                    .newBalance(Money.ofMinor((i + 1) * 100L))
+                    .transactionAmount(Money.of(1.0))
+                    .timeStamp(LocalDateTime.now())
+                    .build();
+            transaction.setTransactionId((long) i);
+            ledger.add(transaction);
+        }
+        account.setTransactions(ledger);
+
+        accountDto = new AccountDto(account.getAccountNr(), account.getBalance());
+        transactionResponse = TransactionResponseDto.builder()
+                .message("Amount 1.0 deposited successfully!")
+                .transactionId(1L)
+                .newBalance(Money.of(1000.0))
+                .timeStamp(LocalDateTime.now())
+                .build();
+    }
+
+    @Benchmark
+    public byte[] accountEntity() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(account);
+    }
+
+    @Benchmark
+    public byte[] accountDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(accountDto);
+    }
+
+    @Benchmark
+    public byte[] transactionEntities() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(account.getTransactions());
+    }
+
+    @Benchmark
+    public byte[] transactionResponseDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transactionResponse);
+    }
+}
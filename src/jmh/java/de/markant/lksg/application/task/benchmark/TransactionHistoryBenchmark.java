@@ -0,0 +1,94 @@
+package de.markant.lksg.application.task.benchmark;
+
+import de.markant.lksg.application.task.dto.ExportFormat;
+import de.markant.lksg.application.task.dto.TransactionPageDto;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
+import de.markant.lksg.application.task.repository.TransactionRepository;
+import de.markant.lksg.application.task.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading the history of an account with a large ledger: the first page of the paginated
+ * endpoint, the complete list as loaded by the legacy endpoint, and the streaming export.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TransactionHistoryBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "BENCH-HISTORY";
+
+    @Param({"10000", "50000"})
+    private int historySize;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountService accountService;
+
+    private Account account;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start();
+        accountService = context.getBean(AccountService.class);
+        TransactionRepository transactionRepository = context.getBean(TransactionRepository.class);
+
+        account = accountService.createAccount(ACCOUNT_NUMBER, Money.of(0.0));
+        LocalDateTime start = LocalDateTime.now().minusSeconds(historySize);
+        List<Transaction> transactions = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            transactions.add(Transaction.transactionBuilder()
+                    .account(account)
+                    .transactionType(TransactionType.DEPOSIT)
+                    .oldBalance(Money.ofMinor(i * 100L))
+                    .newBalance(Money.ofMinor((i + 1) * 100L))
+                    .transactionAmount(Money.of(1.0))
+                    .timeStamp(start.plusSeconds(i))
+                    .build());
+        }
+        transactionRepository.saveAll(transactions);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionPageDto firstPage() {
+        return accountService.getTransactionPage(ACCOUNT_NUMBER, null, 50, null, null, null);
+    }
+
+    @Benchmark
+    public List<Transaction> fullHistory() {
+        return accountService.getTransactionsForAccount(ACCOUNT_NUMBER);
+    }
+
+    @Benchmark
+    public void export() throws IOException {
+        accountService.exportTransactions(account, ExportFormat.NDJSON, OutputStream.nullOutputStream());
+    }
+}
@@ -0,0 +1,67 @@
+package de.markant.lksg.application.task.benchmark;
+
+import de.markant.lksg.application.task.dto.TransactionResultDto;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of transfers from 8 threads between random pairs of N accounts.
+ * With few accounts nearly every transfer waits for another one; with many they rarely collide.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+public class TransferBenchmark {
+
+    @Param({"2", "16", "1024"})
+    private int accounts;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountService accountService;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start();
+        accountService = context.getBean(AccountService.class);
+        for (int i = 0; i < accounts; i++) {
+            accountService.createAccount(accountNumber(i), Money.of(1_000_000_000.0));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResultDto transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int source = random.nextInt(accounts);
+        int target = (source + 1 + random.nextInt(accounts - 1)) % accounts;
+        return accountService.transfer(accountNumber(source), accountNumber(target), Money.of(1.0));
+    }
+
+    private static String accountNumber(int index) {
+        return "BENCH-" + index;
+    }
+}
@@ -0,0 +1,66 @@
+package de.markant.lksg.application.task.benchmark;
+
+import de.markant.lksg.application.task.dto.TransactionResultDto;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfers from 32 threads that all debit the same source account, applied one transaction per transfer
+ * or coalesced into batches. Throughput and per-transfer latency show what batching gains under contention
+ * and what the batching window costs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+public class TransferCoalescingBenchmark {
+
+    private static final int TARGETS = 16;
+
+    @Param({"false", "true"})
+    private boolean coalescing;
+
+    private ConfigurableApplicationContext context;
+
+    private AccountService accountService;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.start(
+                "--banking.transfer.coalescing.enabled=" + coalescing,
+                "--banking.locking.timeout-ms=60000");
+        accountService = context.getBean(AccountService.class);
+        accountService.createAccount("SOURCE", Money.of(1_000_000_000.0));
+        for (int i = 0; i < TARGETS; i++) {
+            accountService.createAccount("TARGET-" + i, Money.ZERO);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResultDto transfer() {
+        return accountService.transfer("SOURCE", "TARGET-" + ThreadLocalRandom.current().nextInt(TARGETS), Money.of(1.0));
+    }
+}
@@ -0,0 +1,96 @@
+package de.markant.lksg.application.task.benchmark;
+
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of POST /api/accounts/transfer through the embedded Tomcat, with requests handled on platform
+ * threads (Tomcat's pool of 200) or on virtual threads. 256 client threads keep that many requests in flight,
+ * more than the platform pool can serve at once. Run it on Java 21 in both modes, with throughput and the
+ * latency distribution (p50, p99, p99.9) reported per mode:
+ *
+ *   mvn -P benchmark verify -Djmh.args="-f 1 -bm thrpt,sample TransferHttpBenchmark"
+ *
+ * The client thread count can be changed with -t. With virtual threads the HikariCP pool, not Tomcat's thread
+ * pool, limits how many transfers reach the database at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(256)
+public class TransferHttpBenchmark {
+
+    private static final int ACCOUNTS = 1024;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String transferUri;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkContext.startServer("--spring.threads.virtual.enabled=" + threads.equals("virtual"),
+                // Under overload requests queue for their accounts instead of being rejected as busy
+                "--banking.locking.timeout-ms=60000");
+        AccountService accountService = context.getBean(AccountService.class);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountService.createAccount(accountNumber(i), Money.of(1_000_000_000.0));
+        }
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        transferUri = "http://localhost:" + BenchmarkContext.port(context) + "/api/accounts/transfer";
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int transfer() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int source = random.nextInt(ACCOUNTS);
+        int target = (source + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+        String body = "{\"sourceAccountNumber\":\"" + accountNumber(source) + "\",\"targetAccountNumber\":\""
+                + accountNumber(target) + "\",\"transferAmount\":1.00}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(transferUri))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Transfer failed with status " + response.statusCode() + ": " + response.body());
+        }
+        return response.statusCode();
+    }
+
+    private static String accountNumber(int index) {
+        return "HTTP-" + index;
+    }
+}
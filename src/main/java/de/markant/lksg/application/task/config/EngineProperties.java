@@ -0,0 +1,29 @@
+package de.markant.lksg.application.task.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the in-memory balance engine (banking.engine.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "banking.engine")
+@Data
+public class EngineProperties {
+
+    /** Whether deposits, withdrawals and transfers run against the in-memory engine instead of the database. */
+    private boolean enabled = false;
+
+    /** Number of shards; every shard owns a subset of the accounts and is updated by one thread only. */
+    private int shards = 4;
+
+    /** Directory holding the write-ahead log file of every shard. */
+    private String walDirectory = "wal";
+
+    /** How often operations acknowledged by the engine are written to the database. */
+    private long flushIntervalMs = 200;
+
+    /** Maximum number of operations written to the database in one transaction. */
+    private int flushBatchSize = 1000;
+}
@@ -0,0 +1,36 @@
+package de.markant.lksg.application.task.config;
+
+import de.markant.lksg.application.task.feed.SlowConsumerPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the account event feed (banking.feed.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "banking.feed")
+@Data
+public class FeedProperties {
+
+    /** Whether clients can subscribe to the events of an account. */
+    private boolean enabled = true;
+
+    /** Maximum number of open subscriptions of this instance; further subscriptions are rejected. */
+    private int maxSubscribers = 10_000;
+
+    /** Maximum number of events waiting to be sent to one subscriber. */
+    private int bufferSize = 256;
+
+    /** What happens to a subscriber whose buffer is full. */
+    private SlowConsumerPolicy slowConsumerPolicy = SlowConsumerPolicy.DROP_OLDEST;
+
+    /** Number of threads sending events to the subscribers. */
+    private int senderThreads = 2;
+
+    /** Interval of the comments sent to idle subscribers, which detect closed connections. */
+    private long heartbeatSeconds = 15;
+
+    /** How long a subscription stays open; clients reconnect afterwards. */
+    private long timeoutMs = 30 * 60 * 1000;
+}
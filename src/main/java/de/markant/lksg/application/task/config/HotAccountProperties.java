@@ -0,0 +1,23 @@
+package de.markant.lksg.application.task.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Settings of hot accounts (banking.hot-accounts.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "banking.hot-accounts")
+@Data
+public class HotAccountProperties {
+
+    /** Account numbers of the accounts whose credits are spread across balance slots, e.g. settlement and fee accounts. */
+    private Set<String> accountNumbers = new HashSet<>();
+
+    /** Number of balance slots of every hot account; more slots let more credits run in parallel. */
+    private int slots = 16;
+}
@@ -0,0 +1,26 @@
+package de.markant.lksg.application.task.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the Idempotency-Key handling of the deposit, withdraw and transfer endpoints (banking.idempotency.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "banking.idempotency")
+@Data
+public class IdempotencyProperties {
+
+    /** Maximum number of responses kept in memory; the least recently used are evicted first. */
+    private long maximumSize = 100_000;
+
+    /** How long a key is remembered, in memory and in the database. */
+    private long ttlSeconds = 24 * 60 * 60;
+
+    /** Whether keys are also stored in the database, so replays survive restarts and reach every instance. */
+    private boolean persistent = false;
+
+    /** How often expired keys are deleted from the database. */
+    private long purgeIntervalSeconds = 60 * 60;
+}
@@ -0,0 +1,30 @@
+package de.markant.lksg.application.task.config;
+
+import de.markant.lksg.application.task.journal.JournalDurability;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the transaction journal (banking.journal.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "banking.journal")
+@Data
+public class JournalProperties {
+
+    /** Whether every committed transaction is recorded in the journal. */
+    private boolean enabled = false;
+
+    /** Directory holding the journal segment files. */
+    private String directory = "journal";
+
+    /** Size of one memory-mapped segment file in bytes; a new segment is started when the current one is full. */
+    private int segmentSizeBytes = 64 * 1024 * 1024;
+
+    /** When an appended transaction is forced to disk. */
+    private JournalDurability durability = JournalDurability.GROUP;
+
+    /** Whether transactions missing in the database are restored from the journal on startup. */
+    private boolean replayOnStartup = false;
+}
@@ -0,0 +1,29 @@
+package de.markant.lksg.application.task.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the ledger writer (banking.ledger.writer.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "banking.ledger.writer")
+@Data
+public class LedgerWriterProperties {
+
+    /** Whether ledger transactions are inserted in the background after the balance update committed. */
+    private boolean async = false;
+
+    /** Maximum number of transactions waiting to be inserted; must hold at least one bulk transfer chunk (2 per transfer). */
+    private int capacity = 10_000;
+
+    /** Maximum number of transactions inserted with one JDBC batch. */
+    private int batchSize = 500;
+
+    /** How long a balance update waits for free capacity before it is rejected. */
+    private long submitTimeoutMs = 1_000;
+
+    /** How long shutdown waits for the pending transactions to be inserted. */
+    private long shutdownTimeoutMs = 30_000;
+}
@@ -0,0 +1,61 @@
+package de.markant.lksg.application.task.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Retry settings for balance updates in optimistic concurrency mode.
+ * The top level values are the defaults; entries under banking.optimistic.operations.&lt;operation&gt;
+ * override them for a single operation (deposit, withdraw or transfer).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "banking.optimistic")
+@Data
+public class OptimisticRetryProperties {
+
+    /** Total number of attempts, including the first one. */
+    private int maxAttempts = 5;
+
+    /** Upper bound of the randomized backoff before the first retry; doubled for every further retry. */
+    private long initialBackoffMs = 5;
+
+    /** Cap for the backoff between two attempts. */
+    private long maxBackoffMs = 200;
+
+    /** Per operation overrides. */
+    private Map<String, Policy> operations = new HashMap<>();
+
+    /**
+     * Resolves the effective retry policy of an operation.
+     * @param operation The operation name.
+     * @return The override for the operation merged with the defaults.
+     */
+    public Policy forOperation(String operation) {
+        Policy override = operations.get(operation);
+        if (override == null) {
+            return new Policy(maxAttempts, initialBackoffMs, maxBackoffMs);
+        }
+        return new Policy(
+                override.getMaxAttempts() != null ? override.getMaxAttempts() : maxAttempts,
+                override.getInitialBackoffMs() != null ? override.getInitialBackoffMs() : initialBackoffMs,
+                override.getMaxBackoffMs() != null ? override.getMaxBackoffMs() : maxBackoffMs);
+    }
+
+    /**
+     * Retry settings of a single operation. Unset values fall back to the defaults.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Policy {
+        private Integer maxAttempts;
+        private Long initialBackoffMs;
+        private Long maxBackoffMs;
+    }
+}
@@ -0,0 +1,32 @@
+package de.markant.lksg.application.task.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the transactional outbox (banking.outbox.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "banking.outbox")
+@Data
+public class OutboxProperties {
+
+    /** Whether every transaction is also written to the outbox, in the transaction of its balance update. */
+    private boolean enabled = false;
+
+    /** Whether this instance relays the outbox to the sink; instances that only write may disable it. */
+    private boolean relayEnabled = true;
+
+    /** Maximum number of events read, published and deleted together. */
+    private int batchSize = 500;
+
+    /** How long the relay waits after it found fewer than batch-size events, or after a failed publish. */
+    private long pollIntervalMs = 200;
+
+    /** File the default sink appends the events to, one JSON object per line. */
+    private String file = "outbox/events.ndjson";
+
+    /** How long shutdown waits for the batch being relayed. */
+    private long shutdownTimeoutMs = 10_000;
+}
@@ -0,0 +1,23 @@
+package de.markant.lksg.application.task.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the SQL statement monitoring (banking.sql.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "banking.sql")
+@Data
+public class SqlMonitoringProperties {
+
+    /** Whether JDBC statements are timed, counted per request and logged when slow. */
+    private boolean monitoringEnabled = true;
+
+    /** Statements taking at least this long are logged to the banking.sql.slow logger. */
+    private long slowQueryThresholdMs = 200;
+
+    /** Maximum length of the SQL text written to the slow query log. */
+    private int maxSqlLength = 1000;
+}
@@ -0,0 +1,23 @@
+package de.markant.lksg.application.task.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the daily account summaries (banking.summaries.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "banking.summaries")
+@Data
+public class SummaryProperties {
+
+    /** Whether every balance update also updates the daily summaries of its accounts. */
+    private boolean enabled = false;
+
+    /**
+     * Whether the summaries are rebuilt from the complete transaction history on startup, e.g. after enabling them.
+     * No other instance may update balances during the rebuild.
+     */
+    private boolean rebuildOnStartup = false;
+}
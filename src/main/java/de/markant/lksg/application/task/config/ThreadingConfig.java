@@ -0,0 +1,22 @@
+package de.markant.lksg.application.task.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Checks the request threading mode. With spring.threads.virtual.enabled=true Spring Boot runs Tomcat's
+ * request handling, the MVC async executor (used by the streaming exports) and scheduled tasks on virtual
+ * threads, but on a JVM older than 21 it silently keeps platform threads; this fails the startup instead.
+ */
+@Configuration
+@Slf4j
+public class ThreadingConfig {
+
+    public ThreadingConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("spring.threads.virtual.enabled requires Java 21, running on " + Runtime.version() + ".");
+        }
+        log.info("Handling requests on {} threads", virtualThreads ? "virtual" : "platform");
+    }
+}
@@ -0,0 +1,29 @@
+package de.markant.lksg.application.task.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of transfer coalescing (banking.transfer.coalescing.*).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "banking.transfer.coalescing")
+@Data
+public class TransferCoalescingProperties {
+
+    /** Whether transfers are collected into batches that are applied in one transaction. */
+    private boolean enabled = false;
+
+    /** How long a batch waits for more transfers after its first one arrived; the latency added to a transfer. */
+    private long maxWaitMs = 2;
+
+    /** Maximum number of transfers applied in one transaction. */
+    private int maxBatchSize = 100;
+
+    /** Maximum number of transfers waiting for a batch; further transfers are rejected. */
+    private int capacity = 10_000;
+
+    /** How long shutdown waits for the waiting transfers to be applied. */
+    private long shutdownTimeoutMs = 30_000;
+}
@@ -14,6 +14,28 @@ public final class Constants {
     public static final String WITHDRAW_PATH = "/withdraw";
     public static final String TRANSFER_PATH = "/transfer";
     public static final String TRANSACTIONS_PATH = "/transactions";
+    public static final String EXPORT_PATH = "/export";
+    public static final String BULK_PATH = "/bulk";
+    public static final String SUMMARIES_PATH = "/summaries";
+    public static final String EVENTS_PATH = "/events";
+
+    // Idempotency
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    // Pagination
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final String DEFAULT_ACCOUNT_SORT = "accountNr";
+    public static final int MAX_SUMMARY_DAYS = 366;
+
+    // Export
+    public static final String EXPORT_FETCH_SIZE = "500";
+    public static final String EXPORT_ROW_STREAMING_FETCH_SIZE = "" + Integer.MIN_VALUE;
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+    public static final String CSV_HEADER = "transactionId,transactionType,timeStamp,oldBalance,newBalance,transactionAmount,targetAccountNr";
 
     // API Messages
     public static final String ACCOUNT_NOT_FOUND = "Account not found!";
@@ -21,4 +43,18 @@ public final class Constants {
     public static final String DEPOSIT_SUCCESS = "Amount %s deposited successfully!";
     public static final String WITHDRAW_SUCCESS = "Amount %s has been withdrawn successfully!";
     public static final String TRANSFER_SUCCESS = "Amount %s transferred successfully!";
+    public static final String INVALID_PAGE_SIZE = "Page size must be between 1 and " + MAX_PAGE_SIZE + ".";
+    public static final String INVALID_CURSOR = "Invalid pagination cursor.";
+    public static final String INVALID_PAGE = "Page number must not be negative.";
+    public static final String INVALID_ACCOUNT_SORT = "Accounts can only be sorted by accountNr or balance.";
+    public static final String INVALID_IDEMPOTENCY_KEY = "Idempotency-Key must be between 1 and " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters.";
+    public static final String IDEMPOTENCY_KEY_REUSED = "Idempotency-Key was already used for a different request.";
+    public static final String IDEMPOTENCY_KEY_IN_PROGRESS = "A request with this Idempotency-Key is still being processed, please try again.";
+    public static final String INVALID_SUMMARY_RANGE = "The summary range must not end before it starts or cover more than " + MAX_SUMMARY_DAYS + " days.";
+    public static final String SUMMARIES_DISABLED = "Daily summaries are not enabled.";
+    public static final String FEED_DISABLED = "The account event feed is not enabled.";
+    public static final String TOO_MANY_SUBSCRIBERS = "Too many event feed subscriptions are open, please try again later.";
+    public static final String CONCURRENT_MODIFICATION = "Account was modified concurrently, please try again.";
+    public static final String ACCOUNT_BUSY = "Account is busy, please try again.";
+    public static final String ACCOUNT_LOCK_INTERRUPTED = "Interrupted while waiting for account lock.";
 }
@@ -1,20 +1,38 @@
 package de.markant.lksg.application.task.controller;
 
 import de.markant.lksg.application.task.constants.Constants;
+import de.markant.lksg.application.task.dto.AccountPageDto;
+import de.markant.lksg.application.task.dto.AccountSummaryDto;
+import de.markant.lksg.application.task.dto.BulkTransferReportDto;
+import de.markant.lksg.application.task.dto.ExportFormat;
+import de.markant.lksg.application.task.dto.TransactionPageDto;
+import de.markant.lksg.application.task.dto.TransactionResponseDto;
+import de.markant.lksg.application.task.dto.TransactionResultDto;
 import de.markant.lksg.application.task.dto.TransferDto;
 import de.markant.lksg.application.task.exception.ResourceNotFoundException;
 import de.markant.lksg.application.task.model.Account;
-import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.TransactionType;
 import de.markant.lksg.application.task.service.AccountService;
+import de.markant.lksg.application.task.service.BulkTransferService;
+import de.markant.lksg.application.task.service.IdempotencyStore;
 import de.markant.lksg.application.task.dto.AccountDto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Controller for managing accounts.
@@ -28,13 +46,27 @@ public class AccountController {
     @Autowired
     AccountService accountService; // Injecting AccountService to handle account operations
 
+    @Autowired
+    BulkTransferService bulkTransferService; // Injecting BulkTransferService to handle bulk transfers
+
+    @Autowired
+    IdempotencyStore idempotencyStore; // Injecting IdempotencyStore to answer repeated requests
+
     /**
-     * Retrieves all accounts.
-     * @return List of all accounts.
+     * Retrieves one page of accounts with their account number and balance.
+     * @param page The zero based page number.
+     * @param size The maximum number of accounts to return.
+     * @param sort The property to sort by, accountNr (default) or balance.
+     * @param direction The sort direction, ASC (default) or DESC.
+     * @return ResponseEntity containing the page of accounts.
      */
     @GetMapping
-    public List<Account> getAllAccounts() {
-        return accountService.getAllAccounts();
+    public ResponseEntity<AccountPageDto> getAllAccounts(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + Constants.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(defaultValue = Constants.DEFAULT_ACCOUNT_SORT) String sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+        return ResponseEntity.ok(accountService.getAccountPage(page, size, sort, direction));
     }
 
 
@@ -70,69 +102,160 @@ public class AccountController {
      * Deposits an amount into an account.
      * @param accountNumber The account number to deposit into.
      * @param amount The amount to deposit.
+     * @param idempotencyKey Optional key; a repeated request with the same key returns the original response.
      * @return ResponseEntity with a success message and new balance.
      */
 
     @PostMapping(Constants.ACCOUNT_PATH + Constants.DEPOSIT_PATH)
-    public ResponseEntity<Map<String, Object>> deposit(@PathVariable String accountNumber, @RequestParam Double amount) {
-   
-    accountService.deposit(accountNumber, amount);
-    
-    Map<String, Object> response = new HashMap<>();
-    response.put("message", String.format(Constants.DEPOSIT_SUCCESS, amount));
-    response.put("newBalance", accountService.findAccountByNr(accountNumber).getBalance());
-    
-    return ResponseEntity.ok(response);
+    public ResponseEntity<TransactionResponseDto> deposit(@PathVariable String accountNumber, @RequestParam Money amount,
+                                                          @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+    return respond(idempotencyKey, "deposit " + accountNumber + " " + amount, () -> {
+        TransactionResultDto result = accountService.deposit(accountNumber, amount);
+
+        return TransactionResponseDto.builder()
+                .message(String.format(Constants.DEPOSIT_SUCCESS, amount))
+                .transactionId(result.getTransactionId())
+                .newBalance(result.getNewBalance())
+                .timeStamp(result.getTimeStamp())
+                .build();
+    });
 }
 
     /**
      * Withdraws an amount from an account.
      * @param accountNumber The account number to withdraw from.
      * @param amount The amount to withdraw.
+     * @param idempotencyKey Optional key; a repeated request with the same key returns the original response.
      * @return ResponseEntity with a success message and new balance.
      */
     @PostMapping(Constants.ACCOUNT_PATH + Constants.WITHDRAW_PATH)
-    public ResponseEntity<Map<String, Object>> withdraw(@PathVariable String accountNumber, @RequestParam Double amount) {
-        accountService.withdraw(accountNumber, amount);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", String.format(Constants.WITHDRAW_SUCCESS, amount));
-        response.put("newBalance", accountService.findAccountByNr(accountNumber).getBalance());
+    public ResponseEntity<TransactionResponseDto> withdraw(@PathVariable String accountNumber, @RequestParam Money amount,
+                                                           @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return respond(idempotencyKey, "withdraw " + accountNumber + " " + amount, () -> {
+            TransactionResultDto result = accountService.withdraw(accountNumber, amount);
 
-        return ResponseEntity.ok(response);
+            return TransactionResponseDto.builder()
+                    .message(String.format(Constants.WITHDRAW_SUCCESS, amount))
+                    .transactionId(result.getTransactionId())
+                    .newBalance(result.getNewBalance())
+                    .timeStamp(result.getTimeStamp())
+                    .build();
+        });
     }
 
     /**
      * Transfers an amount from one account to another.
      * @param transferDto DTO containing transfer details.
-     * @return ResponseEntity with a success message.
+     * @param idempotencyKey Optional key; a repeated request with the same key returns the original response.
+     * @return ResponseEntity with a success message and the new balances of both accounts.
      */
     @PostMapping(Constants.TRANSFER_PATH)
-    public ResponseEntity<Map<String, Object>> transfer(@RequestBody TransferDto transferDto) {
-        accountService.transfer(transferDto.getSourceAccountNumber(), transferDto.getTargetAccountNumber(), transferDto.getTransferAmount());
+    public ResponseEntity<TransactionResponseDto> transfer(@RequestBody TransferDto transferDto,
+                                                           @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        String request = "transfer " + transferDto.getSourceAccountNumber() + " " + transferDto.getTargetAccountNumber()
+                + " " + transferDto.getTransferAmount();
+        return respond(idempotencyKey, request, () -> {
+            TransactionResultDto result = accountService.transfer(transferDto.getSourceAccountNumber(),
+                    transferDto.getTargetAccountNumber(), transferDto.getTransferAmount());
+
+            return TransactionResponseDto.builder()
+                    .message(String.format(Constants.TRANSFER_SUCCESS, transferDto.getTransferAmount()))
+                    .transactionId(result.getTransactionId())
+                    .sourceAccount(transferDto.getSourceAccountNumber())
+                    .targetAccount(transferDto.getTargetAccountNumber())
+                    .transferAmount(transferDto.getTransferAmount())
+                    .sourceNewBalance(result.getNewBalance())
+                    .targetNewBalance(result.getTargetNewBalance())
+                    .timeStamp(result.getTimeStamp())
+                    .build();
+        });
+    }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", String.format(Constants.TRANSFER_SUCCESS, transferDto.getTransferAmount()));
-        response.put("sourceAccount", transferDto.getSourceAccountNumber());
-        response.put("targetAccount", transferDto.getTargetAccountNumber());
-        response.put("transferAmount", transferDto.getTransferAmount());
+    /**
+     * Applies a list of transfers in one request.
+     * @param transfers The transfers to apply, in order.
+     * @return ResponseEntity with the outcome of every transfer.
+     */
+    @PostMapping(value = Constants.TRANSFER_PATH + Constants.BULK_PATH, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkTransferReportDto> bulkTransfer(@RequestBody List<TransferDto> transfers) {
+        return ResponseEntity.ok(bulkTransferService.transferAll(transfers));
+    }
 
-        return ResponseEntity.ok(response);
+    /**
+     * Applies transfers streamed as newline-delimited JSON, one transfer per line.
+     * @param body The request body.
+     * @return ResponseEntity with the outcome of every transfer.
+     * @throws IOException If the request body cannot be read.
+     */
+    @PostMapping(value = Constants.TRANSFER_PATH + Constants.BULK_PATH, consumes = Constants.NDJSON_MEDIA_TYPE)
+    public ResponseEntity<BulkTransferReportDto> bulkTransferNdjson(InputStream body) throws IOException {
+        return ResponseEntity.ok(bulkTransferService.transferAll(body));
     }
 
     /**
-     * Retrieves transactions for a specific account.
+     * Retrieves one page of transactions for a specific account, newest first.
      * @param accountNumber The account number to retrieve transactions for.
-     * @return ResponseEntity containing a list of transactions or 404 if not found.
+     * @param cursor The cursor returned with the previous page; omit for the first page.
+     * @param size The maximum number of transactions to return.
+     * @param from Optional inclusive start of the time range (ISO date-time).
+     * @param to Optional exclusive end of the time range (ISO date-time).
+     * @param type Optional transaction type to filter by.
+     * @return ResponseEntity containing the page of transactions, or 404 if the account is not found.
      */
     @GetMapping(Constants.ACCOUNT_PATH + Constants.TRANSACTIONS_PATH)
-    public ResponseEntity<List<Transaction>> getTransactionsForAccount(@PathVariable String accountNumber) {
-        List<Transaction> transactions = accountService.getTransactionsForAccount(accountNumber);
+    public ResponseEntity<TransactionPageDto> getTransactionsForAccount(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + Constants.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) TransactionType type) {
+        return ResponseEntity.ok(accountService.getTransactionPage(accountNumber, cursor, size, from, to, type));
+    }
 
-        if (transactions.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
-        return ResponseEntity.ok(transactions);
+    /**
+     * Summarizes the transactions of an account per day and type over a range of days, e.g. for statements.
+     * Answered from daily summaries, so the cost depends on the number of days, not of transactions.
+     * @param accountNumber The account number to summarize.
+     * @param from The first day, inclusive (ISO date).
+     * @param to The last day, inclusive (ISO date); at most MAX_SUMMARY_DAYS after from.
+     * @return ResponseEntity containing the summary, or 404 if the account is not found.
+     */
+    @GetMapping(Constants.ACCOUNT_PATH + Constants.SUMMARIES_PATH)
+    public ResponseEntity<AccountSummaryDto> getDailySummary(
+            @PathVariable String accountNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(accountService.getDailySummary(accountNumber, from, to));
+    }
+
+    /**
+     * Streams the balance and the committed transactions of an account as server-sent events, replacing polling.
+     * The stream starts with a balance event; every update is sent as transaction events followed by a balance event.
+     * @param accountNumber The account number to subscribe to.
+     * @return The event stream, or 404 if the account is not found.
+     */
+    @GetMapping(value = Constants.ACCOUNT_PATH + Constants.EVENTS_PATH, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable String accountNumber) {
+        return accountService.subscribe(accountNumber);
+    }
+
+    /**
+     * Exports the complete transaction history of an account, oldest first.
+     * The response is streamed, so it is never held in memory as a whole.
+     * @param accountNumber The account number to export transactions for.
+     * @param format The output format, NDJSON (default) or CSV.
+     * @return ResponseEntity streaming the transactions, or 404 if the account is not found.
+     */
+    @GetMapping(Constants.ACCOUNT_PATH + Constants.TRANSACTIONS_PATH + Constants.EXPORT_PATH)
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@PathVariable String accountNumber,
+                                                                    @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        Account account = accountService.findAccountByNr(accountNumber); // Fail with 404 before the response is committed
+        StreamingResponseBody body = outputStream -> accountService.exportTransactions(account, format, outputStream);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getMediaType()))
+                .body(body);
     }
 
     /**
@@ -152,4 +275,18 @@ public class AccountController {
     }
 }
 
+    /**
+     * Runs a balance update, or answers it from the IdempotencyStore when the client sent an Idempotency-Key.
+     * Replayed responses carry the Idempotent-Replayed header.
+     */
+    private ResponseEntity<TransactionResponseDto> respond(String idempotencyKey, String request, Supplier<TransactionResponseDto> operation) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(operation.get());
+        }
+        IdempotencyStore.Result result = idempotencyStore.execute(idempotencyKey, request, operation);
+        return ResponseEntity.ok()
+                .header(Constants.IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.response());
+    }
+
 }
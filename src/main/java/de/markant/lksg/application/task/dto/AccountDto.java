@@ -1,5 +1,6 @@
 package de.markant.lksg.application.task.dto;
 
+import de.markant.lksg.application.task.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -18,5 +19,5 @@ public class AccountDto {
     private String accountNr;
 
     /** The current balance of the account. */
-    private Double balance;
+    private Money balance;
 }
@@ -0,0 +1,29 @@
+package de.markant.lksg.application.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one page of the account listing.
+ * The next page is requested by passing page + 1 as the page parameter.
+ */
+@Data // Lombok annotation to generate getters, setters, equals, hashCode, and toString methods
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountPageDto {
+
+    /** The account numbers and balances of this page. */
+    private List<AccountDto> accounts;
+
+    /** The zero based page number. */
+    private int page;
+
+    /** The requested page size. */
+    private int size;
+
+    /** Whether more accounts exist after this page. */
+    private boolean hasMore;
+}
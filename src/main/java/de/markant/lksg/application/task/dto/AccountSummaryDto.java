@@ -0,0 +1,41 @@
+package de.markant.lksg.application.task.dto;
+
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) summarizing an account's transactions over a range of days, e.g. for statements.
+ */
+@Data // Lombok annotation to generate getters, setters, equals, hashCode, and toString methods
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountSummaryDto {
+
+    /** The account number. */
+    private String accountNumber;
+
+    /** The first day of the range, inclusive. */
+    private LocalDate from;
+
+    /** The last day of the range, inclusive. */
+    private LocalDate to;
+
+    /** The balance at the start of the first day. */
+    private Money openingBalance;
+
+    /** The balance at the end of the last day. */
+    private Money closingBalance;
+
+    /** The transactions of the whole range per type; types without transactions are omitted. */
+    private Map<TransactionType, TypeSummaryDto> totals;
+
+    /** Every day of the range, oldest first, including days without transactions. */
+    private List<DailySummaryDto> days;
+}
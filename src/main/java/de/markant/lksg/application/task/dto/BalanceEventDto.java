@@ -0,0 +1,21 @@
+package de.markant.lksg.application.task.dto;
+
+import de.markant.lksg.application.task.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) carrying the balance of an account, sent to its event feed subscribers.
+ */
+@Data // Lombok annotation to generate getters, setters, equals, hashCode, and toString methods
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceEventDto {
+
+    /** The account number. */
+    private String accountNumber;
+
+    /** The balance after the latest transaction. */
+    private Money balance;
+}
@@ -0,0 +1,28 @@
+package de.markant.lksg.application.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) summarizing the outcome of a bulk transfer request.
+ */
+@Data // Lombok annotation to generate getters, setters, equals, hashCode, and toString methods
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransferReportDto {
+
+    /** The number of transfers received. */
+    private int total;
+
+    /** The number of transfers applied. */
+    private int succeeded;
+
+    /** The number of transfers rejected. */
+    private int failed;
+
+    /** The outcome of every transfer, in request order. */
+    private List<BulkTransferResultDto> results;
+}
@@ -0,0 +1,23 @@
+package de.markant.lksg.application.task.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of a single transfer of a bulk transfer request.
+ */
+@Data // Lombok annotation to generate getters, setters, equals, hashCode, and toString methods
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkTransferResultDto {
+
+    /** The zero based position of the transfer in the request. */
+    private int index;
+
+    /** Whether the transfer was applied. */
+    private boolean success;
+
+    /** The reason the transfer was rejected, or null if it was applied. */
+    private String message;
+}
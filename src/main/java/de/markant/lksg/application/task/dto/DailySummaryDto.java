@@ -0,0 +1,31 @@
+package de.markant.lksg.application.task.dto;
+
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) summarizing one day of an account.
+ */
+@Data // Lombok annotation to generate getters, setters, equals, hashCode, and toString methods
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySummaryDto {
+
+    /** The day. */
+    private LocalDate date;
+
+    /** The balance at the start of the day. */
+    private Money openingBalance;
+
+    /** The balance at the end of the day. */
+    private Money closingBalance;
+
+    /** The transactions of the day per type; types without transactions are omitted. */
+    private Map<TransactionType, TypeSummaryDto> transactions;
+}
@@ -0,0 +1,28 @@
+package de.markant.lksg.application.task.dto;
+
+import de.markant.lksg.application.task.constants.Constants;
+
+/**
+ * Enum representing the output formats supported by the transaction export.
+ */
+public enum ExportFormat {
+
+    /** One JSON object per line (newline-delimited JSON). */
+    NDJSON(Constants.NDJSON_MEDIA_TYPE),
+
+    /** Comma separated values with a header line. */
+    CSV(Constants.CSV_MEDIA_TYPE);
+
+    private final String mediaType;
+
+    ExportFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * @return The content type written for this format.
+     */
+    public String getMediaType() {
+        return mediaType;
+    }
+}
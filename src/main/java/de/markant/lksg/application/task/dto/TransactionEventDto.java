@@ -0,0 +1,37 @@
+package de.markant.lksg.application.task.dto;
+
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) describing a transaction to downstream systems, as published from the outbox.
+ */
+@Data // Lombok annotation to generate getters, setters, equals, hashCode, and toString methods
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionEventDto {
+
+    /** The id of the transaction; an event may be delivered more than once, consumers deduplicate by it. */
+    private Long transactionId;
+
+    /** The account whose balance changed. */
+    private String accountNumber;
+
+    private TransactionType transactionType;
+
+    private LocalDateTime timeStamp;
+
+    private Money oldBalance;
+
+    private Money newBalance;
+
+    private Money transactionAmount;
+
+    /** The other account of a transfer, otherwise null. */
+    private String targetAccountNumber;
+}
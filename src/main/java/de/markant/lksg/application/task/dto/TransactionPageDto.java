@@ -0,0 +1,27 @@
+package de.markant.lksg.application.task.dto;
+
+import de.markant.lksg.application.task.model.Transaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for one page of an account's transaction history.
+ * The next page is requested by passing nextCursor back as the cursor parameter.
+ */
+@Data // Lombok annotation to generate getters, setters, equals, hashCode, and toString methods
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageDto {
+
+    /** The transactions of this page, newest first. */
+    private List<Transaction> transactions;
+
+    /** Opaque cursor pointing after the last transaction of this page, or null if there are no more pages. */
+    private String nextCursor;
+
+    /** Whether more transactions exist after this page. */
+    private boolean hasMore;
+}
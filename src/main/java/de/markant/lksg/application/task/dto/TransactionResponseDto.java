@@ -0,0 +1,51 @@
+package de.markant.lksg.application.task.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import de.markant.lksg.application.task.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) for the response of the deposit, withdraw and transfer endpoints.
+ * Fields that do not apply to an operation are left null and omitted from the JSON.
+ */
+@Data // Lombok annotation to generate getters, setters, equals, hashCode, and toString methods
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TransactionResponseDto {
+
+    /** A human readable confirmation. */
+    private String message;
+
+    /** The id of the ledger entry written for the (source) account. */
+    private Long transactionId;
+
+    /** The balance of the account after a deposit or withdrawal. */
+    private Money newBalance;
+
+    /** The account a transfer was taken from. */
+    private String sourceAccount;
+
+    /** The account a transfer was credited to. */
+    private String targetAccount;
+
+    /** The amount transferred. */
+    private Money transferAmount;
+
+    /** The balance of the source account after a transfer. */
+    private Money sourceNewBalance;
+
+    /** The balance of the target account after a transfer. */
+    private Money targetNewBalance;
+
+    /** The time stamp of the ledger entries. */
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "MMMM dd, yyyy, HH:mm")
+    private LocalDateTime timeStamp;
+}
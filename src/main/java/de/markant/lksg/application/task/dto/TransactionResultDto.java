@@ -0,0 +1,41 @@
+package de.markant.lksg.application.task.dto;
+
+import de.markant.lksg.application.task.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) for the outcome of a deposit, withdrawal or transfer.
+ * It carries the balances as written by the update, so callers do not need to read the accounts again.
+ */
+@Data // Lombok annotation to generate getters, setters, equals, hashCode, and toString methods
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionResultDto {
+
+    /** The id of the ledger entry written for the (source) account. */
+    private Long transactionId;
+
+    /** The account the amount was deposited to, withdrawn from or transferred from. */
+    private String accountNumber;
+
+    /** The balance of that account after the update. */
+    private Money newBalance;
+
+    /** The account the amount was transferred to, or null for deposits and withdrawals. */
+    private String targetAccountNumber;
+
+    /** The balance of the target account after the transfer, or null for deposits and withdrawals. */
+    private Money targetNewBalance;
+
+    /** The amount deposited, withdrawn or transferred. */
+    private Money amount;
+
+    /** The time stamp of the ledger entries. */
+    private LocalDateTime timeStamp;
+}
@@ -1,5 +1,6 @@
 package de.markant.lksg.application.task.dto;
 
+import de.markant.lksg.application.task.model.Money;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -19,5 +20,5 @@ public class TransferDto {
     private String targetAccountNumber;
 
     /** The amount of money to be transferred. */
-    private Double transferAmount;
+    private Money transferAmount;
 }
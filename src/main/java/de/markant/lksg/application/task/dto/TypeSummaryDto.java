@@ -0,0 +1,24 @@
+package de.markant.lksg.application.task.dto;
+
+import de.markant.lksg.application.task.model.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object (DTO) summarizing an account's transactions of one type.
+ */
+@Data // Lombok annotation to generate getters, setters, equals, hashCode, and toString methods
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypeSummaryDto {
+
+    /** The number of transactions. */
+    private long count;
+
+    /** The sum of the transactions' amounts. */
+    private Money total;
+
+    /** The sum of the transactions' effects on the balance; negative for withdrawals and outgoing transfers. */
+    private Money balanceChange;
+}
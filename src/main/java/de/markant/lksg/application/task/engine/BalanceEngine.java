@@ -0,0 +1,374 @@
+package de.markant.lksg.application.task.engine;
+
+import de.markant.lksg.application.task.config.EngineProperties;
+import de.markant.lksg.application.task.dto.TransactionResultDto;
+import de.markant.lksg.application.task.feed.TransactionFeed;
+import de.markant.lksg.application.task.journal.TransactionJournal;
+import de.markant.lksg.application.task.outbox.TransactionOutbox;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.EngineCheckpoint;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import de.markant.lksg.application.task.repository.EngineCheckpointRepository;
+import de.markant.lksg.application.task.repository.TransactionRepository;
+import de.markant.lksg.application.task.service.DailySummaryService;
+import de.markant.lksg.application.task.service.LedgerMode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The BalanceEngine keeps account balances in memory and applies deposits, withdrawals and transfers
+ * without a database round trip. Accounts are partitioned by account number over a fixed number of
+ * EngineShards; each shard is updated by its own thread only and acknowledges an operation once its record
+ * is forced to the shard's write-ahead log.
+ * A background writer stores acknowledged operations in the database in batches (write-behind): one
+ * transaction updates the balances, inserts the ledger rows and advances each shard's EngineCheckpoint,
+ * after which the log is emptied. On startup, records of a log beyond its shard's checkpoint are written
+ * to the database before the engine accepts operations, so an acknowledged operation survives a crash.
+ * The daily summaries and outbox events of the ledger rows are written in the same transaction, and the
+ * ledger rows are published to the TransactionFeed once it committed.
+ * The database, and thus the transaction history, lags behind the engine by up to the flush interval.
+ * The engine assumes it is the only writer of balances; it is disabled by default (banking.engine.enabled).
+ */
+@Component
+@Slf4j
+public class BalanceEngine {
+
+    private static final Pattern WAL_FILE = Pattern.compile("shard-(\\d+)\\.wal");
+
+    private final EngineProperties properties;
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final EngineCheckpointRepository checkpointRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionJournal transactionJournal;
+
+    private final DailySummaryService dailySummaryService;
+
+    private final TransactionFeed transactionFeed;
+
+    private final TransactionOutbox transactionOutbox;
+
+    private EngineShard[] shards = new EngineShard[0];
+
+    private ScheduledExecutorService writer;
+
+    /** Records taken from the shards whose database write failed; written first by the next flush. */
+    private List<WalRecord> retry = new ArrayList<>();
+
+    private Map<Integer, Long> retrySequences = new HashMap<>();
+
+    public BalanceEngine(EngineProperties properties,
+                         AccountRepository accountRepository,
+                         TransactionRepository transactionRepository,
+                         EngineCheckpointRepository checkpointRepository,
+                         TransactionTemplate transactionTemplate,
+                         TransactionJournal transactionJournal,
+                         DailySummaryService dailySummaryService,
+                         TransactionFeed transactionFeed,
+                         TransactionOutbox transactionOutbox,
+                         @Value("${banking.ledger.mode:STATE}") LedgerMode ledgerMode) {
+        if (properties.isEnabled() && ledgerMode != LedgerMode.STATE) {
+            throw new IllegalStateException("The balance engine requires the STATE ledger mode.");
+        }
+        this.properties = properties;
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.transactionJournal = transactionJournal;
+        this.dailySummaryService = dailySummaryService;
+        this.transactionFeed = transactionFeed;
+        this.transactionOutbox = transactionOutbox;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Recovers the write-ahead logs and starts the shards and the writer, if the engine is enabled.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        Path directory = Paths.get(properties.getWalDirectory());
+        Files.createDirectories(directory);
+        Map<Integer, Long> lastSequences = recover(directory);
+
+        shards = new EngineShard[properties.getShards()];
+        for (int i = 0; i < shards.length; i++) {
+            long lastSequence = lastSequences.getOrDefault(i, 0L);
+            shards[i] = new EngineShard(i, new WriteAheadLog(directory.resolve("shard-" + i + ".wal")), lastSequence + 1, this::loadAccount);
+            shards[i].start();
+        }
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-engine-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushQuietly, properties.getFlushIntervalMs(), properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+        log.info("Balance engine started with {} shards, write-ahead logs in {}", shards.length, directory.toAbsolutePath());
+    }
+
+    /**
+     * Stops accepting operations and writes everything acknowledged to the database.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        writer.awaitTermination(properties.getFlushIntervalMs() * 10, TimeUnit.MILLISECONDS);
+        for (EngineShard shard : shards) {
+            shard.stop();
+        }
+        flush();
+        // The logs are closed now; empty them directly once everything is stored
+        for (EngineShard shard : shards) {
+            if (shard.unpersisted().isEmpty() && retry.isEmpty()) {
+                Files.write(Paths.get(properties.getWalDirectory()).resolve("shard-" + shard.id() + ".wal"), new byte[0]);
+            }
+        }
+        writer = null;
+    }
+
+    /**
+     * @see de.markant.lksg.application.task.service.AccountService#deposit(String, Money)
+     */
+    public TransactionResultDto deposit(String accountNumber, Money amount) {
+        return call(accountNumber, shard -> shard.deposit(accountNumber, amount));
+    }
+
+    /**
+     * @see de.markant.lksg.application.task.service.AccountService#withdraw(String, Money)
+     */
+    public TransactionResultDto withdraw(String accountNumber, Money amount) {
+        return call(accountNumber, shard -> shard.withdraw(accountNumber, amount));
+    }
+
+    /**
+     * Transfers between two accounts, which may belong to different shards. The source shard validates,
+     * debits and logs the whole transfer; the target shard credits it afterwards. In between, the amount
+     * is already durable but not yet visible on the target account.
+     * @see de.markant.lksg.application.task.service.AccountService#transfer(String, String, Money)
+     */
+    public TransactionResultDto transfer(String sourceAccountNumber, String targetAccountNumber, Money transferAmount) {
+        call(targetAccountNumber, shard -> shard.account(targetAccountNumber)); // Fails before anything is logged
+        TransactionResultDto result = call(sourceAccountNumber, shard -> shard.debit(sourceAccountNumber, targetAccountNumber, transferAmount));
+        result.setTargetAccountNumber(targetAccountNumber);
+        result.setTargetNewBalance(call(targetAccountNumber, shard -> shard.credit(targetAccountNumber, transferAmount)));
+        return result;
+    }
+
+    /**
+     * @param accountNumber The account number to look up.
+     * @return A copy of the account with its current in-memory balance.
+     */
+    public Account findAccount(String accountNumber) {
+        return call(accountNumber, shard -> shard.copy(accountNumber));
+    }
+
+    /**
+     * Writes pending operations to the database and drops the account from memory, before it is deleted.
+     * @param accountNumber The account number to drop.
+     */
+    public void evict(String accountNumber) {
+        flush();
+        call(accountNumber, shard -> {
+            shard.remove(accountNumber);
+            return null;
+        });
+    }
+
+    /**
+     * Writes all operations acknowledged so far to the database, in transactions of at most
+     * flush-batch-size operations.
+     */
+    public synchronized void flush() {
+        while (true) {
+            List<WalRecord> batch = retry;
+            Map<Integer, Long> lastSequences = retrySequences;
+            for (EngineShard shard : shards) {
+                WalRecord record;
+                while (batch.size() < properties.getFlushBatchSize() && (record = shard.unpersisted().poll()) != null) {
+                    batch.add(record);
+                    lastSequences.put(shard.id(), record.sequence());
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            retry = batch;
+            retrySequences = lastSequences;
+            persist(batch, lastSequences);
+            retry = new ArrayList<>();
+            retrySequences = new HashMap<>();
+
+            for (EngineShard shard : shards) {
+                Long sequence = lastSequences.get(shard.id());
+                if (sequence != null) {
+                    shard.submit(s -> s.persisted(sequence));
+                }
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Writing balance engine operations to the database failed, retrying", e);
+        }
+    }
+
+    private Map<Integer, Long> recover(Path directory) throws IOException {
+        Map<Integer, Long> lastSequences = new HashMap<>();
+        checkpointRepository.findAll().forEach(checkpoint -> lastSequences.put(checkpoint.getShard(), checkpoint.getLastSequence()));
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> WAL_FILE.matcher(path.getFileName().toString()).matches()).toList();
+        }
+        for (Path file : files) {
+            Matcher matcher = WAL_FILE.matcher(file.getFileName().toString());
+            matcher.matches();
+            int shard = Integer.parseInt(matcher.group(1));
+            long checkpoint = lastSequences.getOrDefault(shard, 0L);
+            List<WalRecord> tail = WriteAheadLog.read(file).stream()
+                    .filter(record -> record.sequence() > checkpoint)
+                    .toList();
+            if (!tail.isEmpty()) {
+                long lastSequence = tail.get(tail.size() - 1).sequence();
+                persist(tail, Map.of(shard, lastSequence));
+                lastSequences.put(shard, lastSequence);
+                log.info("Recovered {} operations of shard {} from its write-ahead log", tail.size(), shard);
+            }
+            Files.write(file, new byte[0]);
+        }
+        return lastSequences;
+    }
+
+    /**
+     * Applies records to the database in one transaction, together with the shards' new checkpoints.
+     */
+    private void persist(List<WalRecord> records, Map<Integer, Long> lastSequences) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<String> accountNumbers = new HashSet<>();
+            for (WalRecord record : records) {
+                accountNumbers.add(record.accountNumber());
+                if (record.targetAccountNumber() != null) {
+                    accountNumbers.add(record.targetAccountNumber());
+                }
+            }
+            Map<String, Account> accounts = new LinkedHashMap<>();
+            accountRepository.findByAccountNrIn(accountNumbers).forEach(account -> accounts.put(account.getAccountNr(), account));
+
+            List<Transaction> ledger = new ArrayList<>(records.size() * 2);
+            for (WalRecord record : records) {
+                apply(record, accounts, ledger);
+            }
+
+            accountRepository.saveAll(accounts.values());
+            transactionRepository.saveAll(ledger);
+            dailySummaryService.add(ledger);
+            transactionOutbox.add(ledger);
+            transactionJournal.appendAfterCommit(ledger);
+            transactionFeed.publishAfterCommit(ledger);
+            lastSequences.forEach((shard, sequence) -> checkpointRepository.save(new EngineCheckpoint(shard, sequence)));
+        });
+    }
+
+    private static void apply(WalRecord record, Map<String, Account> accounts, List<Transaction> ledger) {
+        Account account = accounts.get(record.accountNumber());
+        Account target = record.targetAccountNumber() == null ? null : accounts.get(record.targetAccountNumber());
+        if (account == null || (record.targetAccountNumber() != null && target == null)) {
+            log.warn("Skipping {} operation {}, the account was deleted", record.type(), record.sequence());
+            return;
+        }
+        switch (record.type()) {
+            case DEPOSIT -> ledger.add(entry(account, record, record.amount(), null));
+            case WITHDRAWAL -> ledger.add(entry(account, record, record.amount().negate(), null));
+            case TRANSFER -> {
+                ledger.add(entry(account, record, record.amount().negate(), target.getAccountNr()));
+                ledger.add(entry(target, record, record.amount(), account.getAccountNr()));
+            }
+            default -> throw new IllegalStateException("Unexpected operation " + record.type());
+        }
+    }
+
+    private static Transaction entry(Account account, WalRecord record, Money change, String otherAccountNumber) {
+        Money oldBalance = account.getBalance();
+        account.setBalance(oldBalance.plus(change));
+        return Transaction.transactionBuilder()
+                .account(account)
+                .transactionType(record.type())
+                .oldBalance(oldBalance)
+                .newBalance(account.getBalance())
+                .transactionAmount(record.amount())
+                .targetAccountNr(otherAccountNumber)
+                .timeStamp(record.timeStamp())
+                .build();
+    }
+
+    private Optional<Account> loadAccount(String accountNumber) {
+        return accountRepository.findAccountByAccountNr(accountNumber).map(account -> {
+            Account copy = new Account(account.getAccountNr(), account.getBalance());
+            copy.setAccountId(account.getAccountId());
+            copy.setVersion(account.getVersion());
+            return copy;
+        });
+    }
+
+    private <T> T call(String accountNumber, Function<EngineShard, T> action) {
+        if (shards.length == 0) {
+            throw new IllegalStateException("The balance engine is not running.");
+        }
+        EngineShard shard = shards[Math.floorMod(accountNumber.hashCode(), shards.length)];
+        try {
+            return shard.submit(action).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
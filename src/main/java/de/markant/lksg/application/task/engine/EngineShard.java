@@ -0,0 +1,283 @@
+package de.markant.lksg.application.task.engine;
+
+import de.markant.lksg.application.task.dto.TransactionResultDto;
+import de.markant.lksg.application.task.exception.ResourceNotFoundException;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.TransactionType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+
+/**
+ * One shard of the BalanceEngine. It owns the in-memory state of its accounts and a write-ahead log, and
+ * runs every operation on its own thread, so the state needs no locks.
+ * The thread takes all queued operations at once, applies them, forces their log records to disk with a
+ * single sync and only then completes them (group commit): an operation is acknowledged once it is durable.
+ */
+class EngineShard implements Runnable {
+
+    private static final int MAX_BATCH = 256;
+
+    private final int id;
+
+    private final WriteAheadLog wal;
+
+    private final Function<String, Optional<Account>> accountLoader;
+
+    private final BlockingQueue<Task<?>> tasks = new LinkedBlockingQueue<>();
+
+    /** Records that are durable but not yet stored in the database; drained by the BalanceEngine's writer. */
+    private final Queue<WalRecord> unpersisted = new ConcurrentLinkedQueue<>();
+
+    // State below is only accessed by the shard's thread
+    private final Map<String, Account> accounts = new HashMap<>();
+
+    private final List<WalRecord> unsynced = new ArrayList<>();
+
+    private long nextSequence;
+
+    private boolean running = true;
+
+    private Thread thread;
+
+    EngineShard(int id, WriteAheadLog wal, long nextSequence, Function<String, Optional<Account>> accountLoader) {
+        this.id = id;
+        this.wal = wal;
+        this.nextSequence = nextSequence;
+        this.accountLoader = accountLoader;
+    }
+
+    int id() {
+        return id;
+    }
+
+    void start() {
+        thread = new Thread(this, "balance-engine-shard-" + id);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Completes the operations already queued and stops the shard's thread.
+     */
+    void stop() throws InterruptedException, IOException {
+        submit(shard -> {
+            shard.running = false;
+            return null;
+        });
+        thread.join();
+        wal.close();
+    }
+
+    /**
+     * Queues an operation for the shard's thread.
+     * @param action The operation; it may read and change the shard's state.
+     * @return A future completed with the result once the operation's log records are on disk.
+     */
+    <T> CompletableFuture<T> submit(Function<EngineShard, T> action) {
+        Task<T> task = new Task<>(action);
+        tasks.add(task);
+        return task.future;
+    }
+
+    Queue<WalRecord> unpersisted() {
+        return unpersisted;
+    }
+
+    @Override
+    public void run() {
+        List<Task<?>> batch = new ArrayList<>(MAX_BATCH);
+        while (running) {
+            try {
+                batch.add(tasks.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            tasks.drainTo(batch, MAX_BATCH - 1);
+
+            batch.forEach(Task::run);
+            RuntimeException syncFailure = sync();
+            for (Task<?> task : batch) {
+                task.complete(syncFailure);
+            }
+            batch.clear();
+        }
+    }
+
+    private RuntimeException sync() {
+        if (unsynced.isEmpty()) {
+            return null;
+        }
+        try {
+            wal.sync();
+            unpersisted.addAll(unsynced);
+            unsynced.clear();
+            return null;
+        } catch (IOException e) {
+            // Nothing can be acknowledged any more, the in-memory state is ahead of the log
+            running = false;
+            return new IllegalStateException("Write-ahead log of shard " + id + " failed.", e);
+        }
+    }
+
+    // Operations, run on the shard's thread
+
+    Account account(String accountNumber) {
+        Account account = accounts.get(accountNumber);
+        if (account == null) {
+            account = accountLoader.apply(accountNumber)
+                    .orElseThrow(() -> new ResourceNotFoundException("Account number " + accountNumber + " not found!"));
+            accounts.put(accountNumber, account);
+        }
+        return account;
+    }
+
+    Account copy(String accountNumber) {
+        Account account = account(accountNumber);
+        Account copy = new Account(account.getAccountNr(), account.getBalance());
+        copy.setAccountId(account.getAccountId());
+        copy.setVersion(account.getVersion());
+        return copy;
+    }
+
+    void remove(String accountNumber) {
+        accounts.remove(accountNumber);
+    }
+
+    TransactionResultDto deposit(String accountNumber, Money amount) {
+        Account account = account(accountNumber);
+        if (amount.isNegative()) {
+            throw new TransactionException("Deposit amount should be positive");
+        }
+        WalRecord record = log(TransactionType.DEPOSIT, accountNumber, null, amount);
+        account.setBalance(account.getBalance().plus(amount));
+        return result(account, record);
+    }
+
+    TransactionResultDto withdraw(String accountNumber, Money amount) {
+        Account account = account(accountNumber);
+        if (amount.isNegative()) {
+            throw new TransactionException("Invalid amount");
+        }
+        if (amount.isGreaterThan(account.getBalance())) {
+            throw new TransactionException("Insufficient balance");
+        }
+        WalRecord record = log(TransactionType.WITHDRAWAL, accountNumber, null, amount);
+        account.setBalance(account.getBalance().minus(amount));
+        return result(account, record);
+    }
+
+    /**
+     * Debits the source account of a transfer and logs the whole transfer; the target account, which
+     * may belong to another shard, is credited afterwards with credit().
+     */
+    TransactionResultDto debit(String sourceAccountNumber, String targetAccountNumber, Money amount) {
+        Account account = account(sourceAccountNumber);
+        if (amount.isGreaterThan(account.getBalance())) {
+            throw new TransactionException("Insufficient balance for transfer!");
+        }
+        if (amount.signum() <= 0) {
+            throw new TransactionException("Invalid transfer amount.");
+        }
+        WalRecord record = log(TransactionType.TRANSFER, sourceAccountNumber, targetAccountNumber, amount);
+        account.setBalance(account.getBalance().minus(amount));
+        return result(account, record);
+    }
+
+    /**
+     * Credits the target account of a transfer that is already logged by the source account's shard.
+     * @return The new balance of the target account.
+     */
+    Money credit(String targetAccountNumber, Money amount) {
+        Account account = account(targetAccountNumber);
+        account.setBalance(account.getBalance().plus(amount));
+        return account.getBalance();
+    }
+
+    /**
+     * Called once the records up to the given sequence number are stored in the database;
+     * empties the log if no record was appended since.
+     */
+    Void persisted(long sequence) {
+        if (sequence == nextSequence - 1 && unsynced.isEmpty() && unpersisted.isEmpty()) {
+            try {
+                wal.truncate();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return null;
+    }
+
+    private WalRecord log(TransactionType type, String accountNumber, String targetAccountNumber, Money amount) {
+        WalRecord record = new WalRecord(nextSequence, type, accountNumber, targetAccountNumber, amount, LocalDateTime.now());
+        try {
+            wal.append(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        nextSequence++;
+        unsynced.add(record);
+        return record;
+    }
+
+    private static TransactionResultDto result(Account account, WalRecord record) {
+        return TransactionResultDto.builder()
+                .accountNumber(account.getAccountNr())
+                .newBalance(account.getBalance())
+                .amount(record.amount())
+                .timeStamp(record.timeStamp())
+                .build();
+    }
+
+    /**
+     * A queued operation and, once it ran, its outcome.
+     */
+    private final class Task<T> {
+
+        private final Function<EngineShard, T> action;
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private T result;
+
+        private RuntimeException failure;
+
+        private Task(Function<EngineShard, T> action) {
+            this.action = action;
+        }
+
+        private void run() {
+            try {
+                result = action.apply(EngineShard.this);
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+
+        private void complete(RuntimeException syncFailure) {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else if (syncFailure != null) {
+                future.completeExceptionally(syncFailure);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package de.markant.lksg.application.task.engine;
+
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * One acknowledged balance operation as written to the write-ahead log.
+ * Only operations that passed validation are logged, so replaying a record never fails.
+ *
+ * @param sequence            The position of the record in its shard's log, starting at 1.
+ * @param type                DEPOSIT, WITHDRAWAL or TRANSFER.
+ * @param accountNumber       The account deposited to, withdrawn from or transferred from.
+ * @param targetAccountNumber The account transferred to, or null.
+ * @param amount              The amount of the operation.
+ * @param timeStamp           The time the operation was acknowledged.
+ */
+record WalRecord(long sequence, TransactionType type, String accountNumber, String targetAccountNumber,
+                 Money amount, LocalDateTime timeStamp) {
+}
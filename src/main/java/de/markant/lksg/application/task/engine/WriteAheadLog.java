@@ -0,0 +1,142 @@
+package de.markant.lksg.application.task.engine;
+
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.TransactionType;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of WalRecords. Every record is stored as its length, its payload and a CRC32 of the
+ * payload; reading stops at the first incomplete or corrupt record, which is what a crash in the middle
+ * of an append leaves behind. Appends are buffered until sync() forces them to disk.
+ * Not thread safe: a log is only used by the shard that owns it.
+ */
+class WriteAheadLog implements Closeable {
+
+    private final FileOutputStream file;
+
+    private final DataOutputStream out;
+
+    WriteAheadLog(Path path) throws IOException {
+        this.file = new FileOutputStream(path.toFile(), true);
+        this.out = new DataOutputStream(new BufferedOutputStream(file));
+    }
+
+    /**
+     * Reads all complete records of a log file.
+     * @param path The log file.
+     * @return The records in the order they were appended; empty if the file does not exist.
+     * @throws IOException If the file cannot be read.
+     */
+    static List<WalRecord> read(Path path) throws IOException {
+        List<WalRecord> records = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return records;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                WalRecord record = readRecord(in);
+                if (record == null) {
+                    return records;
+                }
+                records.add(record);
+            }
+        }
+    }
+
+    void append(WalRecord record) throws IOException {
+        byte[] payload = encode(record);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        out.writeInt(payload.length);
+        out.write(payload);
+        out.writeLong(crc.getValue());
+    }
+
+    /**
+     * Forces all appended records to disk.
+     */
+    void sync() throws IOException {
+        out.flush();
+        file.getChannel().force(false);
+    }
+
+    /**
+     * Discards all records, once they are stored in the database.
+     */
+    void truncate() throws IOException {
+        out.flush();
+        file.getChannel().truncate(0);
+        file.getChannel().force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private static byte[] encode(WalRecord record) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream payload = new DataOutputStream(bytes)) {
+            payload.writeLong(record.sequence());
+            payload.writeUTF(record.type().name());
+            payload.writeUTF(record.accountNumber());
+            payload.writeBoolean(record.targetAccountNumber() != null);
+            if (record.targetAccountNumber() != null) {
+                payload.writeUTF(record.targetAccountNumber());
+            }
+            payload.writeLong(record.amount().minorUnits());
+            payload.writeUTF(record.timeStamp().toString());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static WalRecord readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length <= 0 || length > 1 << 16) {
+                return null;
+            }
+            byte[] payload = in.readNBytes(length);
+            if (payload.length < length) {
+                return null;
+            }
+            long checksum = in.readLong();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if (crc.getValue() != checksum) {
+                return null;
+            }
+            return decode(new ByteArrayInputStream(payload));
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static WalRecord decode(InputStream bytes) throws IOException {
+        DataInputStream payload = new DataInputStream(bytes);
+        long sequence = payload.readLong();
+        TransactionType type = TransactionType.valueOf(payload.readUTF());
+        String accountNumber = payload.readUTF();
+        String targetAccountNumber = payload.readBoolean() ? payload.readUTF() : null;
+        Money amount = Money.ofMinor(payload.readLong());
+        LocalDateTime timeStamp = LocalDateTime.parse(payload.readUTF());
+        return new WalRecord(sequence, type, accountNumber, targetAccountNumber, amount, timeStamp);
+    }
+}
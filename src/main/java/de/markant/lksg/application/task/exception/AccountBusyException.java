@@ -0,0 +1,17 @@
+package de.markant.lksg.application.task.exception;
+
+
+/**
+ * Exception indicating that an account's lock could not be acquired in time because other
+ * updates of the account are in progress. The request was valid and may be repeated.
+ */
+public class AccountBusyException extends RuntimeException {
+
+    /**
+     * Constructs a new AccountBusyException with the specified detail message.
+     * @param message The detail message, which is saved for later retrieval.
+     */
+    public AccountBusyException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,8 @@
 package de.markant.lksg.application.task.exception;
 
+import de.markant.lksg.application.task.constants.Constants;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -9,10 +12,19 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
  * Global exception handler for the application.
  * This class is responsible for handling exceptions thrown by controllers
  * and returning appropriate HTTP responses.
+ * Every handled exception is counted by exception type and response status.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    static final String ERRORS_METRIC = "banking.errors";
+
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * Handles ResourceNotFoundException.
      * @param resourceNotFoundException The exception thrown when a requested resource is not found.
@@ -20,7 +32,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<String> handleResourceNotFoundException(ResourceNotFoundException resourceNotFoundException) {
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(resourceNotFoundException.getMessage());
+        return respond(HttpStatus.NOT_FOUND, resourceNotFoundException, resourceNotFoundException.getMessage());
     }
 
     /**
@@ -30,8 +42,44 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(TransactionException.class)
     public ResponseEntity<String> handleTransactionException(TransactionException transactionException) {
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(transactionException.getMessage());
+        return respond(HttpStatus.BAD_REQUEST, transactionException, transactionException.getMessage());
     }
 
+    /**
+     * Handles OptimisticLockingFailureException.
+     * @param optimisticLockingFailureException The exception thrown when an account kept being modified concurrently.
+     * @return ResponseEntity with a 409 CONFLICT status and error message.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException optimisticLockingFailureException) {
+        return respond(HttpStatus.CONFLICT, optimisticLockingFailureException, Constants.CONCURRENT_MODIFICATION);
+    }
+
+    /**
+     * Handles AccountBusyException.
+     * @param accountBusyException The exception thrown when an account's lock could not be acquired in time.
+     * @return ResponseEntity with a 409 CONFLICT status and error message.
+     */
+    @ExceptionHandler(AccountBusyException.class)
+    public ResponseEntity<String> handleAccountBusyException(AccountBusyException accountBusyException) {
+        return respond(HttpStatus.CONFLICT, accountBusyException, accountBusyException.getMessage());
+    }
+
+    /**
+     * Handles IdempotencyKeyException.
+     * @param idempotencyKeyException The exception thrown when a request cannot be executed under its Idempotency-Key.
+     * @return ResponseEntity with a 422 UNPROCESSABLE ENTITY or 409 CONFLICT status and error message.
+     */
+    @ExceptionHandler(IdempotencyKeyException.class)
+    public ResponseEntity<String> handleIdempotencyKeyException(IdempotencyKeyException idempotencyKeyException) {
+        return respond(idempotencyKeyException.getStatus(), idempotencyKeyException, idempotencyKeyException.getMessage());
+    }
+
+    private ResponseEntity<String> respond(HttpStatus status, Exception exception, String message) {
+        meterRegistry.counter(ERRORS_METRIC,
+                "exception", exception.getClass().getSimpleName(),
+                "status", String.valueOf(status.value())).increment();
+        return ResponseEntity.status(status).body(message);
+    }
 
 }
@@ -0,0 +1,20 @@
+package de.markant.lksg.application.task.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception indicating that a request cannot be executed under its Idempotency-Key, because the key
+ * was used for a different request or the first request with the key has not finished yet.
+ */
+@Getter
+public class IdempotencyKeyException extends RuntimeException {
+
+    /** The response status, 422 for a reused key and 409 for a request still in progress. */
+    private final HttpStatus status;
+
+    public IdempotencyKeyException(String message, HttpStatus status) {
+        super(message);
+        this.status = status;
+    }
+}
@@ -0,0 +1,139 @@
+package de.markant.lksg.application.task.feed;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * One subscription of the TransactionFeed: a bounded buffer of events in front of the client's connection.
+ * Publishers only add to the buffer and never wait for the client; at most one sender thread at a time writes
+ * the buffered events to the connection, so a slow client fills its own buffer instead of holding up others.
+ */
+class FeedSubscriber {
+
+    private final String accountNumber;
+
+    private final SseEmitter emitter;
+
+    private final BlockingDeque<Set<DataWithMediaType>> events;
+
+    private final Executor sender;
+
+    private final Counter droppedEvents;
+
+    private final Consumer<FeedSubscriber> onFailure;
+
+    /** Set while a sender drains the buffer; starts set, so nothing is sent before the initial event. */
+    private final AtomicBoolean sending = new AtomicBoolean(true);
+
+    /** Events dropped since the last event sent. */
+    private final AtomicInteger dropped = new AtomicInteger();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    FeedSubscriber(String accountNumber, SseEmitter emitter, int bufferSize, Executor sender,
+                   Counter droppedEvents, Consumer<FeedSubscriber> onFailure) {
+        this.accountNumber = accountNumber;
+        this.emitter = emitter;
+        this.events = new LinkedBlockingDeque<>(bufferSize);
+        this.sender = sender;
+        this.droppedEvents = droppedEvents;
+        this.onFailure = onFailure;
+    }
+
+    String getAccountNumber() {
+        return accountNumber;
+    }
+
+    SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    /**
+     * Sends the initial event ahead of the events published since the subscription was registered.
+     */
+    void start(Set<DataWithMediaType> initialEvent) {
+        while (!events.offerFirst(initialEvent)) {
+            drop(events.pollLast());
+        }
+        sending.set(false);
+        schedule();
+    }
+
+    /**
+     * Buffers an event; the caller schedules sending it.
+     * @return false if the buffer is full and the policy is DISCONNECT.
+     */
+    boolean offer(Set<DataWithMediaType> event, SlowConsumerPolicy policy) {
+        if (events.offerLast(event)) {
+            return true;
+        }
+        if (policy == SlowConsumerPolicy.DISCONNECT) {
+            return false;
+        }
+        do {
+            drop(events.pollFirst());
+        } while (!events.offerLast(event));
+        return true;
+    }
+
+    /**
+     * Buffers a heartbeat unless events are waiting anyway.
+     */
+    void heartbeat(Set<DataWithMediaType> comment) {
+        if (events.isEmpty() && events.offerLast(comment)) {
+            schedule();
+        }
+    }
+
+    void schedule() {
+        if (!closed.get() && sending.compareAndSet(false, true)) {
+            sender.execute(this::send);
+        }
+    }
+
+    /**
+     * @return true for the first call only.
+     */
+    boolean close() {
+        return closed.compareAndSet(false, true);
+    }
+
+    private void send() {
+        try {
+            Set<DataWithMediaType> event;
+            while (!closed.get() && (event = events.pollFirst()) != null) {
+                int missed = dropped.getAndSet(0);
+                if (missed > 0) {
+                    emitter.send(SseEmitter.event().name(TransactionFeed.RESYNC_EVENT).data(missed).build());
+                }
+                emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the subscription completed
+            onFailure.accept(this);
+            return;
+        } finally {
+            sending.set(false);
+        }
+        if (!events.isEmpty()) {
+            schedule(); // Published while the last event was sent
+        }
+    }
+
+    private void drop(Set<DataWithMediaType> event) {
+        if (event != null) {
+            dropped.incrementAndGet();
+            droppedEvents.increment();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package de.markant.lksg.application.task.feed;
+
+/**
+ * Defines what the TransactionFeed does with a subscriber that does not keep up with its events.
+ */
+public enum SlowConsumerPolicy {
+    /** The oldest waiting events are dropped; the subscriber is told how many with a resync event and should
+     * read the account and its transactions again. */
+    DROP_OLDEST,
+    /** The subscription is closed; the client reconnects and starts over with the current balance. */
+    DISCONNECT
+}
@@ -0,0 +1,261 @@
+package de.markant.lksg.application.task.feed;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.markant.lksg.application.task.config.FeedProperties;
+import de.markant.lksg.application.task.constants.Constants;
+import de.markant.lksg.application.task.dto.BalanceEventDto;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The TransactionFeed pushes the committed transactions and resulting balances of an account to its subscribers
+ * as server-sent events, so clients no longer poll the account and its transactions.
+ * A subscription starts with a balance event carrying the current balance; after every committed update of the
+ * account follows one transaction event per transaction (its id is the transaction id) and a balance event.
+ * Each event is serialized once and the same bytes are handed to every subscriber of the account, which only
+ * buffers them; a small pool of sender threads writes the buffers to the connections. A subscriber whose buffer
+ * is full is treated according to the SlowConsumerPolicy. Idle subscriptions receive a heartbeat comment, which
+ * detects closed connections. Subscriptions are local to one instance and only see updates committed by it.
+ */
+@Component
+@Slf4j
+public class TransactionFeed {
+
+    static final String SUBSCRIBERS_METRIC = "banking.feed.subscribers";
+    static final String DROPPED_METRIC = "banking.feed.dropped";
+
+    static final String BALANCE_EVENT = "balance";
+    static final String TRANSACTION_EVENT = "transaction";
+    static final String RESYNC_EVENT = "resync";
+
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+
+    private final FeedProperties properties;
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Set<FeedSubscriber>> subscribers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    private final Counter droppedEvents;
+
+    private ScheduledExecutorService senders;
+
+    public TransactionFeed(FeedProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        Gauge.builder(SUBSCRIBERS_METRIC, subscriberCount, AtomicInteger::get)
+                .description("Open subscriptions of the account event feed")
+                .register(meterRegistry);
+        this.droppedEvents = Counter.builder(DROPPED_METRIC)
+                .description("Events dropped because a subscriber did not keep up")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        AtomicInteger threads = new AtomicInteger();
+        senders = Executors.newScheduledThreadPool(properties.getSenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "transaction-feed-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        senders.scheduleWithFixedDelay(this::heartbeat, properties.getHeartbeatSeconds(), properties.getHeartbeatSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Closes all subscriptions; clients reconnect to another instance.
+     */
+    @PreDestroy
+    public void stop() {
+        if (senders == null) {
+            return;
+        }
+        senders.shutdownNow();
+        subscribers.values().forEach(set -> set.forEach(this::disconnect));
+        senders = null;
+    }
+
+    /**
+     * Opens a subscription to the events of an account.
+     * @param accountNumber The account number.
+     * @param currentAccount Reads the account; called after the subscription is registered, so no update committed
+     *                       afterwards is missed. Updates committed in between may be sent although the balance
+     *                       already includes them.
+     * @return The emitter streaming the events.
+     * @throws TransactionException If the feed is disabled or too many subscriptions are open.
+     */
+    public SseEmitter subscribe(String accountNumber, Supplier<Account> currentAccount) {
+        return subscribe(accountNumber, currentAccount, new SseEmitter(properties.getTimeoutMs()));
+    }
+
+    SseEmitter subscribe(String accountNumber, Supplier<Account> currentAccount, SseEmitter emitter) {
+        if (!isEnabled()) {
+            throw new TransactionException(Constants.FEED_DISABLED);
+        }
+        if (subscriberCount.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            throw new TransactionException(Constants.TOO_MANY_SUBSCRIBERS);
+        }
+        FeedSubscriber subscriber = new FeedSubscriber(accountNumber, emitter, properties.getBufferSize(), senders,
+                droppedEvents, this::disconnect);
+        subscribers.compute(accountNumber, (key, set) -> {
+            Set<FeedSubscriber> result = set == null ? ConcurrentHashMap.newKeySet() : set;
+            result.add(subscriber);
+            return result;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        try {
+            Account account = currentAccount.get();
+            subscriber.start(balanceEvent(account.getAccountNr(), account.getBalance()));
+        } catch (RuntimeException e) {
+            remove(subscriber);
+            throw e;
+        }
+        return emitter;
+    }
+
+    /**
+     * Publishes transactions once the current database transaction committed, or right away if none is active.
+     * @param transactions Transactions that were saved and therefore have their ids.
+     */
+    public void publishAfterCommit(List<Transaction> transactions) {
+        if (subscribers.isEmpty() || transactions.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(transactions);
+            return;
+        }
+        TransactionSynchronization synchronization = new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(transactions);
+            }
+        };
+        TransactionSynchronizationManager.registerSynchronization(synchronization);
+    }
+
+    /**
+     * Hands the events of committed transactions to the subscribers of their accounts.
+     * Never throws, as the transactions are committed already.
+     */
+    public void publish(Collection<Transaction> transactions) {
+        try {
+            Map<String, List<Transaction>> byAccount = new LinkedHashMap<>();
+            for (Transaction transaction : transactions) {
+                byAccount.computeIfAbsent(transaction.getAccount().getAccountNr(), key -> new ArrayList<>()).add(transaction);
+            }
+            byAccount.forEach(this::publish);
+        } catch (RuntimeException e) {
+            log.error("Publishing {} transactions to the feed failed", transactions.size(), e);
+        }
+    }
+
+    int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    private void publish(String accountNumber, List<Transaction> transactions) {
+        Set<FeedSubscriber> targets = subscribers.get(accountNumber);
+        if (targets == null || targets.isEmpty()) {
+            return;
+        }
+        List<Set<DataWithMediaType>> events = new ArrayList<>(transactions.size() + 1);
+        for (Transaction transaction : transactions) {
+            events.add(SseEmitter.event()
+                    .name(TRANSACTION_EVENT)
+                    .id(String.valueOf(transaction.getTransactionId()))
+                    .data(toJson(transaction))
+                    .build());
+        }
+        events.add(balanceEvent(accountNumber, transactions.get(transactions.size() - 1).getNewBalance()));
+
+        for (FeedSubscriber subscriber : targets) {
+            boolean buffered = true;
+            for (int i = 0; i < events.size() && buffered; i++) {
+                buffered = subscriber.offer(events.get(i), properties.getSlowConsumerPolicy());
+            }
+            if (buffered) {
+                subscriber.schedule();
+            } else {
+                disconnect(subscriber);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(subscriber -> subscriber.heartbeat(HEARTBEAT)));
+    }
+
+    private void disconnect(FeedSubscriber subscriber) {
+        if (remove(subscriber)) {
+            subscriber.getEmitter().complete();
+        }
+    }
+
+    private boolean remove(FeedSubscriber subscriber) {
+        if (!subscriber.close()) {
+            return false;
+        }
+        subscribers.computeIfPresent(subscriber.getAccountNumber(), (key, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+        subscriberCount.decrementAndGet();
+        return true;
+    }
+
+    private Set<DataWithMediaType> balanceEvent(String accountNumber, Money balance) {
+        return SseEmitter.event()
+                .name(BALANCE_EVENT)
+                .data(toJson(new BalanceEventDto(accountNumber, balance)))
+                .build();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+}
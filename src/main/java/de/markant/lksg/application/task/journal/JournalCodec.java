@@ -0,0 +1,77 @@
+package de.markant.lksg.application.task.journal;
+
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * The binary encoding of journal entries: fixed width numbers (amounts as minor units), the transaction type as its ordinal
+ * (new types must therefore be added at the end of TransactionType) and the account numbers as
+ * length-prefixed UTF-8, about 70 bytes per transaction.
+ */
+final class JournalCodec {
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private static final long NULL_MONEY = Long.MIN_VALUE;
+
+    private JournalCodec() {
+    }
+
+    static byte[] encode(Transaction transaction) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(80);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(transaction.getTransactionId());
+            out.writeLong(transaction.getAccount().getAccountId());
+            out.writeByte(transaction.getTransactionType().ordinal());
+            out.writeLong(transaction.getTimeStamp().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(transaction.getTimeStamp().getNano());
+            out.writeLong(minorUnits(transaction.getOldBalance()));
+            out.writeLong(minorUnits(transaction.getNewBalance()));
+            out.writeLong(minorUnits(transaction.getTransactionAmount()));
+            out.writeUTF(transaction.getAccount().getAccountNr());
+            out.writeBoolean(transaction.getTargetAccountNr() != null);
+            if (transaction.getTargetAccountNr() != null) {
+                out.writeUTF(transaction.getTargetAccountNr());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static JournalEntry decode(long position, byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            long transactionId = in.readLong();
+            long accountId = in.readLong();
+            TransactionType type = TYPES[in.readByte()];
+            LocalDateTime timeStamp = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            Money oldBalance = money(in.readLong());
+            Money newBalance = money(in.readLong());
+            Money amount = money(in.readLong());
+            String accountNumber = in.readUTF();
+            String targetAccountNumber = in.readBoolean() ? in.readUTF() : null;
+            return new JournalEntry(position, transactionId, accountId, accountNumber, type,
+                    oldBalance, newBalance, amount, targetAccountNumber, timeStamp);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long minorUnits(Money money) {
+        return money == null ? NULL_MONEY : money.minorUnits();
+    }
+
+    private static Money money(long minorUnits) {
+        return minorUnits == NULL_MONEY ? null : Money.ofMinor(minorUnits);
+    }
+}
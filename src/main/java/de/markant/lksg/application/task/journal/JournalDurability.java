@@ -0,0 +1,14 @@
+package de.markant.lksg.application.task.journal;
+
+/**
+ * Defines when a transaction appended to the TransactionJournal is forced to disk.
+ */
+public enum JournalDurability {
+    /** Never forced by the journal; the operating system writes the mapped pages back. Survives a crash of the
+     * application, but not of the machine. */
+    NONE,
+    /** An append returns once a force covering it completed; concurrent appends share one force (group commit). */
+    GROUP,
+    /** Every append is forced on its own before the next one is written. */
+    SYNC
+}
@@ -0,0 +1,25 @@
+package de.markant.lksg.application.task.journal;
+
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A transaction as read back from the TransactionJournal.
+ *
+ * @param position            The journal position of the entry; reading again from it returns this entry.
+ * @param transactionId       The id of the transaction.
+ * @param accountId           The id of the account the transaction belongs to.
+ * @param accountNumber       The number of the account the transaction belongs to.
+ * @param type                The type of the transaction.
+ * @param oldBalance          The balance before the transaction.
+ * @param newBalance          The balance after the transaction.
+ * @param amount              The amount of the transaction.
+ * @param targetAccountNumber The other account of a transfer, or null.
+ * @param timeStamp           The time of the transaction.
+ */
+public record JournalEntry(long position, Long transactionId, Long accountId, String accountNumber, TransactionType type,
+                           Money oldBalance, Money newBalance, Money amount, String targetAccountNumber,
+                           LocalDateTime timeStamp) {
+}
@@ -0,0 +1,86 @@
+package de.markant.lksg.application.task.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Reads the TransactionJournal from a position on, following it across segments and, as a tail reader,
+ * picking up entries appended after it reached the end. Consumers store position() to continue later.
+ * A reader is used by one thread; any number of readers may run next to the writer.
+ */
+public class JournalReader {
+
+    private final Path directory;
+
+    private long position;
+
+    private JournalSegment segment;
+
+    JournalReader(Path directory, long position) {
+        this.directory = directory;
+        this.position = position;
+    }
+
+    /**
+     * @return The position of the next entry to read.
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Returns the next entry, without waiting for one.
+     * @return The next entry, or null if no further entry has been appended yet.
+     * @throws IllegalStateException If the journal is corrupt at the current position.
+     */
+    public JournalEntry poll() {
+        while (true) {
+            if (segment == null && (segment = openSegment()) == null) {
+                return null;
+            }
+            int offset = (int) (position - segment.base());
+            if (offset + JournalSegment.HEADER > segment.capacity()) {
+                throw new IllegalStateException("Journal position " + position + " is beyond the end of its segment.");
+            }
+            int length = segment.lengthAt(offset);
+            if (length == 0) {
+                return null;
+            }
+            if (length == JournalSegment.END_OF_SEGMENT) {
+                position = segment.end();
+                segment = null;
+                continue;
+            }
+            byte[] payload = segment.read(offset, length);
+            if (payload == null) {
+                throw new IllegalStateException("Corrupt journal record at position " + position + ".");
+            }
+            JournalEntry entry = JournalCodec.decode(position, payload);
+            position += JournalSegment.recordSize(length);
+            return entry;
+        }
+    }
+
+    private JournalSegment openSegment() {
+        try {
+            List<Long> bases = JournalSegment.list(directory);
+            Long base = null;
+            for (Long candidate : bases) {
+                if (candidate <= position) {
+                    base = candidate;
+                }
+            }
+            if (base == null || !Files.exists(JournalSegment.path(directory, base))) {
+                return null;
+            }
+            JournalSegment candidate = JournalSegment.open(directory, base, false);
+            // The segment holding the position may not have been created yet
+            return position < candidate.end() ? candidate : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
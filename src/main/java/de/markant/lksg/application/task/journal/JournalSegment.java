@@ -0,0 +1,145 @@
+package de.markant.lksg.application.task.journal;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * One memory-mapped file of the journal. The file is named after the journal position of its first byte
+ * and holds records of the form [length][crc32][payload], padded to a multiple of 4 bytes. The length is
+ * written last with release semantics, so a reader that sees a length sees the whole record; a length of
+ * 0 means no record yet and END_OF_SEGMENT means the journal continues in the next segment.
+ */
+final class JournalSegment {
+
+    static final int HEADER = 8;
+
+    static final int END_OF_SEGMENT = -1;
+
+    private static final String SUFFIX = ".seg";
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final long base;
+
+    private final MappedByteBuffer buffer;
+
+    private JournalSegment(long base, MappedByteBuffer buffer) {
+        this.base = base;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Creates a new, zero-filled segment. The file appears under its final name only once it has its full size.
+     */
+    static JournalSegment create(Path directory, long base, int size) throws IOException {
+        Path path = path(directory, base);
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (RandomAccessFile file = new RandomAccessFile(temporary.toFile(), "rw")) {
+            file.setLength(size);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+        return open(directory, base, true);
+    }
+
+    static JournalSegment open(Path directory, long base, boolean writable) throws IOException {
+        StandardOpenOption[] options = writable
+                ? new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ};
+        try (FileChannel channel = FileChannel.open(path(directory, base), options)) {
+            // The mapping stays valid after the channel is closed
+            return new JournalSegment(base, channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return The base positions of all segments in the directory, in ascending order.
+     */
+    static List<Long> list(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(0, name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static Path path(Path directory, long base) {
+        return directory.resolve(String.format("%020d%s", base, SUFFIX));
+    }
+
+    static int recordSize(int payloadLength) {
+        return (HEADER + payloadLength + 3) & ~3;
+    }
+
+    long base() {
+        return base;
+    }
+
+    int capacity() {
+        return buffer.capacity();
+    }
+
+    long end() {
+        return base + buffer.capacity();
+    }
+
+    int lengthAt(int offset) {
+        return (int) INT.getAcquire(buffer, offset);
+    }
+
+    /**
+     * Writes a record at the given offset and publishes it.
+     */
+    void write(int offset, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.putInt(offset + 4, (int) crc.getValue());
+        buffer.put(offset + HEADER, payload);
+        INT.setRelease(buffer, offset, payload.length);
+    }
+
+    void writeEndOfSegment(int offset) {
+        INT.setRelease(buffer, offset, END_OF_SEGMENT);
+    }
+
+    /**
+     * Reads the payload of the record at the given offset.
+     * @return The payload, or null if the record is incomplete or corrupt.
+     */
+    byte[] read(int offset, int length) {
+        if (length <= 0 || offset + HEADER + length > buffer.capacity()) {
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(offset + HEADER, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == buffer.getInt(offset + 4) ? payload : null;
+    }
+
+    /**
+     * Zero-fills the segment from the given offset, removing a record torn by a crash.
+     */
+    void clear(int offset) {
+        for (int i = offset; i < buffer.capacity(); i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+
+    void force() {
+        buffer.force();
+    }
+}
@@ -0,0 +1,381 @@
+package de.markant.lksg.application.task.journal;
+
+import de.markant.lksg.application.task.config.JournalProperties;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.outbox.TransactionOutbox;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import de.markant.lksg.application.task.repository.TransactionRepository;
+import de.markant.lksg.application.task.service.DailySummaryService;
+import de.markant.lksg.application.task.service.HotAccountService;
+import de.markant.lksg.application.task.service.LedgerMode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The TransactionJournal records every committed Transaction in local, memory-mapped segment files.
+ * Appends are copies into the mapped memory, without a system call; when they are forced to disk is
+ * configured with JournalDurability, and with GROUP durability concurrent appends share one force.
+ * The journal is a second, local copy of the ledger: replay() restores transactions the database lost,
+ * e.g. when it runs with relaxed log flushing or was restored from a backup, and JournalReaders let
+ * downstream consumers follow the ledger without querying the database.
+ * Transactions are appended after their database transaction committed, so the journal never holds
+ * a rolled back transaction. It is disabled by default (banking.journal.enabled).
+ */
+@Component
+@Slf4j
+public class TransactionJournal {
+
+    private static final int REPLAY_BATCH_SIZE = 500;
+
+    private final JournalProperties properties;
+
+    private final TransactionRepository transactionRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final HotAccountService hotAccountService;
+
+    private final DailySummaryService dailySummaryService;
+
+    private final TransactionOutbox transactionOutbox;
+
+    private final LedgerMode ledgerMode;
+
+    private final Object writeLock = new Object();
+
+    // A lock rather than a monitor: a virtual thread waiting for the force does not pin its carrier thread
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private Path directory;
+
+    // Guarded by writeLock
+    private JournalSegment segment;
+
+    private int offset;
+
+    private volatile long durablePosition;
+
+    public TransactionJournal(JournalProperties properties,
+                              TransactionRepository transactionRepository,
+                              AccountRepository accountRepository,
+                              TransactionTemplate transactionTemplate,
+                              HotAccountService hotAccountService,
+                              DailySummaryService dailySummaryService,
+                              TransactionOutbox transactionOutbox,
+                              @Value("${banking.ledger.mode:STATE}") LedgerMode ledgerMode) {
+        this.properties = properties;
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.hotAccountService = hotAccountService;
+        this.dailySummaryService = dailySummaryService;
+        this.transactionOutbox = transactionOutbox;
+        this.ledgerMode = ledgerMode;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Opens the newest segment and continues after its last complete record, if the journal is enabled.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        directory = Paths.get(properties.getDirectory());
+        Files.createDirectories(directory);
+        List<Long> bases = JournalSegment.list(directory);
+        if (bases.isEmpty()) {
+            segment = JournalSegment.create(directory, 0, properties.getSegmentSizeBytes());
+            offset = 0;
+        } else {
+            segment = JournalSegment.open(directory, bases.get(bases.size() - 1), true);
+            offset = recoverOffset(segment);
+        }
+        durablePosition = segment.base() + offset;
+
+        if (properties.isReplayOnStartup()) {
+            log.info("Restored {} transactions from the journal", replay());
+        }
+    }
+
+    private static int recoverOffset(JournalSegment segment) {
+        int offset = 0;
+        while (offset + JournalSegment.HEADER <= segment.capacity()) {
+            int length = segment.lengthAt(offset);
+            if (length == 0 || length == JournalSegment.END_OF_SEGMENT) {
+                return offset;
+            }
+            if (segment.read(offset, length) == null) {
+                segment.clear(offset); // Torn by a crash while the record was written
+                return offset;
+            }
+            offset += JournalSegment.recordSize(length);
+        }
+        return offset;
+    }
+
+    @PreDestroy
+    public void stop() {
+        synchronized (writeLock) {
+            if (segment != null) {
+                segment.force();
+                segment = null;
+            }
+        }
+    }
+
+    /**
+     * Appends transactions once the current database transaction committed, or right away if none is active.
+     * @param transactions Transactions that were saved and therefore have their ids.
+     */
+    public void appendAfterCommit(List<Transaction> transactions) {
+        if (!isEnabled() || transactions.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(transactions);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                append(transactions);
+            }
+        });
+    }
+
+    /**
+     * Appends transactions and, depending on the durability, waits until they are forced to disk.
+     * @param transactions Transactions that were saved and therefore have their ids.
+     * @return The journal position after the last appended transaction.
+     */
+    public long append(Collection<Transaction> transactions) {
+        List<byte[]> payloads = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            payloads.add(JournalCodec.encode(transaction)); // Encoded before taking the lock
+        }
+
+        long end;
+        synchronized (writeLock) {
+            if (segment == null) {
+                throw new IllegalStateException("The transaction journal is not open.");
+            }
+            for (byte[] payload : payloads) {
+                write(payload);
+            }
+            end = segment.base() + offset;
+            if (properties.getDurability() == JournalDurability.SYNC) {
+                segment.force();
+                durablePosition = end;
+            }
+        }
+        if (properties.getDurability() == JournalDurability.GROUP) {
+            awaitDurable(end);
+        }
+        return end;
+    }
+
+    private void write(byte[] payload) {
+        int recordSize = JournalSegment.recordSize(payload.length);
+        if (recordSize + Integer.BYTES > properties.getSegmentSizeBytes()) {
+            throw new IllegalArgumentException("Transaction of " + payload.length + " bytes does not fit into a journal segment.");
+        }
+        // Keep room for the end-of-segment marker
+        if (offset + recordSize + Integer.BYTES > segment.capacity()) {
+            segment.writeEndOfSegment(offset);
+            if (properties.getDurability() != JournalDurability.NONE) {
+                segment.force(); // Later forces only cover the current segment
+            }
+            try {
+                segment = JournalSegment.create(directory, segment.end(), properties.getSegmentSizeBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            offset = 0;
+        }
+        segment.write(offset, payload);
+        offset += recordSize;
+    }
+
+    /**
+     * Group commit: the first appender to arrive forces everything written so far, while the appenders
+     * arriving during that force wait and are then covered by the next single force.
+     */
+    private void awaitDurable(long position) {
+        if (durablePosition >= position) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (durablePosition >= position) {
+                return;
+            }
+            JournalSegment current;
+            long written;
+            synchronized (writeLock) {
+                current = segment;
+                written = segment.base() + offset;
+            }
+            current.force();
+            durablePosition = written;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * @return The position of the oldest entry still in the journal.
+     */
+    public long firstPosition() {
+        requireEnabled();
+        try {
+            List<Long> bases = JournalSegment.list(directory);
+            return bases.isEmpty() ? 0 : bases.get(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return The position the next transaction will be appended at.
+     */
+    public long endPosition() {
+        synchronized (writeLock) {
+            return segment.base() + offset;
+        }
+    }
+
+    /**
+     * @param position The position to start reading at, e.g. firstPosition() or the position a consumer stored.
+     * @return A reader returning the entries from the position on.
+     */
+    public JournalReader reader(long position) {
+        requireEnabled();
+        return new JournalReader(directory, position);
+    }
+
+    /**
+     * Deletes the segments that only hold entries before the given position, e.g. once every consumer read them.
+     * @param position The position of the oldest entry that must be kept.
+     */
+    public void deleteSegmentsBefore(long position) throws IOException {
+        requireEnabled();
+        List<Long> bases = JournalSegment.list(directory);
+        for (int i = 0; i + 1 < bases.size() && bases.get(i + 1) <= position; i++) {
+            Files.delete(JournalSegment.path(directory, bases.get(i)));
+        }
+    }
+
+    private void requireEnabled() {
+        if (!isEnabled()) {
+            throw new IllegalStateException("The transaction journal is disabled.");
+        }
+    }
+
+    /**
+     * Inserts every journaled transaction that is missing in the database, keeping its id, and in the STATE
+     * ledger mode restores the balance of accounts whose newest transaction was missing. The balance slots of
+     * such an account are emptied, as the journaled balance already includes them. Restored transactions are
+     * added to the daily summaries and the outbox like new ones. Run it before the application takes requests.
+     * Transactions of accounts deleted meanwhile are skipped.
+     * @return The number of restored transactions.
+     */
+    public int replay() {
+        int restored = 0;
+        JournalReader reader = reader(firstPosition());
+        List<JournalEntry> batch = new ArrayList<>(REPLAY_BATCH_SIZE);
+        for (JournalEntry entry = reader.poll(); entry != null; entry = reader.poll()) {
+            batch.add(entry);
+            if (batch.size() == REPLAY_BATCH_SIZE) {
+                restored += replay(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            restored += replay(batch);
+        }
+        return restored;
+    }
+
+    private int replay(List<JournalEntry> batch) {
+        return transactionTemplate.execute(status -> {
+            Set<Long> existing = new HashSet<>(transactionRepository.findExistingIds(
+                    batch.stream().map(JournalEntry::transactionId).toList()));
+            Map<Long, Account> accounts = new HashMap<>();
+            accountRepository.findAllById(batch.stream().map(JournalEntry::accountId).distinct().toList())
+                    .forEach(account -> accounts.put(account.getAccountId(), account));
+
+            Map<Long, JournalEntry> newestRestored = new HashMap<>();
+            List<Transaction> restored = new ArrayList<>();
+            for (JournalEntry entry : batch) {
+                if (existing.contains(entry.transactionId()) || !accounts.containsKey(entry.accountId())) {
+                    continue;
+                }
+                transactionRepository.insertWithId(entry.transactionId(), entry.accountId(), entry.type().name(),
+                        entry.timeStamp(), minorUnits(entry.oldBalance()), minorUnits(entry.newBalance()), minorUnits(entry.amount()),
+                        entry.targetAccountNumber());
+                newestRestored.put(entry.accountId(), entry);
+                restored.add(toTransaction(entry, accounts.get(entry.accountId())));
+            }
+
+            if (ledgerMode == LedgerMode.STATE) {
+                newestRestored.forEach((accountId, entry) -> {
+                    if (entry.transactionId().equals(transactionRepository.findLastTransactionId(accountId))) {
+                        Account account = accounts.get(accountId);
+                        hotAccountService.sweep(account); // The journaled balance of a hot account includes its slots
+                        account.setBalance(entry.newBalance());
+                    }
+                });
+            }
+            dailySummaryService.add(restored);
+            transactionOutbox.add(restored);
+            return restored.size();
+        });
+    }
+
+    private static Transaction toTransaction(JournalEntry entry, Account account) {
+        Transaction transaction = Transaction.transactionBuilder()
+                .account(account)
+                .transactionType(entry.type())
+                .oldBalance(entry.oldBalance())
+                .newBalance(entry.newBalance())
+                .transactionAmount(entry.amount())
+                .targetAccountNr(entry.targetAccountNumber())
+                .timeStamp(entry.timeStamp())
+                .build();
+        transaction.setTransactionId(entry.transactionId());
+        return transaction;
+    }
+
+    private static Long minorUnits(Money money) {
+        return money == null ? null : money.minorUnits();
+    }
+}
@@ -1,11 +1,14 @@
 package de.markant.lksg.application.task.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import java.util.List;
 
 
@@ -16,21 +19,31 @@ import java.util.List;
  */
 
 @Entity
+@Table(indexes = @Index(name = "idx_account_balance", columnList = "balance, account_nr")) // Sorted account listing
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Account {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_seq")
+    @SequenceGenerator(name = "account_seq", sequenceName = "account_seq", allocationSize = 50) // Pooled ids allow batched inserts
     private Long accountId;
 
     @Column(unique = true, nullable = false)
     private String accountNr;
 
-    private Double balance;
+    private Money balance;
+
+    @Version // Incremented on every update; used to detect concurrent modifications in optimistic mode
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0") // Rows created before the column existed start at 0
+    @JsonIgnore
+    private Long version;
 
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "account") // Defines a one-to-many relationship with Transaction
+    @JsonIgnore // Never serialized, printed or compared, so the lazy history is not loaded by accident
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Transaction> transactions;
 
     /**
@@ -39,7 +52,7 @@ public class Account {
      * @param balance The initial balance of the account.
      */
     @Builder
-    public Account(String accountNr, Double balance) {
+    public Account(String accountNr, Money balance) {
         this.accountNr = accountNr;
         this.balance = balance;
     }
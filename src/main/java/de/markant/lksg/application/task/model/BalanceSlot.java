@@ -0,0 +1,42 @@
+package de.markant.lksg.application.task.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Entity class representing one part of a hot account's balance.
+ * Credits to a hot account are added to one of its slots instead of the account row, so concurrent
+ * credits update different rows. The account's balance is its own balance plus the sum of its slots;
+ * debits move the slots' balances back into the account row before they check the balance.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_balance_slot_account_slot", columnNames = {"account_account_id", "slot"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_slot_seq")
+    @SequenceGenerator(name = "balance_slot_seq", sequenceName = "balance_slot_seq", allocationSize = 50)
+    private Long slotId;
+
+    @ManyToOne(optional = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Account account;
+
+    /** The index of the slot, from 0 to the configured number of slots - 1. */
+    private int slot;
+
+    /** The credits collected in the slot since they were last moved to the account. */
+    private Money balance;
+}
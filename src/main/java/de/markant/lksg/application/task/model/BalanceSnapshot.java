@@ -0,0 +1,45 @@
+package de.markant.lksg.application.task.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class representing the balance of an account as of one of its transactions.
+ * Snapshots are only written in the EVENT_SOURCED ledger mode; they are never updated, a newer
+ * snapshot supersedes the older ones.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_snapshot_account_transaction", columnList = "account_account_id, last_transaction_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_snapshot_seq")
+    @SequenceGenerator(name = "balance_snapshot_seq", sequenceName = "balance_snapshot_seq", allocationSize = 50)
+    private Long snapshotId;
+
+    @ManyToOne(optional = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Account account;
+
+    /** The balance after the transaction with id lastTransactionId. */
+    private Money balance;
+
+    /** The id of the newest transaction included in the balance. */
+    private Long lastTransactionId;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,65 @@
+package de.markant.lksg.application.task.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Entity class representing the transactions of one type an account had on one day.
+ * Only sums are stored, which concurrent updates can add to in any order; opening and closing balances
+ * are derived from the account's balance and the balance changes of the following days.
+ * Credits to a hot account are spread across several slots like its balance, see BalanceSlot;
+ * the summary of a day and type is the sum of its slots.
+ */
+@Entity
+@IdClass(DailySummary.Key.class)
+@Table(indexes = @Index(name = "idx_daily_summary_account_date", columnList = "account_id, summary_date"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailySummary {
+
+    @Id
+    private Long accountId;
+
+    @Id
+    private LocalDate summaryDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+
+    @Id
+    private int slot;
+
+    private long transactionCount;
+
+    /** The sum of the transactions' amounts. */
+    private Money amountTotal;
+
+    /** The sum of the transactions' balance changes (new minus old balance). */
+    private Money balanceChange;
+
+    /**
+     * The primary key of a DailySummary.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private Long accountId;
+
+        private LocalDate summaryDate;
+
+        private TransactionType transactionType;
+
+        private int slot;
+    }
+}
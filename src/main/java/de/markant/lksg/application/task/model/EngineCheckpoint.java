@@ -0,0 +1,24 @@
+package de.markant.lksg.application.task.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity class recording up to which write-ahead log sequence number the operations of an engine shard
+ * are stored in the database. It is updated in the same transaction as the operations themselves, so
+ * recovery never applies an operation twice.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EngineCheckpoint {
+
+    @Id
+    private Integer shard;
+
+    private Long lastSequence;
+}
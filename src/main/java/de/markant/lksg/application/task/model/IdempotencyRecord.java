@@ -0,0 +1,35 @@
+package de.markant.lksg.application.task.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class remembering the response to a request sent with an Idempotency-Key.
+ * The row is inserted before the request is executed, which claims the key across instances,
+ * and the response is filled in once the request succeeded.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+
+    @Id
+    private String idempotencyKey;
+
+    /** The operation and parameters of the request, to detect a key reused for a different request. */
+    @Column(nullable = false, length = 1000)
+    private String request;
+
+    /** The response as JSON; null while the request is being executed. */
+    @Column(length = 4000)
+    private String response;
+
+    private LocalDateTime createdAt;
+}
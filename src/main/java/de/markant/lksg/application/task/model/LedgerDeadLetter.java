@@ -0,0 +1,54 @@
+package de.markant.lksg.application.task.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class keeping a ledger transaction that the AsyncLedgerWriter could not insert, together with the
+ * reason. Its balance update has committed, so the row has to be repaired and inserted into the transaction
+ * table by an operator. The account is stored by id and number only, so the row can be kept even if the
+ * account itself is the problem.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerDeadLetter {
+
+    @Id
+    private Long transactionId;
+
+    private Long accountId;
+
+    private String accountNr;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+
+    @Column(columnDefinition = "TIMESTAMP")
+    private LocalDateTime timeStamp;
+
+    private Money oldBalance;
+
+    private Money newBalance;
+
+    private Money transactionAmount;
+
+    private String targetAccountNr;
+
+    /** The database error that rejected the row. */
+    @Column(length = 2000)
+    private String error;
+
+    private LocalDateTime failedAt;
+}
@@ -0,0 +1,177 @@
+package de.markant.lksg.application.task.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money as a whole number of minor units (cents), so balance arithmetic is exact long
+ * arithmetic instead of floating point. Amounts with more than two decimal places are rejected rather
+ * than rounded. Money is immutable; it is stored as a BIGINT of minor units (see MoneyConverter) and
+ * written to and read from JSON as a decimal number, e.g. 1250.75.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public final class Money implements Comparable<Money>, Serializable {
+
+    /** The number of decimal places of an amount. */
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long minorUnits;
+
+    private Money(long minorUnits) {
+        this.minorUnits = minorUnits;
+    }
+
+    /**
+     * @param minorUnits The amount in minor units, e.g. 12575 for 125.75.
+     */
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits);
+    }
+
+    /**
+     * @param amount The amount, with at most two decimal places.
+     * @throws IllegalArgumentException If the amount has more decimal places or is out of range.
+     */
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofMinor(amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid amount " + amount.toPlainString() + ", at most " + SCALE + " decimal places are allowed.", e);
+        }
+    }
+
+    /**
+     * Parses a decimal amount such as "125.75"; also used to convert request parameters.
+     * @throws IllegalArgumentException If the text is not a valid amount.
+     */
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount.trim()));
+    }
+
+    /**
+     * @param amount The amount; its shortest decimal representation must have at most two decimal places.
+     */
+    public static Money of(double amount) {
+        return of(BigDecimal.valueOf(amount));
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    /**
+     * @throws ArithmeticException If the result overflows.
+     */
+    public Money plus(Money other) {
+        return ofMinor(Math.addExact(minorUnits, other.minorUnits));
+    }
+
+    /**
+     * @throws ArithmeticException If the result overflows.
+     */
+    public Money minus(Money other) {
+        return ofMinor(Math.subtractExact(minorUnits, other.minorUnits));
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits));
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return minorUnits > other.minorUnits;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * @return The amount as a double, for metrics only.
+     */
+    public double toDouble() {
+        return minorUnits / 100.0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.minorUnits == minorUnits;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    /**
+     * Writes Money as a JSON number with two decimal places.
+     */
+    public static class Serializer extends StdScalarSerializer<Money> {
+
+        public Serializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public void serialize(Money value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(value.toBigDecimal());
+        }
+    }
+
+    /**
+     * Reads Money from a JSON number or string.
+     */
+    public static class Deserializer extends StdScalarDeserializer<Money> {
+
+        public Deserializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            try {
+                if (parser.hasToken(JsonToken.VALUE_NUMBER_INT) || parser.hasToken(JsonToken.VALUE_NUMBER_FLOAT)) {
+                    return of(parser.getDecimalValue());
+                }
+                if (parser.hasToken(JsonToken.VALUE_STRING)) {
+                    return of(parser.getText());
+                }
+            } catch (IllegalArgumentException e) {
+                return (Money) context.handleWeirdStringValue(Money.class, parser.getText(), e.getMessage());
+            }
+            return (Money) context.handleUnexpectedToken(Money.class, parser);
+        }
+    }
+}
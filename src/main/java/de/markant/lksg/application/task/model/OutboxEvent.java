@@ -0,0 +1,47 @@
+package de.markant.lksg.application.task.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entity class representing a transaction that still has to be published to downstream systems.
+ * Events are inserted in the transaction of the balance update and deleted once the OutboxRelay
+ * published them, in the order of their ids.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50) // Pooled ids allow batched inserts
+    private Long outboxId;
+
+    private String accountNr;
+
+    private Long transactionId;
+
+    @Enumerated(EnumType.STRING)
+    private TransactionType transactionType;
+
+    /** The transaction as JSON, see TransactionEventDto. */
+    @Column(length = 2000)
+    private String payload;
+
+    private LocalDateTime createdAt;
+}
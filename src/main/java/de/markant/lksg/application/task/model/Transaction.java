@@ -6,7 +6,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
@@ -14,19 +16,24 @@ import java.time.LocalDateTime;
  * Entity class representing a financial transaction.
  * This class maps to the 'transactions' table in the database and
  * contains details about individual transactions related to accounts.
+ * The composite index on (account, timeStamp, transactionId) backs the keyset paginated history queries.
  */
 @Entity
+@Table(indexes = @Index(name = "idx_transaction_account_time", columnList = "account_account_id, time_stamp, transaction_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Transaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50) // Pooled ids allow batched inserts
     private Long transactionId;
 
     @ManyToOne // Defines a many-to-one relationship with Account
     @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Account account;
 
     @Enumerated(EnumType.STRING) // Specifies that the transaction type will be stored as a string in the database
@@ -36,10 +43,10 @@ public class Transaction {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "MMMM dd, yyyy, HH:mm") // Specifies the timestamp format
     private LocalDateTime timeStamp;
 
-    private Double oldBalance;
-    private Double newBalance;
+    private Money oldBalance;
+    private Money newBalance;
     
-    private Double transactionAmount;
+    private Money transactionAmount;
 
     private String targetAccountNr;
 
@@ -54,7 +61,7 @@ public class Transaction {
      * @param timeStamp The date and time of the transaction. If null, the current time will be used.
      */
     @Builder(builderMethodName = "transactionBuilder")
-    public Transaction(Account account, TransactionType transactionType, Double oldBalance, Double newBalance, Double transactionAmount, String targetAccountNr, LocalDateTime timeStamp) {
+    public Transaction(Account account, TransactionType transactionType, Money oldBalance, Money newBalance, Money transactionAmount, String targetAccountNr, LocalDateTime timeStamp) {
         this.account = account;
         this.transactionType = transactionType;
         this.oldBalance = oldBalance;
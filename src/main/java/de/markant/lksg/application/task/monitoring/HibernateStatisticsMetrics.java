@@ -0,0 +1,49 @@
+package de.markant.lksg.application.task.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes Hibernate's statistics as counters: queries, JDBC statements, entity loads and fetches,
+ * flushes, sessions and transactions. Nothing is published unless
+ * spring.jpa.properties.hibernate.generate_statistics is true.
+ */
+@Component
+public class HibernateStatisticsMetrics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public HibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        counter(registry, statistics, "banking.hibernate.queries", "HQL and criteria queries executed", Statistics::getQueryExecutionCount);
+        counter(registry, statistics, "banking.hibernate.statements", "JDBC statements prepared", Statistics::getPrepareStatementCount);
+        counter(registry, statistics, "banking.hibernate.entity.loads", "Entities loaded", Statistics::getEntityLoadCount);
+        counter(registry, statistics, "banking.hibernate.entity.fetches", "Entities fetched lazily or by id", Statistics::getEntityFetchCount);
+        counter(registry, statistics, "banking.hibernate.flushes", "Session flushes", Statistics::getFlushCount);
+        counter(registry, statistics, "banking.hibernate.sessions", "Sessions opened", Statistics::getSessionOpenCount);
+        counter(registry, statistics, "banking.hibernate.transactions", "Transactions completed", Statistics::getTransactionCount);
+        counter(registry, statistics, "banking.hibernate.optimistic.failures", "Optimistic lock failures", Statistics::getOptimisticFailureCount);
+    }
+
+    private static void counter(MeterRegistry registry, Statistics statistics, String name, String description,
+                                ToDoubleFunction<Statistics> count) {
+        FunctionCounter.builder(name, statistics, count)
+                .description(description)
+                .register(registry);
+    }
+}
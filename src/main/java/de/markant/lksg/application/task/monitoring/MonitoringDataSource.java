@@ -0,0 +1,192 @@
+package de.markant.lksg.application.task.monitoring;
+
+import de.markant.lksg.application.task.config.SqlMonitoringProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MonitoringDataSource times every JDBC statement execution. Executions are counted for the current
+ * request (see StatementCounter) and recorded in the banking.sql.duration timer; executions reaching the
+ * slow query threshold are also logged to the banking.sql.slow logger as one key=value line with the
+ * duration, the number of bind parameters and batched rows, the application method that issued the
+ * statement and the SQL text. It replaces spring.jpa.show-sql, which printed every statement synchronously.
+ * The origin is only looked up for slow statements, so fast statements cost two clock reads and a counter.
+ */
+@Slf4j(topic = "banking.sql.slow")
+public class MonitoringDataSource extends DelegatingDataSource {
+
+    static final String DURATION_METRIC = "banking.sql.duration";
+    static final String SLOW_METRIC = "banking.sql.slow";
+
+    private static final String APPLICATION_PACKAGE = "de.markant.lksg.application.task.";
+
+    private final SqlMonitoringProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Timer duration;
+
+    public MonitoringDataSource(DataSource target, SqlMonitoringProperties properties, MeterRegistry meterRegistry) {
+        super(target);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.duration = Timer.builder(DURATION_METRIC)
+                .description("Duration of JDBC statement executions")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private Connection connection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (isIdentityMethod(method)) {
+                        return identity(proxy, method, args);
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement && method.getName().matches("prepareStatement|prepareCall|createStatement")) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                        return statement(statement, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement statement(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type},
+                new StatementHandler(statement, preparedSql));
+    }
+
+    private static boolean isIdentityMethod(Method method) {
+        return method.getName().equals("equals") && method.getParameterCount() == 1
+                || method.getName().equals("hashCode") && method.getParameterCount() == 0;
+    }
+
+    // A proxy is only equal to itself; the target would compare itself with the proxy
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return method.getName().equals("equals") ? proxy == args[0] : System.identityHashCode(proxy);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void executed(String sql, long nanos, int bindParameters, int batchedRows) {
+        StatementCounter.increment();
+        duration.record(nanos, TimeUnit.NANOSECONDS);
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (millis < properties.getSlowQueryThresholdMs()) {
+            return;
+        }
+        String origin = origin();
+        meterRegistry.counter(SLOW_METRIC, "origin", origin).increment();
+        if (log.isWarnEnabled()) {
+            log.warn("slow_query duration_ms={} bind_parameters={} batched_rows={} origin={} sql=\"{}\"",
+                    millis, bindParameters, batchedRows, origin, abbreviate(sql));
+        }
+    }
+
+    /**
+     * @return The innermost application method on the stack outside this class, e.g. AccountService.doTransfer.
+     */
+    private static String origin() {
+        Optional<StackWalker.StackFrame> frame = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APPLICATION_PACKAGE))
+                .filter(f -> f.getDeclaringClass() != MonitoringDataSource.class && f.getDeclaringClass().getEnclosingClass() != MonitoringDataSource.class)
+                .filter(f -> !f.getClassName().contains("$$")) // Spring proxies
+                .findFirst());
+        return frame.map(f -> simpleName(f.getClassName()) + "." + methodName(f.getMethodName())).orElse("unknown");
+    }
+
+    private static String simpleName(String className) {
+        String name = className.substring(className.lastIndexOf('.') + 1);
+        int nested = name.indexOf('$');
+        return nested < 0 ? name : name.substring(0, nested);
+    }
+
+    private static String methodName(String method) {
+        // lambda$transfer$3 -> transfer
+        return method.startsWith("lambda$") ? method.substring(7, method.indexOf('$', 7)) : method;
+    }
+
+    private String abbreviate(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String text = sql.replace('"', '\'').replaceAll("\\s+", " ");
+        return text.length() <= properties.getMaxSqlLength() ? text : text.substring(0, properties.getMaxSqlLength()) + "...";
+    }
+
+    /**
+     * Times the executions of one statement and tracks its bind parameters and batched rows.
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+
+        private final String preparedSql;
+
+        private int bindParameters;
+
+        private int batchedRows;
+
+        private StatementHandler(Statement statement, String preparedSql) {
+            this.statement = statement;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                bindParameters = Math.max(bindParameters, index);
+            } else if (name.equals("addBatch")) {
+                batchedRows++;
+            } else if (name.startsWith("execute")) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+                long start = System.nanoTime();
+                try {
+                    return MonitoringDataSource.invoke(statement, method, args);
+                } finally {
+                    executed(sql, System.nanoTime() - start, bindParameters, batchedRows);
+                    if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                        batchedRows = 0;
+                    }
+                }
+            }
+            return MonitoringDataSource.invoke(statement, method, args);
+        }
+    }
+}
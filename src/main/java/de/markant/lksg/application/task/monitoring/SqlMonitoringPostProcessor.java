@@ -0,0 +1,39 @@
+package de.markant.lksg.application.task.monitoring;
+
+import de.markant.lksg.application.task.config.SqlMonitoringProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's DataSource in a MonitoringDataSource, unless banking.sql.monitoring-enabled is false.
+ * The properties and the MeterRegistry are looked up only when the DataSource is created, so this post
+ * processor does not initialize them early.
+ */
+@Component
+public class SqlMonitoringPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<SqlMonitoringProperties> properties;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public SqlMonitoringPostProcessor(ObjectProvider<SqlMonitoringProperties> properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource dataSource) || bean instanceof MonitoringDataSource) {
+            return bean;
+        }
+        SqlMonitoringProperties settings = properties.getObject();
+        if (!settings.isMonitoringEnabled()) {
+            return bean;
+        }
+        return new MonitoringDataSource(dataSource, settings, meterRegistry.getObject());
+    }
+}
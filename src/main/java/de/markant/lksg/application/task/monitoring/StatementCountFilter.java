@@ -0,0 +1,48 @@
+package de.markant.lksg.application.task.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many JDBC statements each request executed, per HTTP method and URI pattern,
+ * so endpoints whose statement count grows (e.g. through N+1 selects) stand out.
+ * Statements executed by other threads on behalf of the request, e.g. streamed exports, are not counted.
+ */
+@Component
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    static final String STATEMENTS_METRIC = "banking.sql.statements.per.request";
+
+    private final MeterRegistry meterRegistry;
+
+    public StatementCountFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StatementCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = StatementCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder(STATEMENTS_METRIC)
+                    .description("JDBC statements executed per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+    }
+}
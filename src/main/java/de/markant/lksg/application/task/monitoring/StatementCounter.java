@@ -0,0 +1,33 @@
+package de.markant.lksg.application.task.monitoring;
+
+/**
+ * Counts the JDBC statements executed by the current thread between start and stop,
+ * e.g. while it handles one request.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private StatementCounter() {
+    }
+
+    public static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * @return The number of statements executed since start, or 0 if counting was not started.
+     */
+    public static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    static void increment() {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+    }
+}
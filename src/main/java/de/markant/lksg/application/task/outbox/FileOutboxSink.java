@@ -0,0 +1,41 @@
+package de.markant.lksg.application.task.outbox;
+
+import de.markant.lksg.application.task.model.OutboxEvent;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * An OutboxSink appending the payload of every event as one line to a file, which is forced to disk before
+ * the batch counts as published. Used when no other sink is declared, and by downstream systems that tail the file.
+ */
+public class FileOutboxSink implements OutboxSink {
+
+    private final Path file;
+
+    public FileOutboxSink(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (FileOutputStream output = new FileOutputStream(file.toFile(), true);
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8))) {
+            for (OutboxEvent event : events) {
+                writer.write(event.getPayload());
+                writer.newLine();
+            }
+            writer.flush();
+            output.getChannel().force(false);
+        }
+    }
+}
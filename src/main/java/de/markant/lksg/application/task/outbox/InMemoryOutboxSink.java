@@ -0,0 +1,48 @@
+package de.markant.lksg.application.task.outbox;
+
+import de.markant.lksg.application.task.model.OutboxEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An OutboxSink keeping the published events in memory, for tests. It can be told to fail the next batches
+ * to exercise redelivery.
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final List<OutboxEvent> events = new ArrayList<>();
+
+    private int failures;
+
+    @Override
+    public synchronized void publish(List<OutboxEvent> batch) throws IOException {
+        if (failures > 0) {
+            failures--;
+            throw new IOException("Publishing failed as requested");
+        }
+        events.addAll(batch);
+    }
+
+    /**
+     * @return A copy of the events published so far, in publishing order.
+     */
+    public synchronized List<OutboxEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    /**
+     * Forgets the events published so far.
+     */
+    public synchronized void clear() {
+        events.clear();
+    }
+
+    /**
+     * @param batches The number of following batches that fail.
+     */
+    public synchronized void failNext(int batches) {
+        failures = batches;
+    }
+}
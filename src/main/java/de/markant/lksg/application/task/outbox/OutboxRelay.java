@@ -0,0 +1,169 @@
+package de.markant.lksg.application.task.outbox;
+
+import de.markant.lksg.application.task.config.OutboxProperties;
+import de.markant.lksg.application.task.model.OutboxEvent;
+import de.markant.lksg.application.task.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The OutboxRelay publishes the OutboxEvents to the OutboxSink in batches. Each batch runs in one database
+ * transaction: it locks the oldest batch-size events, publishes them and deletes them. If publishing or the
+ * commit fails, the events stay in the outbox and are published again, so every event is delivered at least
+ * once. Events are published in id order. Ids are allocated in blocks per application instance, so they follow
+ * the order of an account's transactions only while a single instance performs the balance updates: that
+ * instance serializes the updates of an account and hands out its ids in increasing order. With several
+ * instances writing, the events of one account can be published out of order. Hot accounts are excluded even
+ * with a single instance: their credits do not lock the account, so concurrent credits take their ids and commit
+ * in any order (see HotAccountService).
+ * While batches are full the relay continues right away, otherwise it waits poll-interval-ms.
+ * Published events, batch durations, failures and the age of the last published event are recorded as metrics.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    static final String PUBLISHED_METRIC = "banking.outbox.published";
+    static final String BATCH_METRIC = "banking.outbox.batch";
+    static final String FAILURES_METRIC = "banking.outbox.failures";
+    static final String LAG_METRIC = "banking.outbox.lag";
+
+    private final OutboxProperties properties;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final OutboxSink sink;
+
+    private final Counter published;
+
+    private final Timer batchTimer;
+
+    private final Counter failures;
+
+    /** Milliseconds between the creation and the publishing of the newest event published. */
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private volatile boolean running;
+
+    private Thread relay;
+
+    public OutboxRelay(OutboxProperties properties,
+                       OutboxEventRepository outboxEventRepository,
+                       TransactionTemplate transactionTemplate,
+                       ObjectProvider<OutboxSink> sinks,
+                       MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.sink = sinks.getIfAvailable(() -> new FileOutboxSink(Path.of(properties.getFile())));
+        this.published = Counter.builder(PUBLISHED_METRIC)
+                .description("Outbox events published to the sink")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder(BATCH_METRIC)
+                .description("Duration of reading, publishing and deleting one batch of outbox events")
+                .register(meterRegistry);
+        this.failures = Counter.builder(FAILURES_METRIC)
+                .description("Outbox batches that failed and will be published again")
+                .register(meterRegistry);
+        Gauge.builder(LAG_METRIC, lagMillis, lag -> lag.get() / 1000.0)
+                .description("Seconds the newest published outbox event waited in the outbox")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled() || !properties.isRelayEnabled()) {
+            return;
+        }
+        running = true;
+        relay = new Thread(this::run, "outbox-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    /**
+     * Stops the relay after the batch in progress; the remaining events are published after the next start.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (relay == null) {
+            return;
+        }
+        synchronized (this) {
+            running = false;
+            notifyAll(); // Ends the wait between batches
+        }
+        relay.join(properties.getShutdownTimeoutMs());
+        relay = null;
+    }
+
+    /**
+     * Publishes the oldest batch of events and deletes them from the outbox.
+     * @return The number of events published.
+     * @throws UncheckedIOException If the sink failed; the events stay in the outbox.
+     */
+    public int relayBatch() {
+        List<OutboxEvent> batch = batchTimer.record(() -> transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.findByOrderByOutboxIdAsc(Limit.of(properties.getBatchSize()));
+            if (!events.isEmpty()) {
+                try {
+                    sink.publish(events);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                outboxEventRepository.deleteAllInBatch(events);
+            }
+            return events;
+        }));
+        if (!batch.isEmpty()) {
+            published.increment(batch.size());
+            lagMillis.set(Duration.between(batch.get(batch.size() - 1).getCreatedAt(), LocalDateTime.now()).toMillis());
+        }
+        return batch.size();
+    }
+
+    private void run() {
+        while (running) {
+            int relayed;
+            try {
+                relayed = relayBatch();
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Publishing outbox events failed, retrying in {} ms", properties.getPollIntervalMs(), e);
+                relayed = 0;
+            }
+            if (relayed < properties.getBatchSize()) {
+                synchronized (this) {
+                    try {
+                        if (running) {
+                            wait(properties.getPollIntervalMs());
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+}
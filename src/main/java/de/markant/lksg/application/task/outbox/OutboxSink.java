@@ -0,0 +1,22 @@
+package de.markant.lksg.application.task.outbox;
+
+import de.markant.lksg.application.task.model.OutboxEvent;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The destination the OutboxRelay publishes events to, e.g. a message broker.
+ * Declare a bean implementing this interface to replace the default FileOutboxSink.
+ */
+public interface OutboxSink {
+
+    /**
+     * Publishes events; returns only once they are stored durably by the destination, since the relay deletes
+     * them from the outbox afterwards. A batch that fails, even partially, is published again in full.
+     * @param events The events in id order, which is the order of each account's transactions while a single
+     *               instance performs the balance updates, except for hot accounts, see OutboxRelay.
+     * @throws IOException If the events could not be published.
+     */
+    void publish(List<OutboxEvent> events) throws IOException;
+}
@@ -0,0 +1,83 @@
+package de.markant.lksg.application.task.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.markant.lksg.application.task.config.LedgerWriterProperties;
+import de.markant.lksg.application.task.config.OutboxProperties;
+import de.markant.lksg.application.task.dto.TransactionEventDto;
+import de.markant.lksg.application.task.model.OutboxEvent;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.repository.OutboxEventRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The TransactionOutbox records every transaction as an OutboxEvent in the database transaction of its balance
+ * update, so an event exists exactly when its transaction committed, and the OutboxRelay publishes it afterwards.
+ * The events are inserted as one JDBC batch together with the update's other rows. The asynchronous ledger writer
+ * inserts transactions only after their update committed, which would break this guarantee, so the two cannot be
+ * enabled together.
+ */
+@Component
+public class TransactionOutbox {
+
+    private final OutboxProperties properties;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    public TransactionOutbox(OutboxProperties properties,
+                             OutboxEventRepository outboxEventRepository,
+                             ObjectMapper objectMapper,
+                             LedgerWriterProperties ledgerWriterProperties) {
+        if (properties.isEnabled() && ledgerWriterProperties.isAsync()) {
+            throw new IllegalStateException("The transactional outbox cannot be used with the asynchronous ledger writer.");
+        }
+        this.properties = properties;
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Adds transactions to the outbox, in the database transaction that writes them.
+     * @param transactions Transactions that were saved and therefore have their ids.
+     */
+    public void add(Collection<Transaction> transactions) {
+        if (!isEnabled() || transactions.isEmpty()) {
+            return;
+        }
+        LocalDateTime createdAt = LocalDateTime.now();
+        List<OutboxEvent> events = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            String accountNumber = transaction.getAccount().getAccountNr();
+            TransactionEventDto event = new TransactionEventDto(transaction.getTransactionId(), accountNumber,
+                    transaction.getTransactionType(), transaction.getTimeStamp(), transaction.getOldBalance(),
+                    transaction.getNewBalance(), transaction.getTransactionAmount(), transaction.getTargetAccountNr());
+            events.add(OutboxEvent.builder()
+                    .accountNr(accountNumber)
+                    .transactionId(transaction.getTransactionId())
+                    .transactionType(transaction.getTransactionType())
+                    .payload(toJson(event))
+                    .createdAt(createdAt)
+                    .build());
+        }
+        outboxEventRepository.saveAll(events);
+    }
+
+    private String toJson(TransactionEventDto event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize the event of transaction " + event.getTransactionId(), e);
+        }
+    }
+}
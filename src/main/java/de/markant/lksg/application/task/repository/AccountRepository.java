@@ -1,9 +1,17 @@
 package de.markant.lksg.application.task.repository;
 
+import de.markant.lksg.application.task.dto.AccountDto;
 import de.markant.lksg.application.task.model.Account;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -21,4 +29,52 @@ public interface AccountRepository extends JpaRepository<Account,Long> {
      * @return An Optional containing the Account if found, or empty if not.
      */
     Optional<Account> findAccountByAccountNr(String accountNumber);
+
+    /**
+     * Retrieves all accounts whose account number is in the given collection with a single query.
+     *
+     * @param accountNumbers The account numbers to search for.
+     * @return The accounts found; account numbers without an account are skipped.
+     */
+    List<Account> findByAccountNrIn(Collection<String> accountNumbers);
+
+    /**
+     * Retrieves one page of account numbers and balances without loading Account entities.
+     * A Slice reads one row more than the page size instead of running a separate count query.
+     *
+     * @param pageable The page to read and its sort order.
+     * @return The requested page of accounts.
+     */
+    @Query("select new de.markant.lksg.application.task.dto.AccountDto(a.accountNr, a.balance) from Account a")
+    Slice<AccountDto> findAccountPage(Pageable pageable);
+
+    /**
+     * Adds an amount to an account's balance with a single UPDATE statement and increments its version.
+     * The row stays locked until the surrounding transaction ends. Amounts are given in minor units,
+     * as stored by the MoneyConverter; the persistence context is cleared, so accounts read afterwards
+     * carry the new balance.
+     *
+     * @param accountNumber The account number of the account to credit.
+     * @param amount        The amount to add, in minor units.
+     * @return The number of updated rows: 0 if the account does not exist, otherwise 1.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE account SET balance = balance + :amount, version = version + 1 WHERE account_nr = :accountNr",
+            nativeQuery = true)
+    int credit(@Param("accountNr") String accountNumber, @Param("amount") long amount);
+
+    /**
+     * Subtracts an amount from an account's balance with a single UPDATE statement, only if the balance covers it,
+     * and increments its version. The database evaluates the condition on the locked row, so concurrent debits can
+     * never overdraw the account. Amounts are given in minor units; the persistence context is cleared.
+     *
+     * @param accountNumber The account number of the account to debit.
+     * @param amount        The amount to subtract, in minor units.
+     * @return The number of updated rows: 0 if the account does not exist or its balance is too low, otherwise 1.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE account SET balance = balance - :amount, version = version + 1"
+            + " WHERE account_nr = :accountNr AND balance >= :amount",
+            nativeQuery = true)
+    int debit(@Param("accountNr") String accountNumber, @Param("amount") long amount);
 }
@@ -0,0 +1,84 @@
+package de.markant.lksg.application.task.repository;
+
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.BalanceSlot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repository interface for managing BalanceSlot entities.
+ * Amounts of the native statements are given in minor units, as stored by the MoneyConverter.
+ */
+@Repository
+public interface BalanceSlotRepository extends JpaRepository<BalanceSlot, Long> {
+
+    /**
+     * Adds an amount to one slot of an account with a single UPDATE statement.
+     *
+     * @param accountId The id of the account.
+     * @param slot      The index of the slot.
+     * @param amount    The amount to add, in minor units.
+     * @return The number of updated rows: 0 if the slot does not exist yet, otherwise 1.
+     */
+    @Modifying
+    @Query(value = "UPDATE balance_slot SET balance = balance + :amount WHERE account_account_id = :accountId AND slot = :slot",
+            nativeQuery = true)
+    int credit(@Param("accountId") Long accountId, @Param("slot") int slot, @Param("amount") long amount);
+
+    /**
+     * Reads and locks all slots of an account until the surrounding transaction ends, in slot order.
+     *
+     * @param account The account whose slots are locked.
+     * @return The account's slots.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM BalanceSlot s WHERE s.account = :account ORDER BY s.slot")
+    List<BalanceSlot> lockByAccount(@Param("account") Account account);
+
+    /**
+     * Sets the balance of all slots of an account to zero.
+     *
+     * @param accountId The id of the account.
+     */
+    @Modifying
+    @Query(value = "UPDATE balance_slot SET balance = 0 WHERE account_account_id = :accountId", nativeQuery = true)
+    void empty(@Param("accountId") Long accountId);
+
+    /**
+     * Reads an account's balance including its slots with one statement, so the result is consistent
+     * even while slot balances are moved to the account.
+     *
+     * @param accountId The id of the account.
+     * @return The total balance in minor units, or null if the account does not exist.
+     */
+    @Query(value = "SELECT a.balance + COALESCE(SUM(s.balance), 0) FROM account a"
+            + " LEFT JOIN balance_slot s ON s.account_account_id = a.account_id"
+            + " WHERE a.account_id = :accountId GROUP BY a.account_id, a.balance",
+            nativeQuery = true)
+    Long totalBalance(@Param("accountId") Long accountId);
+
+    /**
+     * @param account The account whose slots are listed.
+     * @return The indexes of the slots the account has.
+     */
+    @Query("SELECT s.slot FROM BalanceSlot s WHERE s.account = :account")
+    List<Integer> findSlotIndexes(@Param("account") Account account);
+
+    /**
+     * Deletes all slots of an account, e.g. before the account itself is deleted.
+     *
+     * @param account The account whose slots are deleted.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BalanceSlot s WHERE s.account = :account")
+    void deleteByAccount(@Param("account") Account account);
+}
@@ -0,0 +1,37 @@
+package de.markant.lksg.application.task.repository;
+
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for managing BalanceSnapshot entities.
+ */
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    /**
+     * Retrieves the newest snapshot of an account.
+     *
+     * @param account The account whose snapshot is read.
+     * @return The snapshot covering the most transactions, or empty if none was written yet.
+     */
+    Optional<BalanceSnapshot> findFirstByAccountOrderByLastTransactionIdDesc(Account account);
+
+    /**
+     * Deletes all snapshots of an account, e.g. before the account itself is deleted.
+     *
+     * @param account The account whose snapshots are deleted.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM BalanceSnapshot s WHERE s.account = :account")
+    void deleteByAccount(@Param("account") Account account);
+}
@@ -0,0 +1,56 @@
+package de.markant.lksg.application.task.repository;
+
+import de.markant.lksg.application.task.model.DailySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository interface for managing DailySummary entities.
+ * Summaries are written by the DailySummaryService with plain JDBC statements, so concurrent balance
+ * updates can add to them without reading them first.
+ */
+@Repository
+public interface DailySummaryRepository extends JpaRepository<DailySummary, DailySummary.Key> {
+
+    /**
+     * Retrieves the summaries of an account from a day on, including days after any range of interest,
+     * whose balance changes are needed to derive earlier balances.
+     *
+     * @param accountId The id of the account.
+     * @param from      The first day to read.
+     * @return The summaries of the account from that day on, in no particular order.
+     */
+    List<DailySummary> findByAccountIdAndSummaryDateGreaterThanEqual(Long accountId, LocalDate from);
+
+    /**
+     * Deletes all summaries of an account, e.g. before the account itself is deleted.
+     *
+     * @param accountId The id of the account.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM DailySummary s WHERE s.accountId = :accountId")
+    void deleteByAccountId(@Param("accountId") Long accountId);
+
+    /**
+     * Computes the summaries of all accounts from the transaction table; existing summaries must be deleted first.
+     * Amounts are summed in minor units, as stored by the MoneyConverter.
+     *
+     * @return The number of summaries inserted.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO daily_summary (account_id, summary_date, transaction_type, slot, transaction_count, amount_total, balance_change)"
+            + " SELECT account_account_id, CAST(time_stamp AS DATE), transaction_type, 0, COUNT(*), SUM(transaction_amount),"
+            + " SUM(new_balance - old_balance) FROM transaction"
+            + " GROUP BY account_account_id, CAST(time_stamp AS DATE), transaction_type",
+            nativeQuery = true)
+    int insertFromTransactions();
+}
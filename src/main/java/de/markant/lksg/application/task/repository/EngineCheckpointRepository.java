@@ -0,0 +1,12 @@
+package de.markant.lksg.application.task.repository;
+
+import de.markant.lksg.application.task.model.EngineCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for managing EngineCheckpoint entities.
+ */
+@Repository
+public interface EngineCheckpointRepository extends JpaRepository<EngineCheckpoint, Integer> {
+}
@@ -0,0 +1,38 @@
+package de.markant.lksg.application.task.repository;
+
+import de.markant.lksg.application.task.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for managing IdempotencyRecord entities.
+ */
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Inserts a record without a response. Unlike save, which merges, this fails with a
+     * DataIntegrityViolationException when the key exists already.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO idempotency_record (idempotency_key, request, created_at) VALUES (:key, :request, :createdAt)",
+            nativeQuery = true)
+    void claim(@Param("key") String key, @Param("request") String request, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.response = :response WHERE r.idempotencyKey = :key")
+    void complete(@Param("key") String key, @Param("response") String response);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,12 @@
+package de.markant.lksg.application.task.repository;
+
+import de.markant.lksg.application.task.model.LedgerDeadLetter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for managing LedgerDeadLetter entities.
+ */
+@Repository
+public interface LedgerDeadLetterRepository extends JpaRepository<LedgerDeadLetter, Long> {
+}
@@ -0,0 +1,16 @@
+package de.markant.lksg.application.task.repository;
+
+/**
+ * Projection summarizing the transactions of an account written after a balance snapshot.
+ */
+public interface LedgerTail {
+
+    /** The sum of the balance changes of the transactions, in minor units. */
+    Long getBalanceChange();
+
+    /** The number of transactions. */
+    Long getTransactions();
+
+    /** The id of the newest transaction, or the snapshot's transaction id if there are none. */
+    Long getLastTransactionId();
+}
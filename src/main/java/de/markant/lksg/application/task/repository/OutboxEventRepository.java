@@ -0,0 +1,27 @@
+package de.markant.lksg.application.task.repository;
+
+import de.markant.lksg.application.task.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for managing OutboxEvent entities.
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Retrieves and locks the oldest events, so that a relay of another instance waits instead of
+     * publishing them as well.
+     *
+     * @param limit The maximum number of events.
+     * @return The events in id order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<OutboxEvent> findByOrderByOutboxIdAsc(Limit limit);
+}
@@ -1,10 +1,23 @@
 package de.markant.lksg.application.task.repository;
 
+import de.markant.lksg.application.task.constants.Constants;
+import de.markant.lksg.application.task.model.Account;
 import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing Transaction entities.
@@ -22,4 +35,109 @@ public interface TransactionRepository extends JpaRepository<Transaction,Long> {
      */
     List<Transaction> findByAccount_AccountNr(String accountNr);
 
+    /**
+     * Retrieves one page of an account's transaction history, newest first, using keyset pagination.
+     * The cursor (cursorTimeStamp, cursorId) is the position of the last row of the previous page;
+     * passing null for both returns the first page. All filter parameters are optional.
+     * Legacy rows without a time stamp sort last, as NULL is the lowest value in MySQL and H2; their cursor
+     * carries only the id.
+     *
+     * @param account         The account whose history is read.
+     * @param type            Only return transactions of this type, or null for all types.
+     * @param from            Inclusive lower bound of the time range, or null.
+     * @param to              Exclusive upper bound of the time range, or null.
+     * @param cursorTimeStamp The time stamp of the last transaction already returned, or null if it has none.
+     * @param cursorId        The id of the last transaction already returned, or null.
+     * @param limit           The maximum number of rows to return.
+     * @return The transactions following the cursor, ordered by time stamp and id descending.
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.account = :account"
+            + " AND (:type IS NULL OR t.transactionType = :type)"
+            + " AND (:from IS NULL OR t.timeStamp >= :from)"
+            + " AND (:to IS NULL OR t.timeStamp < :to)"
+            + " AND (:cursorId IS NULL OR t.timeStamp < :cursorTimeStamp"
+            + " OR (t.timeStamp = :cursorTimeStamp AND t.transactionId < :cursorId)"
+            + " OR (t.timeStamp IS NULL AND (:cursorTimeStamp IS NOT NULL OR t.transactionId < :cursorId)))"
+            + " ORDER BY t.timeStamp DESC, t.transactionId DESC")
+    List<Transaction> findPageByAccount(@Param("account") Account account,
+                                        @Param("type") TransactionType type,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("cursorTimeStamp") LocalDateTime cursorTimeStamp,
+                                        @Param("cursorId") Long cursorId,
+                                        Limit limit);
+
+    /**
+     * Streams the full transaction history of an account, oldest first, without loading it into memory.
+     * Rows are fetched from the database in chunks of the configured fetch size. The stream must be
+     * consumed and closed inside a read-only transaction.
+     *
+     * @param account The account whose history is streamed.
+     * @return A lazily populated stream of the account's transactions.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Constants.EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.account = :account ORDER BY t.timeStamp, t.transactionId")
+    Stream<Transaction> streamByAccount(@Param("account") Account account);
+
+    /**
+     * Streams the full transaction history of an account like streamByAccount, for MySQL.
+     * The MySQL driver ignores a positive fetch size and reads the whole result unless the
+     * fetch size is Integer.MIN_VALUE, which makes it hand out the rows one by one. No other
+     * statement may run on the connection until the stream is closed.
+     *
+     * @param account The account whose history is streamed.
+     * @return A lazily populated stream of the account's transactions.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = Constants.EXPORT_ROW_STREAMING_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Transaction t WHERE t.account = :account ORDER BY t.timeStamp, t.transactionId")
+    Stream<Transaction> streamByAccountRowByRow(@Param("account") Account account);
+
+    /**
+     * Sums up the balance changes of an account's transactions written after the given transaction
+     * with a single indexed range query. The account creation is not included, its amount is the
+     * opening balance kept in the account itself.
+     *
+     * @param account The account whose transactions are summed up.
+     * @param afterId Only transactions with a greater id are included; 0 includes all of them.
+     * @return The summed balance change, the number of transactions and the newest transaction id.
+     */
+    @Query("SELECT COALESCE(SUM(t.newBalance - t.oldBalance), 0) AS balanceChange, COUNT(t) AS transactions,"
+            + " COALESCE(MAX(t.transactionId), :afterId) AS lastTransactionId"
+            + " FROM Transaction t WHERE t.account = :account AND t.transactionId > :afterId"
+            + " AND t.transactionType <> de.markant.lksg.application.task.model.TransactionType.ACCOUNT_CREATION")
+    LedgerTail summarizeAfter(@Param("account") Account account, @Param("afterId") Long afterId);
+
+    /**
+     * @param transactionIds The transaction ids to look for.
+     * @return Those of the given ids that exist.
+     */
+    @Query("SELECT t.transactionId FROM Transaction t WHERE t.transactionId IN :transactionIds")
+    List<Long> findExistingIds(@Param("transactionIds") Collection<Long> transactionIds);
+
+    /**
+     * @param accountId The id of the account.
+     * @return The id of the account's newest transaction, or null if it has none.
+     */
+    @Query("SELECT MAX(t.transactionId) FROM Transaction t WHERE t.account.accountId = :accountId")
+    Long findLastTransactionId(@Param("accountId") Long accountId);
+
+    /**
+     * Inserts a transaction with a given id instead of one from the sequence, used to restore journaled transactions.
+     * Amounts are given in minor units, as stored by the MoneyConverter.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO transaction (transaction_id, account_account_id, transaction_type, time_stamp,"
+            + " old_balance, new_balance, transaction_amount, target_account_nr)"
+            + " VALUES (:transactionId, :accountId, :type, :timeStamp, :oldBalance, :newBalance, :amount, :targetAccountNr)",
+            nativeQuery = true)
+    void insertWithId(@Param("transactionId") Long transactionId, @Param("accountId") Long accountId,
+                      @Param("type") String type, @Param("timeStamp") LocalDateTime timeStamp,
+                      @Param("oldBalance") Long oldBalance, @Param("newBalance") Long newBalance,
+                      @Param("amount") Long amount, @Param("targetAccountNr") String targetAccountNr);
 }
@@ -0,0 +1,81 @@
+package de.markant.lksg.application.task.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.markant.lksg.application.task.model.Account;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The AccountCache keeps recently read accounts in memory, bounded in size and time to live.
+ * It stores detached snapshots (id, account number, balance and version, without the transaction
+ * collection) so cached values can be shared safely between requests. Balance updates replace the
+ * cached snapshot only with a newer version, so a slow reader cannot overwrite the result of a
+ * later update with an older one; in the EVENT_SOURCED ledger mode the LedgerService hands out the
+ * id of an account's newest transaction as its version. Hits, misses and evictions are published as cache metrics.
+ * The cache is local to one application instance; the time to live bounds how long another
+ * instance's updates can go unnoticed.
+ */
+@Component
+public class AccountCache {
+
+    static final String CACHE_NAME = "accounts";
+
+    private final Cache<String, Account> cache;
+
+    public AccountCache(@Value("${banking.account-cache.maximum-size:10000}") long maximumSize,
+                        @Value("${banking.account-cache.ttl-seconds:30}") long ttlSeconds,
+                        MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * @param accountNumber The account number to look up.
+     * @return A private copy of the cached snapshot, or null if the account is not cached.
+     */
+    public Account get(String accountNumber) {
+        Account cached = cache.getIfPresent(accountNumber);
+        return cached == null ? null : snapshot(cached);
+    }
+
+    /**
+     * Caches a snapshot of the account unless a newer version of it is cached already.
+     * @param account The account as read from or written to the database.
+     */
+    public void put(Account account) {
+        cache.asMap().merge(account.getAccountNr(), snapshot(account),
+                (cached, updated) -> isNewer(cached, updated) ? cached : updated);
+    }
+
+    /**
+     * Removes an account from the cache.
+     * @param accountNumber The account number to remove.
+     */
+    public void evict(String accountNumber) {
+        cache.invalidate(accountNumber);
+    }
+
+    private static boolean isNewer(Account cached, Account updated) {
+        // Versions are only comparable for the same row; a recreated account number starts over
+        return Objects.equals(cached.getAccountId(), updated.getAccountId())
+                && cached.getVersion() != null && updated.getVersion() != null
+                && cached.getVersion() > updated.getVersion();
+    }
+
+    private static Account snapshot(Account account) {
+        Account snapshot = new Account(account.getAccountNr(), account.getBalance());
+        snapshot.setAccountId(account.getAccountId());
+        snapshot.setVersion(account.getVersion());
+        return snapshot;
+    }
+}
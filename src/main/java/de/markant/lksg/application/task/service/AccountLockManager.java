@@ -0,0 +1,113 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.constants.Constants;
+import de.markant.lksg.application.task.exception.AccountBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * The AccountLockManager serializes balance updates per account inside this application instance.
+ * Account numbers are mapped onto a fixed number of lock stripes, so memory use does not depend on
+ * the number of accounts. Operations on several accounts always take their stripes in ascending stripe
+ * order, which rules out deadlocks between concurrent transfers in opposite directions.
+ */
+@Component
+public class AccountLockManager {
+
+    private final ReentrantLock[] stripes;
+
+    private final long timeoutMillis;
+
+    /**
+     * Creates a lock manager.
+     * @param stripeCount The number of lock stripes; more stripes mean fewer unrelated accounts sharing a lock.
+     * @param timeoutMillis How long to wait for a lock before giving up.
+     */
+    public AccountLockManager(@Value("${banking.locking.stripes:1024}") int stripeCount,
+                              @Value("${banking.locking.timeout-ms:5000}") long timeoutMillis) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("At least one lock stripe is required");
+        }
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Runs an action while holding the lock of one account.
+     * @param accountNumber The account the action modifies.
+     * @param action The action to run.
+     * @return The result of the action.
+     * @throws AccountBusyException If the lock could not be acquired in time.
+     */
+    public <T> T withLock(String accountNumber, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripeIndex(accountNumber)];
+        acquire(lock);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs an action while holding the locks of two accounts, taken in ascending stripe order.
+     * @param firstAccountNumber One account the action modifies.
+     * @param secondAccountNumber The other account the action modifies.
+     * @param action The action to run.
+     * @return The result of the action.
+     * @throws AccountBusyException If the locks could not be acquired in time.
+     */
+    public <T> T withLocks(String firstAccountNumber, String secondAccountNumber, Supplier<T> action) {
+        return withLocks(List.of(firstAccountNumber, secondAccountNumber), action);
+    }
+
+    /**
+     * Runs an action while holding the locks of any number of accounts, taken in ascending stripe order.
+     * Accounts sharing a stripe are covered by a single lock.
+     * @param accountNumbers The accounts the action modifies.
+     * @param action The action to run.
+     * @return The result of the action.
+     * @throws AccountBusyException If the locks could not be acquired in time.
+     */
+    public <T> T withLocks(Collection<String> accountNumbers, Supplier<T> action) {
+        int[] indexes = accountNumbers.stream().mapToInt(this::stripeIndex).distinct().sorted().toArray();
+        int acquired = 0;
+        try {
+            for (int index : indexes) {
+                acquire(stripes[index]);
+                acquired++;
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    int stripeIndex(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        hash ^= (hash >>> 16); // Spread the high bits so similar account numbers land on different stripes
+        return Math.floorMod(hash, stripes.length);
+    }
+
+    private void acquire(ReentrantLock lock) {
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new AccountBusyException(Constants.ACCOUNT_BUSY);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountBusyException(Constants.ACCOUNT_LOCK_INTERRUPTED);
+        }
+    }
+}
@@ -1,28 +1,65 @@
 package de.markant.lksg.application.task.service;
 
+import de.markant.lksg.application.task.constants.Constants;
+import de.markant.lksg.application.task.dto.AccountDto;
+import de.markant.lksg.application.task.dto.AccountSummaryDto;
+import de.markant.lksg.application.task.dto.AccountPageDto;
+import de.markant.lksg.application.task.dto.ExportFormat;
+import de.markant.lksg.application.task.dto.TransactionPageDto;
+import de.markant.lksg.application.task.dto.TransactionResultDto;
+import de.markant.lksg.application.task.engine.BalanceEngine;
 import de.markant.lksg.application.task.exception.ResourceNotFoundException;
+import de.markant.lksg.application.task.feed.TransactionFeed;
+import de.markant.lksg.application.task.journal.TransactionJournal;
 import de.markant.lksg.application.task.exception.TransactionException;
 import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
 import de.markant.lksg.application.task.model.Transaction;
 import de.markant.lksg.application.task.model.TransactionType;
+import de.markant.lksg.application.task.outbox.TransactionOutbox;
 import de.markant.lksg.application.task.repository.AccountRepository;
 import de.markant.lksg.application.task.repository.TransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 
 /**
  * The AccountService class is responsible for handling operations related to bank accounts
  * like  deposits, withdrawals, and transfers between accounts. This class interacts with the AccountRepository and
  * TransactionRepository to persist data and perform CRUD operations on Account and Transaction entities.
+ * Balance updates run through the AccountUpdateExecutor, which gives each of them its own database
+ * transaction and protects it against lost updates according to the configured ConcurrencyMode.
+ * In ATOMIC mode every leg is applied with one conditional UPDATE statement, which the database checks
+ * against the locked row, and the account is read back afterwards for the ledger entry.
+ * Credits to hot accounts are added to one of their balance slots by the HotAccountService, which needs
+ * neither the account's lock nor its row; balances of hot accounts are not cached.
+ * With transfer coalescing enabled, transfers are applied in batches by the TransferCoalescer.
+ * Daily summaries of the transactions are maintained by the DailySummaryService, and committed transactions
+ * are pushed to subscribed clients by the TransactionFeed and published to downstream systems through the
+ * TransactionOutbox.
+ * Their latency, outcome and amount are recorded by BankingMetrics.
+ * When the BalanceEngine is enabled, balances are read from and updated in the engine instead, which
+ * writes them to the database in the background.
  */
 @Service
 public class AccountService {
 
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("accountNr", "balance");
+
     @Autowired
     private AccountRepository accountRepository;
 
@@ -32,23 +69,98 @@ public class AccountService {
     @Autowired
     private TransactionService transactionService;
 
+    @Autowired
+    private AccountUpdateExecutor accountUpdateExecutor;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private BankingMetrics bankingMetrics;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private BalanceEngine balanceEngine;
+
+    @Autowired
+    private TransactionJournal transactionJournal;
+
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    @Autowired
+    private TransferCoalescer transferCoalescer;
+
+    @Autowired
+    private DailySummaryService dailySummaryService;
+
+    @Autowired
+    private TransactionFeed transactionFeed;
+
+    @Autowired
+    private TransactionOutbox transactionOutbox;
+
     /**
-     * Retrieves all accounts from the repository.
+     * Retrieves one page of accounts with their account number and balance, without loading the entities
+     * or their transactions. Accounts with equal balances are ordered by account number, so pages are stable.
      *
-     * @return A list of all Account entities.
+     * @param page      The zero based page number.
+     * @param size      The maximum number of accounts in the page.
+     * @param sort      The property to sort by, accountNr or balance.
+     * @param direction The sort direction.
+     * @return The requested page of accounts.
+     * @throws TransactionException If the page, size or sort property is invalid.
      */
-    public List<Account> getAllAccounts() {
-        return accountRepository.findAll();
+    public AccountPageDto getAccountPage(int page, int size, String sort, Sort.Direction direction) {
+        if (size < 1 || size > Constants.MAX_PAGE_SIZE) {
+            throw new TransactionException(Constants.INVALID_PAGE_SIZE);
+        }
+        if (page < 0) {
+            throw new TransactionException(Constants.INVALID_PAGE);
+        }
+        if (!SORTABLE_PROPERTIES.contains(sort)) {
+            throw new TransactionException(Constants.INVALID_ACCOUNT_SORT);
+        }
+
+        Sort order = Sort.by(direction, sort);
+        if (!Constants.DEFAULT_ACCOUNT_SORT.equals(sort)) {
+            order = order.and(Sort.by(direction, Constants.DEFAULT_ACCOUNT_SORT));
+        }
+        Slice<AccountDto> accounts = accountRepository.findAccountPage(PageRequest.of(page, size, order));
+        return new AccountPageDto(accounts.getContent(), page, size, accounts.hasNext());
     }
 
     /**
      * Finds a specific account by its account number.
+     * The account is served from the AccountCache when possible; the returned object is a detached
+     * snapshot without its transactions and must not be used to modify the account.
      *
      * @param accountNumber The account number to search for.
      * @return The Account entity if found.
      * @throws ResourceNotFoundException If the account is not found.
      */
     public Account findAccountByNr(String accountNumber) {
+        if (balanceEngine.isEnabled()) {
+            return balanceEngine.findAccount(accountNumber);
+        }
+        if (hotAccountService.isHot(accountNumber)) {
+            return ledgerService.forRead(loadAccount(accountNumber));
+        }
+        Account cached = accountCache.get(accountNumber);
+        if (cached != null) {
+            return cached;
+        }
+        Account account = ledgerService.forRead(loadAccount(accountNumber));
+        accountCache.put(account);
+        return account;
+    }
+
+    /**
+     * Reads an account from the database, bypassing the cache. Used by all balance updates.
+     */
+    private Account loadAccount(String accountNumber) {
         return accountRepository.findAccountByAccountNr(accountNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Account number " + accountNumber + " not found!"));
     }
@@ -63,6 +175,68 @@ public class AccountService {
         return transactionService.getTransactionsByAccountNr(accountNumber);
     }
 
+    /**
+     * Fetches one page of transactions for a specific account, newest first.
+     *
+     * @param accountNumber The account number for which transactions are to be fetched.
+     * @param cursor        The cursor returned with the previous page, or null for the first page.
+     * @param size          The maximum number of transactions in the page.
+     * @param from          Inclusive lower bound of the time range, or null.
+     * @param to            Exclusive upper bound of the time range, or null.
+     * @param type          Only return transactions of this type, or null for all types.
+     * @return The requested page of Transaction entities and the cursor for the next page.
+     * @throws ResourceNotFoundException If the account is not found.
+     */
+    public TransactionPageDto getTransactionPage(String accountNumber, String cursor, int size,
+                                                 LocalDateTime from, LocalDateTime to, TransactionType type) {
+        Account account = findAccountByNr(accountNumber);
+        return transactionService.getTransactionPage(account, cursor, size, from, to, type);
+    }
+
+    /**
+     * Summarizes the transactions of an account per day and type, with the opening and closing balance of every day.
+     * The account and its summaries are read in one repeatable-read transaction, so the balances match the
+     * summaries even while updates commit; with the BalanceEngine enabled they reflect its last persisted state.
+     *
+     * @param accountNumber The account number to summarize.
+     * @param from          The first day, inclusive.
+     * @param to            The last day, inclusive.
+     * @return The summary of the range.
+     * @throws ResourceNotFoundException If the account is not found.
+     * @throws TransactionException If summaries are disabled or the range is invalid.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public AccountSummaryDto getDailySummary(String accountNumber, LocalDate from, LocalDate to) {
+        return dailySummaryService.summarize(ledgerService.forRead(loadAccount(accountNumber)), from, to);
+    }
+
+    /**
+     * Subscribes to the balance and the committed transactions of an account. The initial balance is read past
+     * the AccountCache, so it is not older than the first update the subscription receives.
+     *
+     * @param accountNumber The account number to subscribe to.
+     * @return The emitter streaming the account's events.
+     * @throws ResourceNotFoundException If the account is not found.
+     * @throws TransactionException If the feed is disabled or too many subscriptions are open.
+     */
+    public SseEmitter subscribe(String accountNumber) {
+        return transactionFeed.subscribe(accountNumber, () -> balanceEngine.isEnabled()
+                ? balanceEngine.findAccount(accountNumber)
+                : ledgerService.forRead(loadAccount(accountNumber)));
+    }
+
+    /**
+     * Writes all transactions of an account to the given stream without holding them in memory.
+     *
+     * @param account      The account whose transactions are exported.
+     * @param format       The output format.
+     * @param outputStream The stream to write the export to.
+     * @throws IOException If writing to the stream fails.
+     */
+    public void exportTransactions(Account account, ExportFormat format, OutputStream outputStream) throws IOException {
+        transactionService.exportTransactions(account, format, outputStream);
+    }
+
     /**
      * Creates a new account with the given account number and initial balance.
      *
@@ -71,7 +245,11 @@ public class AccountService {
      * @return The newly created Account entity.
      * @throws TransactionException If the account number already exists.
      */
-    public Account createAccount(String accountNumber, Double initialBalance) {
+    public Account createAccount(String accountNumber, Money initialBalance) {
+        return bankingMetrics.record(TransactionType.ACCOUNT_CREATION, initialBalance, () -> doCreateAccount(accountNumber, initialBalance));
+    }
+
+    private Account doCreateAccount(String accountNumber, Money initialBalance) {
         if (accountRepository.findAccountByAccountNr(accountNumber).isPresent()) {
             throw new TransactionException("Account number " + accountNumber + " already exists.");
         }
@@ -82,25 +260,33 @@ public class AccountService {
                 .build();
         newAccount.setTransactions(new ArrayList<>());
 
-        return accountRepository.save(newAccount);
+        Account savedAccount = accountRepository.save(newAccount);
+        hotAccountService.createSlots(savedAccount);
+        cache(savedAccount);
+        return savedAccount;
     }
 
     /**
-     * Creates an initial transaction for the newly created account.
+     * Creates an initial transaction for the newly created account, together with its summary and outbox event.
      *
      * @param account The account for which the initial transaction is to be created.
      */
+    @Transactional
     public void createInitialTransaction(Account account) {
-        transactionRepository.save(
+        Transaction transaction = transactionRepository.save(
                 Transaction.transactionBuilder()
                         .account(account)
                         .transactionType(TransactionType.ACCOUNT_CREATION)
-                        .oldBalance(0.0)
+                        .oldBalance(Money.ZERO)
                         .newBalance(account.getBalance())
                         .transactionAmount(account.getBalance())
                         .timeStamp(LocalDateTime.now())
                         .build()
         );
+        dailySummaryService.add(List.of(transaction));
+        transactionOutbox.add(List.of(transaction));
+        transactionJournal.appendAfterCommit(List.of(transaction));
+        transactionFeed.publishAfterCommit(List.of(transaction));
     }
 
     /**
@@ -108,29 +294,64 @@ public class AccountService {
      *
      * @param accountNumber The account number where the amount is to be deposited.
      * @param amount       The amount to be deposited (must be positive).
+     * @return The new balance and the ledger entry of the deposit; without transaction id in engine mode,
+     *         where the ledger entry is written later.
      * @throws TransactionException If the amount is negative.
      */
-    public void deposit(String accountNumber, Double amount) {
-        Account account = findAccountByNr(accountNumber);
-        if (amount < 0) {
+    public TransactionResultDto deposit(String accountNumber, Money amount) {
+        return bankingMetrics.record(TransactionType.DEPOSIT, amount, () -> doDeposit(accountNumber, amount));
+    }
+
+    private TransactionResultDto doDeposit(String accountNumber, Money amount) {
+        if (balanceEngine.isEnabled()) {
+            return balanceEngine.deposit(accountNumber, amount);
+        }
+        boolean hot = hotAccountService.isHot(accountNumber);
+        Transaction transaction = accountUpdateExecutor.execute("deposit", hot ? List.of() : List.of(accountNumber),
+                accountUpdateExecutor.isAtomic() || hot ? () -> applyDepositAtomically(accountNumber, amount) : () -> applyDeposit(accountNumber, amount));
+        cache(transaction.getAccount());
+        return toResult(transaction);
+    }
+
+    private Transaction applyDeposit(String accountNumber, Money amount) {
+        Account account = ledgerService.forUpdate(loadAccount(accountNumber));
+        if (amount.isNegative()) {
             throw new TransactionException("Deposit amount should be positive");
         }
 
-        Double oldBalance = account.getBalance();
-        account.setBalance(oldBalance + amount);
+        Money oldBalance = account.getBalance();
+        account.setBalance(oldBalance.plus(amount));
 
-        accountRepository.save(account);
+        Transaction transaction = Transaction.transactionBuilder()
+                .account(account)
+                .transactionType(TransactionType.DEPOSIT)
+                .oldBalance(oldBalance)
+                .newBalance(account.getBalance())
+                .transactionAmount(amount)
+                .timeStamp(LocalDateTime.now())
+                .build();
+        ledgerService.record(List.of(account), List.of(transaction)); // Persisting assigns the id to the entity itself
+        return transaction;
+    }
 
-        transactionRepository.save(
-                Transaction.transactionBuilder()
-                        .account(account)
-                        .transactionType(TransactionType.DEPOSIT)
-                        .oldBalance(oldBalance)
-                        .newBalance(account.getBalance())
-                        .transactionAmount(amount)
-                        .timeStamp(LocalDateTime.now())
-                        .build()
-        );
+    private Transaction applyDepositAtomically(String accountNumber, Money amount) {
+        if (amount.isNegative()) {
+            throw new TransactionException("Deposit amount should be positive");
+        }
+        credit(accountNumber, amount);
+        Account account = loadAccount(accountNumber); // Reads the balance just written; the row stays locked until commit
+        Money newBalance = ledgerService.forRead(account).getBalance();
+
+        Transaction transaction = Transaction.transactionBuilder()
+                .account(account)
+                .transactionType(TransactionType.DEPOSIT)
+                .oldBalance(newBalance.minus(amount))
+                .newBalance(newBalance)
+                .transactionAmount(amount)
+                .timeStamp(LocalDateTime.now())
+                .build();
+        ledgerService.record(List.of(), List.of(transaction)); // The account row is written already
+        return transaction;
     }
 
     /**
@@ -138,33 +359,66 @@ public class AccountService {
      *
      * @param accountNumber The account number from which the amount is to be withdrawn.
      * @param amount       The amount to be withdrawn (must be positive and less than or equal to the balance).
+     * @return The new balance and the ledger entry of the withdrawal; without transaction id in engine mode.
      * @throws TransactionException If the amount is negative or exceeds the account balance.
      */
-    public void withdraw(String accountNumber, Double amount) {
-        Account account = findAccountByNr(accountNumber);
+    public TransactionResultDto withdraw(String accountNumber, Money amount) {
+        return bankingMetrics.record(TransactionType.WITHDRAWAL, amount, () -> doWithdraw(accountNumber, amount));
+    }
+
+    private TransactionResultDto doWithdraw(String accountNumber, Money amount) {
+        if (balanceEngine.isEnabled()) {
+            return balanceEngine.withdraw(accountNumber, amount);
+        }
+        Transaction transaction = accountUpdateExecutor.execute("withdraw", List.of(accountNumber),
+                accountUpdateExecutor.isAtomic() ? () -> applyWithdrawAtomically(accountNumber, amount) : () -> applyWithdraw(accountNumber, amount));
+        cache(transaction.getAccount());
+        return toResult(transaction);
+    }
 
-        if (amount < 0) {
+    private Transaction applyWithdraw(String accountNumber, Money amount) {
+        Account account = ledgerService.forUpdate(loadAccount(accountNumber));
+
+        if (amount.isNegative()) {
             throw new TransactionException("Invalid amount");
         }
-        if (amount > account.getBalance()) {
+        if (amount.isGreaterThan(account.getBalance())) {
             throw new TransactionException("Insufficient balance");
         }
 
-        Double oldBalance = account.getBalance();
-        account.setBalance(oldBalance - amount);
+        Money oldBalance = account.getBalance();
+        account.setBalance(oldBalance.minus(amount));
 
-        accountRepository.save(account);
+        Transaction transaction = Transaction.transactionBuilder()
+                .account(account)
+                .oldBalance(oldBalance)
+                .newBalance(account.getBalance())
+                .transactionAmount(amount)
+                .transactionType(TransactionType.WITHDRAWAL)
+                .timeStamp(LocalDateTime.now())
+                .build();
+        ledgerService.record(List.of(account), List.of(transaction));
+        return transaction;
+    }
 
-        transactionRepository.save(
-                Transaction.transactionBuilder()
-                        .account(account)
-                        .oldBalance(oldBalance)
-                        .newBalance(account.getBalance())
-                        .transactionAmount(amount)
-                        .transactionType(TransactionType.WITHDRAWAL)
-                        .timeStamp(LocalDateTime.now())
-                        .build()
-        );
+    private Transaction applyWithdrawAtomically(String accountNumber, Money amount) {
+        if (amount.isNegative()) {
+            throw new TransactionException("Invalid amount");
+        }
+        debit(accountNumber, amount, "Insufficient balance");
+        Account account = loadAccount(accountNumber);
+        Money newBalance = ledgerService.forRead(account).getBalance();
+
+        Transaction transaction = Transaction.transactionBuilder()
+                .account(account)
+                .oldBalance(newBalance.plus(amount))
+                .newBalance(newBalance)
+                .transactionAmount(amount)
+                .transactionType(TransactionType.WITHDRAWAL)
+                .timeStamp(LocalDateTime.now())
+                .build();
+        ledgerService.record(List.of(), List.of(transaction));
+        return transaction;
     }
 
     /**
@@ -173,29 +427,66 @@ public class AccountService {
      * @param sourceAccountNumber The account number from which to transfer the amount.
      * @param targetAccountNumber The account number to which the amount is to be transferred.
      * @param transferAmount      The amount to be transferred (must be positive and less than or equal to the balance).
+     * @return The new balances of both accounts and the source account's ledger entry; without transaction id in engine mode.
      * @throws TransactionException If the transfer amount is invalid or exceeds the source account's balance.
      */
-    public void transfer(String sourceAccountNumber, String targetAccountNumber, Double transferAmount) {
-        Account sourceAccount = findAccountByNr(sourceAccountNumber);
-        Account targetAccount = findAccountByNr(targetAccountNumber);
+    public TransactionResultDto transfer(String sourceAccountNumber, String targetAccountNumber, Money transferAmount) {
+        return bankingMetrics.record(TransactionType.TRANSFER, transferAmount,
+                () -> doTransfer(sourceAccountNumber, targetAccountNumber, transferAmount));
+    }
+
+    private TransactionResultDto doTransfer(String sourceAccountNumber, String targetAccountNumber, Money transferAmount) {
+        if (balanceEngine.isEnabled()) {
+            return balanceEngine.transfer(sourceAccountNumber, targetAccountNumber, transferAmount);
+        }
+        List<Transaction> transactions;
+        if (transferCoalescer.isEnabled()) {
+            transactions = transferCoalescer.transfer(sourceAccountNumber, targetAccountNumber, transferAmount);
+        } else {
+            List<String> lockedAccounts = hotAccountService.isHot(targetAccountNumber)
+                    ? List.of(sourceAccountNumber) : List.of(sourceAccountNumber, targetAccountNumber);
+            transactions = accountUpdateExecutor.execute("transfer", lockedAccounts,
+                    accountUpdateExecutor.isAtomic()
+                            ? () -> applyTransferAtomically(sourceAccountNumber, targetAccountNumber, transferAmount)
+                            : () -> applyTransfer(sourceAccountNumber, targetAccountNumber, transferAmount));
+        }
+        Transaction sourceTransaction = transactions.get(0);
+        Transaction targetTransaction = transactions.get(1);
+        cache(sourceTransaction.getAccount());
+        cache(targetTransaction.getAccount());
+
+        TransactionResultDto result = toResult(sourceTransaction);
+        result.setTargetAccountNumber(targetAccountNumber);
+        result.setTargetNewBalance(targetTransaction.getNewBalance());
+        return result;
+    }
 
-        if (transferAmount > sourceAccount.getBalance()) {
+    private List<Transaction> applyTransfer(String sourceAccountNumber, String targetAccountNumber, Money transferAmount) {
+        Account sourceAccount = ledgerService.forUpdate(loadAccount(sourceAccountNumber));
+        boolean hotTarget = hotAccountService.isHot(targetAccountNumber);
+        Account targetAccount = hotTarget ? loadAccount(targetAccountNumber) : ledgerService.forUpdate(loadAccount(targetAccountNumber));
+
+        if (transferAmount.isGreaterThan(sourceAccount.getBalance())) {
             throw new TransactionException("Insufficient balance for transfer!");
         }
-        if (transferAmount <= 0) {
+        if (transferAmount.signum() <= 0) {
             throw new TransactionException("Invalid transfer amount.");
         }
 
-        Double sourceOldBalance = sourceAccount.getBalance();
-        Double targetOldBalance = targetAccount.getBalance();
-
-        sourceAccount.setBalance(sourceOldBalance - transferAmount);
-        targetAccount.setBalance(targetOldBalance + transferAmount);
+        Money sourceOldBalance = sourceAccount.getBalance();
+        sourceAccount.setBalance(sourceOldBalance.minus(transferAmount));
 
-        accountRepository.save(sourceAccount);
-        accountRepository.save(targetAccount);
+        Money targetNewBalance;
+        if (hotTarget) {
+            hotAccountService.credit(targetAccount, transferAmount);
+            targetNewBalance = ledgerService.forRead(targetAccount).getBalance();
+        } else {
+            targetNewBalance = targetAccount.getBalance().plus(transferAmount);
+            targetAccount.setBalance(targetNewBalance);
+        }
 
-        transactionRepository.save(
+        LocalDateTime timeStamp = LocalDateTime.now();
+        List<Transaction> transactions = List.of(
                 Transaction.transactionBuilder()
                         .account(sourceAccount)
                         .transactionType(TransactionType.TRANSFER)
@@ -203,20 +494,105 @@ public class AccountService {
                         .newBalance(sourceAccount.getBalance())
                         .transactionAmount(transferAmount)
                         .targetAccountNr(targetAccountNumber)
-                        .timeStamp(LocalDateTime.now())
+                        .timeStamp(timeStamp)
+                        .build(),
+                Transaction.transactionBuilder()
+                        .account(targetAccount)
+                        .oldBalance(targetNewBalance.minus(transferAmount))
+                        .transactionType(TransactionType.TRANSFER)
+                        .newBalance(targetNewBalance)
+                        .transactionAmount(transferAmount)
+                        .targetAccountNr(sourceAccountNumber)
+                        .timeStamp(timeStamp)
                         .build()
         );
+        // Both balance updates and both ledger rows are flushed together at commit as two JDBC batches
+        ledgerService.record(hotTarget ? List.of(sourceAccount) : List.of(sourceAccount, targetAccount), transactions);
+        return transactions;
+    }
+
+    private List<Transaction> applyTransferAtomically(String sourceAccountNumber, String targetAccountNumber, Money transferAmount) {
+        if (transferAmount.signum() <= 0) {
+            throw new TransactionException("Invalid transfer amount.");
+        }
+        // Rows are locked in account number order, so opposing transfers cannot deadlock
+        if (sourceAccountNumber.compareTo(targetAccountNumber) <= 0) {
+            debit(sourceAccountNumber, transferAmount, "Insufficient balance for transfer!");
+            credit(targetAccountNumber, transferAmount);
+        } else {
+            credit(targetAccountNumber, transferAmount);
+            debit(sourceAccountNumber, transferAmount, "Insufficient balance for transfer!"); // Failing rolls back the credit
+        }
+        Account sourceAccount = loadAccount(sourceAccountNumber);
+        Account targetAccount = loadAccount(targetAccountNumber);
+        Money sourceNewBalance = ledgerService.forRead(sourceAccount).getBalance();
+        Money targetNewBalance = ledgerService.forRead(targetAccount).getBalance();
 
-        transactionRepository.save(
+        LocalDateTime timeStamp = LocalDateTime.now();
+        List<Transaction> transactions = List.of(
+                Transaction.transactionBuilder()
+                        .account(sourceAccount)
+                        .transactionType(TransactionType.TRANSFER)
+                        .oldBalance(sourceNewBalance.plus(transferAmount))
+                        .newBalance(sourceNewBalance)
+                        .transactionAmount(transferAmount)
+                        .targetAccountNr(targetAccountNumber)
+                        .timeStamp(timeStamp)
+                        .build(),
                 Transaction.transactionBuilder()
                         .account(targetAccount)
-                        .oldBalance(targetOldBalance)
                         .transactionType(TransactionType.TRANSFER)
-                        .newBalance(targetAccount.getBalance())
+                        .oldBalance(targetNewBalance.minus(transferAmount))
+                        .newBalance(targetNewBalance)
                         .transactionAmount(transferAmount)
                         .targetAccountNr(sourceAccountNumber)
+                        .timeStamp(timeStamp)
                         .build()
         );
+        ledgerService.record(List.of(), transactions);
+        return transactions;
+    }
+
+    private void credit(String accountNumber, Money amount) {
+        if (hotAccountService.isHot(accountNumber)) {
+            hotAccountService.credit(loadAccount(accountNumber), amount);
+        } else if (accountRepository.credit(accountNumber, amount.minorUnits()) == 0) {
+            throw new ResourceNotFoundException("Account number " + accountNumber + " not found!");
+        }
+    }
+
+    private void debit(String accountNumber, Money amount, String insufficientBalanceMessage) {
+        if (accountRepository.debit(accountNumber, amount.minorUnits()) == 0) {
+            Account account = loadAccount(accountNumber); // Tells a missing account from a balance that is too low
+            if (hotAccountService.isHot(accountNumber)) {
+                Money swept = hotAccountService.sweep(account);
+                if (swept.signum() > 0 && accountRepository.credit(accountNumber, swept.minorUnits()) == 1
+                        && accountRepository.debit(accountNumber, amount.minorUnits()) == 1) {
+                    return;
+                }
+            }
+            throw new TransactionException(insufficientBalanceMessage);
+        }
+    }
+
+    /**
+     * Caches an updated account. Hot accounts are never cached: credits to their balance slots do not
+     * change the account's version, so a cached balance could not be told from a stale one.
+     */
+    private void cache(Account account) {
+        if (!hotAccountService.isHot(account.getAccountNr())) {
+            accountCache.put(account);
+        }
+    }
+
+    private static TransactionResultDto toResult(Transaction transaction) {
+        return TransactionResultDto.builder()
+                .transactionId(transaction.getTransactionId())
+                .accountNumber(transaction.getAccount().getAccountNr())
+                .newBalance(transaction.getNewBalance())
+                .amount(transaction.getTransactionAmount())
+                .timeStamp(transaction.getTimeStamp())
+                .build();
     }
 
     /**
@@ -226,11 +602,13 @@ public class AccountService {
      * @throws ResourceNotFoundException If the account is not found.
      */
     public void deleteAccount(String accountNumber) {
-    Account account = findAccountByNr(accountNumber); // Find the account first
-    if (account == null) {
-        throw new ResourceNotFoundException("Account number " + accountNumber + " not found!"); // Exception handling
+    if (balanceEngine.isEnabled()) {
+        balanceEngine.evict(accountNumber);
     }
+    Account account = loadAccount(accountNumber); // Find the account first
+    ledgerService.deleteSnapshots(account);
     accountRepository.delete(account); // Then delete the account
+    accountCache.evict(accountNumber);
 }
 
 }
@@ -0,0 +1,63 @@
+package de.markant.lksg.application.task.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * The AccountUpdateExecutor runs balance updates in their own database transaction and protects them
+ * against lost updates according to the configured ConcurrencyMode: either while holding the affected
+ * accounts' locks from the AccountLockManager, or optimistically through the OptimisticRetryExecutor,
+ * which repeats the whole transaction when an account version changed concurrently.
+ * In ATOMIC mode the updates of AccountService protect themselves with conditional UPDATE statements;
+ * other updates are run optimistically.
+ */
+@Component
+public class AccountUpdateExecutor {
+
+    private final AccountLockManager accountLockManager;
+
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrencyMode concurrencyMode;
+
+    public AccountUpdateExecutor(AccountLockManager accountLockManager,
+                                 OptimisticRetryExecutor optimisticRetryExecutor,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${banking.concurrency.mode:LOCKING}") ConcurrencyMode concurrencyMode) {
+        this.accountLockManager = accountLockManager;
+        this.optimisticRetryExecutor = optimisticRetryExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.concurrencyMode = concurrencyMode;
+    }
+
+    /**
+     * Runs a balance update in its own transaction.
+     * @param operation The operation name, used for the retry policy and metrics in optimistic mode.
+     * @param accountNumbers The accounts the update modifies.
+     * @param update The update; it must read the accounts inside the transaction and may run more than once.
+     * @return The result of the update.
+     */
+    public <T> T execute(String operation, Collection<String> accountNumbers, Supplier<T> update) {
+        if (concurrencyMode != ConcurrencyMode.LOCKING) {
+            return optimisticRetryExecutor.execute(operation, () -> inTransaction(update));
+        }
+        return accountLockManager.withLocks(accountNumbers, () -> inTransaction(update));
+    }
+
+    /**
+     * @return Whether balance updates should be applied with conditional UPDATE statements.
+     */
+    public boolean isAtomic() {
+        return concurrencyMode == ConcurrencyMode.ATOMIC;
+    }
+
+    private <T> T inTransaction(Supplier<T> update) {
+        return transactionTemplate.execute(status -> update.get());
+    }
+}
@@ -0,0 +1,315 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.config.LedgerWriterProperties;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.LedgerDeadLetter;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.repository.LedgerDeadLetterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The AsyncLedgerWriter takes the insertion of ledger transactions off the request path: a balance update
+ * commits only its account rows, and its transactions are inserted afterwards by a background thread that
+ * drains a bounded queue and writes up to batch-size transactions with one JDBC batch.
+ * Transaction ids are still assigned while the update runs, from the same pooled sequence as regular inserts,
+ * so responses and the TransactionJournal see the final ids. Capacity is reserved before the update commits;
+ * when the writer falls behind, updates wait up to submit-timeout-ms for room and are then rejected, so the
+ * queue never grows beyond its capacity. Shutdown inserts everything still queued.
+ * Queued transactions are lost if the process dies; the TransactionJournal, which also records them, can
+ * restore them on the next start (banking.journal.replay-on-startup). While the database is unavailable or
+ * failing, the writer retries with backoff; a row the database rejects on its own is moved to the
+ * ledger_dead_letter table and counted in banking.ledger.writer.dead.letters. Requires the STATE ledger mode.
+ */
+@Component
+@Slf4j
+public class AsyncLedgerWriter {
+
+    static final String PENDING_METRIC = "banking.ledger.writer.pending";
+    static final String DEAD_LETTER_METRIC = "banking.ledger.writer.dead.letters";
+
+    // The columns of TransactionRepository.insertWithId
+    private static final String INSERT = "INSERT INTO transaction (transaction_id, account_account_id, transaction_type, time_stamp,"
+            + " old_balance, new_balance, transaction_amount, target_account_nr) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final long MAX_RETRY_DELAY_MS = 5_000;
+
+    private final LedgerWriterProperties properties;
+
+    private final EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final LedgerDeadLetterRepository deadLetterRepository;
+
+    private final Counter deadLetters;
+
+    private final BlockingQueue<Transaction> queue;
+
+    /** One permit per free queue slot; taken before an update commits, returned once its transactions are inserted. */
+    private final Semaphore capacity;
+
+    private final AtomicLong submitted = new AtomicLong();
+
+    private final Object progress = new Object();
+
+    // Guarded by progress
+    private long written;
+
+    private volatile boolean running;
+
+    private Thread writer;
+
+    public AsyncLedgerWriter(LedgerWriterProperties properties,
+                             EntityManager entityManager,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             LedgerDeadLetterRepository deadLetterRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${banking.ledger.mode:STATE}") LedgerMode ledgerMode) {
+        if (properties.isAsync() && ledgerMode != LedgerMode.STATE) {
+            throw new IllegalStateException("The asynchronous ledger writer requires the STATE ledger mode.");
+        }
+        this.properties = properties;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.deadLetterRepository = deadLetterRepository;
+        this.deadLetters = Counter.builder(DEAD_LETTER_METRIC)
+                .description("Ledger transactions the database rejected, kept in the ledger_dead_letter table")
+                .register(meterRegistry);
+        this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+        this.capacity = new Semaphore(properties.getCapacity());
+        Gauge.builder(PENDING_METRIC, queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    public boolean isAsync() {
+        return properties.isAsync();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isAsync()) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::run, "ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Inserts everything still queued and stops the writer.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(properties.getShutdownTimeoutMs());
+        if (writer.isAlive()) {
+            log.error("Ledger writer stopped with {} transactions not inserted", queue.size());
+            writer.interrupt();
+        }
+        writer = null;
+    }
+
+    /**
+     * Assigns the transactions their ids and queues them for insertion once the current database
+     * transaction commits; nothing is inserted if it rolls back.
+     * @param transactions The transactions of a balance update.
+     * @throws TransactionException If the writer has no room for them within submit-timeout-ms.
+     */
+    public void writeAfterCommit(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        IdentifierGenerator generator = (IdentifierGenerator) session.getFactory().getMappingMetamodel()
+                .getEntityDescriptor(Transaction.class).getGenerator();
+        for (Transaction transaction : transactions) {
+            transaction.setTransactionId((Long) generator.generate(session, transaction));
+        }
+        reserve(transactions.size());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(transactions);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    enqueue(transactions);
+                } else {
+                    capacity.release(transactions.size());
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits until every transaction queued so far is inserted.
+     */
+    public void flush() {
+        long target = submitted.get();
+        synchronized (progress) {
+            while (written < target && writer != null) {
+                try {
+                    progress.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the ledger writer", e);
+                }
+            }
+        }
+    }
+
+    private void enqueue(List<Transaction> transactions) {
+        submitted.addAndGet(transactions.size());
+        queue.addAll(transactions); // Cannot overflow, the slots are reserved
+    }
+
+    private void reserve(int count) {
+        try {
+            if (!capacity.tryAcquire(count, properties.getSubmitTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                throw new TransactionException("The ledger is busy, please try again.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransactionException("The ledger is busy, please try again.");
+        }
+    }
+
+    private void run() {
+        List<Transaction> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                Transaction first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                log.error("Ledger writer interrupted with {} transactions not inserted", batch.size());
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Ledger writer failed to insert {} transactions", batch.size(), e);
+            } finally {
+                // The permits of a batch are returned however it ended, so the writer never blocks new updates
+                capacity.release(batch.size());
+                synchronized (progress) {
+                    written += batch.size();
+                    progress.notifyAll();
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Inserts a batch, retrying with backoff while the database is unavailable or fails for other reasons.
+     * A batch rejected by the database is inserted row by row, and the rows rejected on their own are moved
+     * to the dead letter table.
+     */
+    private void write(List<Transaction> batch) throws InterruptedException {
+        long delay = 100;
+        while (true) {
+            try {
+                insert(batch);
+                return;
+            } catch (RuntimeException e) {
+                if (isRejected(e)) {
+                    if (batch.size() == 1) {
+                        deadLetter(batch.get(0), e);
+                    } else {
+                        log.warn("Inserting {} ledger transactions failed, inserting them one by one", batch.size(), e);
+                        for (Transaction transaction : batch) {
+                            write(List.of(transaction));
+                        }
+                    }
+                    return;
+                }
+                log.warn("Inserting {} ledger transactions failed, retrying in {} ms", batch.size(), delay, e);
+                Thread.sleep(delay);
+                delay = Math.min(delay * 2, MAX_RETRY_DELAY_MS);
+            }
+        }
+    }
+
+    /** Whether the database refused the rows themselves, so that retrying them cannot succeed. */
+    private static boolean isRejected(RuntimeException e) {
+        return e instanceof DataAccessException
+                && !(e instanceof TransientDataAccessException || e instanceof DataAccessResourceFailureException);
+    }
+
+    private void deadLetter(Transaction transaction, RuntimeException failure) {
+        deadLetters.increment();
+        log.error("Ledger transaction {} of account {} was rejected, moving it to the dead letter table",
+                transaction.getTransactionId(), transaction.getAccount().getAccountNr(), failure);
+        String error = String.valueOf(NestedExceptionUtils.getMostSpecificCause(failure).getMessage());
+        deadLetterRepository.save(LedgerDeadLetter.builder()
+                .transactionId(transaction.getTransactionId())
+                .accountId(transaction.getAccount().getAccountId())
+                .accountNr(transaction.getAccount().getAccountNr())
+                .transactionType(transaction.getTransactionType())
+                .timeStamp(transaction.getTimeStamp())
+                .oldBalance(transaction.getOldBalance())
+                .newBalance(transaction.getNewBalance())
+                .transactionAmount(transaction.getTransactionAmount())
+                .targetAccountNr(transaction.getTargetAccountNr())
+                .error(error.length() > 2000 ? error.substring(0, 2000) : error)
+                .failedAt(LocalDateTime.now())
+                .build());
+    }
+
+    private void insert(List<Transaction> batch) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, batch, batch.size(), (statement, transaction) -> {
+            statement.setLong(1, transaction.getTransactionId());
+            statement.setLong(2, transaction.getAccount().getAccountId());
+            statement.setString(3, transaction.getTransactionType().name());
+            statement.setObject(4, transaction.getTimeStamp());
+            statement.setObject(5, minorUnits(transaction.getOldBalance()));
+            statement.setObject(6, minorUnits(transaction.getNewBalance()));
+            statement.setObject(7, minorUnits(transaction.getTransactionAmount()));
+            statement.setString(8, transaction.getTargetAccountNr());
+        }));
+    }
+
+    private static Long minorUnits(Money amount) {
+        return amount == null ? null : amount.minorUnits();
+    }
+}
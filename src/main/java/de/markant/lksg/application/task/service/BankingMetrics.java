@@ -0,0 +1,67 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.TransactionType;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * The BankingMetrics component records the latency and outcome of every balance changing operation
+ * per TransactionType, and the distribution of the amounts moved by successful ones.
+ * Latencies are published as percentile histograms, so p99 latencies can be computed across
+ * instances by the monitoring system; SLO buckets can be added with
+ * management.metrics.distribution.slo.banking.operation.duration.
+ */
+@Component
+public class BankingMetrics {
+
+    static final String DURATION_METRIC = "banking.operation.duration";
+    static final String AMOUNT_METRIC = "banking.operation.amount";
+
+    private final MeterRegistry meterRegistry;
+
+    public BankingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs an operation and records its duration and outcome.
+     * @param type The kind of operation.
+     * @param amount The amount moved by the operation; recorded only if the operation succeeds.
+     * @param operation The operation.
+     * @return The result of the operation.
+     */
+    public <T> T record(TransactionType type, Money amount, Supplier<T> operation) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            T result = operation.get();
+            sample.stop(timer(type, "success", "none"));
+            if (amount != null) {
+                DistributionSummary.builder(AMOUNT_METRIC)
+                        .description("Amounts moved by successful banking operations")
+                        .tag("type", type.name())
+                        .publishPercentileHistogram()
+                        .register(meterRegistry)
+                        .record(amount.toDouble());
+            }
+            return result;
+        } catch (RuntimeException e) {
+            sample.stop(timer(type, "failure", e.getClass().getSimpleName()));
+            throw e;
+        }
+    }
+
+    private Timer timer(TransactionType type, String outcome, String exception) {
+        return Timer.builder(DURATION_METRIC)
+                .description("Duration of banking operations, including waiting for locks and retries")
+                .tag("type", type.name())
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,297 @@
+package de.markant.lksg.application.task.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.markant.lksg.application.task.constants.Constants;
+import de.markant.lksg.application.task.dto.BulkTransferReportDto;
+import de.markant.lksg.application.task.dto.BulkTransferResultDto;
+import de.markant.lksg.application.task.dto.TransferDto;
+import de.markant.lksg.application.task.engine.BalanceEngine;
+import de.markant.lksg.application.task.exception.AccountBusyException;
+import de.markant.lksg.application.task.exception.ResourceNotFoundException;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The BulkTransferService applies large lists of transfers, e.g. payroll runs, in a single request.
+ * Transfers are validated one by one and applied in chunks: each chunk runs in one transaction
+ * that reads all involved accounts with one query, applies the transfers in request order against
+ * the in-memory balances, and writes every account and all ledger rows once as JDBC batches.
+ * A rejected transfer does not affect the other transfers of its chunk. A chunk that cannot be applied,
+ * e.g. because one of its accounts is busy, fails as a whole without affecting the other chunks.
+ * A chunk locks at most a quarter of the lock stripes for its source and target accounts, so other
+ * requests still find free stripes while a large chunk runs.
+ * When the BalanceEngine is enabled, the transfers are applied one by one through the engine instead.
+ */
+@Service
+public class BulkTransferService {
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountUpdateExecutor accountUpdateExecutor;
+
+    @Autowired
+    private AccountCache accountCache;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private BalanceEngine balanceEngine;
+
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${banking.bulk.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${banking.bulk.max-transfers:100000}")
+    private int maxTransfers = 100_000;
+
+    @Value("${banking.locking.stripes:1024}")
+    private int lockStripes = 1024;
+
+    /**
+     * Applies a list of transfers.
+     *
+     * @param transfers The transfers to apply, in order.
+     * @return A report with the outcome of every transfer.
+     */
+    public BulkTransferReportDto transferAll(List<TransferDto> transfers) {
+        return transferAll(transfers.iterator());
+    }
+
+    /**
+     * Applies transfers read from newline-delimited JSON, one TransferDto per line, as they arrive.
+     * Reading stops at the first malformed line, which is reported as a failed transfer.
+     *
+     * @param ndjson The request body.
+     * @return A report with the outcome of every transfer read.
+     * @throws IOException If the body cannot be read.
+     */
+    public BulkTransferReportDto transferAll(InputStream ndjson) throws IOException {
+        try (MappingIterator<TransferDto> lines = objectMapper.readerFor(TransferDto.class).readValues(ndjson)) {
+            return transferAll(new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return read(lines::hasNextValue);
+                }
+
+                @Override
+                public TransferDto next() {
+                    return read(lines::nextValue);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static <T> T read(JsonRead<T> read) {
+        try {
+            return read.get();
+        } catch (JsonProcessingException e) {
+            throw new MalformedTransferException();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private BulkTransferReportDto transferAll(Iterator<TransferDto> transfers) {
+        // Every transfer locks up to two stripes
+        int chunkSize = Math.max(1, Math.min(this.chunkSize, lockStripes / 8));
+        List<BulkTransferResultDto> results = new ArrayList<>();
+        List<IndexedTransfer> chunk = new ArrayList<>(chunkSize);
+
+        for (int index = 0; ; index++) {
+            TransferDto transfer;
+            try {
+                if (!transfers.hasNext()) {
+                    break;
+                }
+                transfer = transfers.next();
+            } catch (MalformedTransferException e) {
+                results.add(new BulkTransferResultDto(index, false, "Malformed transfer."));
+                break;
+            }
+            if (index >= maxTransfers) {
+                results.add(new BulkTransferResultDto(index, false, "Too many transfers, at most " + maxTransfers + " are accepted."));
+                break;
+            }
+
+            String error = validate(transfer);
+            if (error != null) {
+                results.add(new BulkTransferResultDto(index, false, error));
+                continue;
+            }
+            chunk.add(new IndexedTransfer(index, transfer));
+            if (chunk.size() == chunkSize) {
+                results.addAll(applyChunk(chunk));
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(applyChunk(chunk));
+        }
+
+        results.sort(Comparator.comparingInt(BulkTransferResultDto::getIndex));
+        int succeeded = (int) results.stream().filter(BulkTransferResultDto::isSuccess).count();
+        return new BulkTransferReportDto(results.size(), succeeded, results.size() - succeeded, results);
+    }
+
+    private static String validate(TransferDto transfer) {
+        if (transfer == null || transfer.getSourceAccountNumber() == null || transfer.getTargetAccountNumber() == null) {
+            return "Source and target account number are required.";
+        }
+        if (transfer.getTransferAmount() == null || transfer.getTransferAmount().signum() <= 0) {
+            return "Invalid transfer amount.";
+        }
+        if (transfer.getSourceAccountNumber().equals(transfer.getTargetAccountNumber())) {
+            return "Source and target account must differ.";
+        }
+        return null;
+    }
+
+    private List<BulkTransferResultDto> applyChunk(List<IndexedTransfer> chunk) {
+        if (balanceEngine.isEnabled()) {
+            return chunk.stream().map(this::applyInEngine).toList();
+        }
+        Set<String> accountNumbers = new HashSet<>();
+        for (IndexedTransfer item : chunk) {
+            accountNumbers.add(item.transfer().getSourceAccountNumber());
+            accountNumbers.add(item.transfer().getTargetAccountNumber());
+        }
+
+        Map<String, Account> accounts = new HashMap<>();
+        List<BulkTransferResultDto> chunkResults;
+        try {
+            chunkResults = accountUpdateExecutor.execute("bulk-transfer", accountNumbers, () -> {
+                accounts.clear(); // An optimistic retry starts over with freshly read accounts
+                for (Account account : accountRepository.findByAccountNrIn(accountNumbers)) {
+                    accounts.put(account.getAccountNr(), ledgerService.forUpdate(account));
+                }
+
+                LocalDateTime timeStamp = LocalDateTime.now();
+                List<Transaction> ledger = new ArrayList<>(chunk.size() * 2);
+                List<BulkTransferResultDto> results = new ArrayList<>(chunk.size());
+                for (IndexedTransfer item : chunk) {
+                    results.add(apply(item, accounts, ledger, timeStamp));
+                }
+
+                // Modified accounts are written once each when the transaction commits
+                ledgerService.record(accounts.values(), ledger);
+                return results;
+            });
+        } catch (AccountBusyException | TransactionException e) {
+            return failChunk(chunk, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            return failChunk(chunk, Constants.CONCURRENT_MODIFICATION);
+        }
+        accounts.values().stream()
+                .filter(account -> !hotAccountService.isHot(account.getAccountNr())) // See AccountService
+                .forEach(accountCache::put);
+        return chunkResults;
+    }
+
+    private static List<BulkTransferResultDto> failChunk(List<IndexedTransfer> chunk, String message) {
+        return chunk.stream().map(item -> new BulkTransferResultDto(item.index(), false, message)).toList();
+    }
+
+    private BulkTransferResultDto applyInEngine(IndexedTransfer item) {
+        TransferDto transfer = item.transfer();
+        try {
+            balanceEngine.transfer(transfer.getSourceAccountNumber(), transfer.getTargetAccountNumber(), transfer.getTransferAmount());
+            return new BulkTransferResultDto(item.index(), true, null);
+        } catch (ResourceNotFoundException | TransactionException e) {
+            return new BulkTransferResultDto(item.index(), false, e.getMessage());
+        }
+    }
+
+    private static BulkTransferResultDto apply(IndexedTransfer item, Map<String, Account> accounts,
+                                               List<Transaction> ledger, LocalDateTime timeStamp) {
+        TransferDto transfer = item.transfer();
+        Account sourceAccount = accounts.get(transfer.getSourceAccountNumber());
+        Account targetAccount = accounts.get(transfer.getTargetAccountNumber());
+        if (sourceAccount == null) {
+            return new BulkTransferResultDto(item.index(), false, "Account number " + transfer.getSourceAccountNumber() + " not found!");
+        }
+        if (targetAccount == null) {
+            return new BulkTransferResultDto(item.index(), false, "Account number " + transfer.getTargetAccountNumber() + " not found!");
+        }
+
+        Money transferAmount = transfer.getTransferAmount();
+        if (transferAmount.isGreaterThan(sourceAccount.getBalance())) {
+            return new BulkTransferResultDto(item.index(), false, "Insufficient balance for transfer!");
+        }
+
+        Money sourceOldBalance = sourceAccount.getBalance();
+        Money targetOldBalance = targetAccount.getBalance();
+        sourceAccount.setBalance(sourceOldBalance.minus(transferAmount));
+        targetAccount.setBalance(targetOldBalance.plus(transferAmount));
+
+        ledger.add(Transaction.transactionBuilder()
+                .account(sourceAccount)
+                .transactionType(TransactionType.TRANSFER)
+                .oldBalance(sourceOldBalance)
+                .newBalance(sourceAccount.getBalance())
+                .transactionAmount(transferAmount)
+                .targetAccountNr(targetAccount.getAccountNr())
+                .timeStamp(timeStamp)
+                .build());
+        ledger.add(Transaction.transactionBuilder()
+                .account(targetAccount)
+                .transactionType(TransactionType.TRANSFER)
+                .oldBalance(targetOldBalance)
+                .newBalance(targetAccount.getBalance())
+                .transactionAmount(transferAmount)
+                .targetAccountNr(sourceAccount.getAccountNr())
+                .timeStamp(timeStamp)
+                .build());
+
+        return new BulkTransferResultDto(item.index(), true, null);
+    }
+
+    /**
+     * A transfer together with its position in the request.
+     */
+    private record IndexedTransfer(int index, TransferDto transfer) {
+    }
+
+    @FunctionalInterface
+    private interface JsonRead<T> {
+        T get() throws IOException;
+    }
+
+    /**
+     * Signals a line of the NDJSON body that is not a valid transfer.
+     */
+    private static class MalformedTransferException extends RuntimeException {
+    }
+}
@@ -0,0 +1,21 @@
+package de.markant.lksg.application.task.service;
+
+/**
+ * Enum representing the strategies AccountService can use to keep concurrent balance updates correct.
+ * The strategy is selected with the banking.concurrency.mode property.
+ */
+public enum ConcurrencyMode {
+
+    /** Updates of the same account wait for each other on the AccountLockManager's lock stripes. */
+    LOCKING,
+
+    /** Updates run without waiting and are retried when the account's version changed in the meantime. */
+    OPTIMISTIC,
+
+    /**
+     * Every leg of a deposit, withdrawal or transfer is one conditional UPDATE statement, so the database keeps
+     * balances correct without application locks or retries. Updates that read accounts before writing them,
+     * like bulk transfers, are retried on version conflicts as in OPTIMISTIC mode. Requires the STATE ledger mode.
+     */
+    ATOMIC
+}
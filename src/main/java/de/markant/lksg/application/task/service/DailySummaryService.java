@@ -0,0 +1,230 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.config.SummaryProperties;
+import de.markant.lksg.application.task.constants.Constants;
+import de.markant.lksg.application.task.dto.AccountSummaryDto;
+import de.markant.lksg.application.task.dto.DailySummaryDto;
+import de.markant.lksg.application.task.dto.TypeSummaryDto;
+import de.markant.lksg.application.task.engine.BalanceEngine;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.DailySummary;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
+import de.markant.lksg.application.task.repository.DailySummaryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The DailySummaryService maintains a DailySummary per account, day and transaction type, so statement and
+ * analytics queries over a range of days read one row per day and type instead of every transaction.
+ * Summaries are updated in the same database transaction as the balance update that writes the transactions,
+ * by adding to the stored sums with one UPDATE statement per summary, so they always match the balances.
+ * Opening and closing balances are not stored but derived backwards from the account's current balance and
+ * the balance changes of the following days. Summaries can be rebuilt from the transaction table, e.g. after
+ * enabling them for existing accounts; the rebuild must not run while balances are updated.
+ */
+@Service
+@Slf4j
+public class DailySummaryService implements SmartInitializingSingleton {
+
+    private static final String UPDATE = "UPDATE daily_summary SET transaction_count = transaction_count + ?,"
+            + " amount_total = amount_total + ?, balance_change = balance_change + ?"
+            + " WHERE account_id = ? AND summary_date = ? AND transaction_type = ? AND slot = ?";
+
+    private static final String INSERT = "INSERT INTO daily_summary (transaction_count, amount_total, balance_change,"
+            + " account_id, summary_date, transaction_type, slot) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // Summaries are written in a fixed order, so concurrent updates of the same summaries cannot deadlock
+    private static final Comparator<DailySummary.Key> KEY_ORDER = Comparator.comparing(DailySummary.Key::getAccountId)
+            .thenComparing(DailySummary.Key::getSummaryDate)
+            .thenComparing(DailySummary.Key::getTransactionType)
+            .thenComparingInt(DailySummary.Key::getSlot);
+
+    private final SummaryProperties properties;
+
+    private final DailySummaryRepository dailySummaryRepository;
+
+    private final HotAccountService hotAccountService;
+
+    private final AsyncLedgerWriter ledgerWriter;
+
+    // The engine writes its summaries through this service, so it is looked up only when rebuilding
+    private final ObjectProvider<BalanceEngine> balanceEngine;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public DailySummaryService(SummaryProperties properties,
+                               DailySummaryRepository dailySummaryRepository,
+                               HotAccountService hotAccountService,
+                               AsyncLedgerWriter ledgerWriter,
+                               ObjectProvider<BalanceEngine> balanceEngine,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate) {
+        this.properties = properties;
+        this.dailySummaryRepository = dailySummaryRepository;
+        this.hotAccountService = hotAccountService;
+        this.ledgerWriter = ledgerWriter;
+        this.balanceEngine = balanceEngine;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Rebuilds the summaries if configured, once every component is started, so the balance engine and the
+     * transaction journal have recovered their operations, and before the application accepts requests.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (isEnabled() && properties.isRebuildOnStartup()) {
+            log.info("Rebuilt {} daily summaries from the transactions", rebuild());
+        }
+    }
+
+    /**
+     * Replaces all summaries with ones computed from the transaction table in one database transaction.
+     * The operations acknowledged by the balance engine and the transactions queued in the asynchronous ledger
+     * writer are written first, so their summaries are not lost. Balance updates running at the same time,
+     * on this or another instance, can still be missing from the result or counted twice, so call it only
+     * while no balance updates run, like the startup rebuild does.
+     * @return The number of summaries written.
+     */
+    public int rebuild() {
+        BalanceEngine engine = balanceEngine.getObject();
+        if (engine.isEnabled()) {
+            engine.flush();
+        }
+        ledgerWriter.flush();
+        return transactionTemplate.execute(status -> {
+            dailySummaryRepository.deleteAllInBatch();
+            return dailySummaryRepository.insertFromTransactions();
+        });
+    }
+
+    /**
+     * Adds transactions to the summaries of their accounts, in the database transaction that writes them.
+     * @param transactions The transactions written by a balance update.
+     */
+    public void add(Collection<Transaction> transactions) {
+        if (!isEnabled() || transactions.isEmpty()) {
+            return;
+        }
+        Map<DailySummary.Key, DailySummary> sums = new TreeMap<>(KEY_ORDER);
+        for (Transaction transaction : transactions) {
+            Account account = transaction.getAccount();
+            DailySummary.Key key = new DailySummary.Key(account.getAccountId(), transaction.getTimeStamp().toLocalDate(),
+                    transaction.getTransactionType(), hotAccountService.randomSlot(account.getAccountNr()));
+            DailySummary sum = sums.computeIfAbsent(key, k -> DailySummary.builder()
+                    .accountId(k.getAccountId())
+                    .summaryDate(k.getSummaryDate())
+                    .transactionType(k.getTransactionType())
+                    .slot(k.getSlot())
+                    .amountTotal(Money.ZERO)
+                    .balanceChange(Money.ZERO)
+                    .build());
+            sum.setTransactionCount(sum.getTransactionCount() + 1);
+            sum.setAmountTotal(sum.getAmountTotal().plus(transaction.getTransactionAmount()));
+            sum.setBalanceChange(sum.getBalanceChange().plus(transaction.getNewBalance().minus(transaction.getOldBalance())));
+        }
+        sums.values().forEach(this::write);
+    }
+
+    /**
+     * Deletes the summaries of an account, e.g. before the account itself is deleted.
+     * @param account The account whose summaries are deleted.
+     */
+    public void delete(Account account) {
+        dailySummaryRepository.deleteByAccountId(account.getAccountId());
+    }
+
+    /**
+     * Summarizes an account's transactions per day and type over a range of days.
+     * @param account The account, carrying its current balance.
+     * @param from The first day, inclusive.
+     * @param to The last day, inclusive.
+     * @return The summary with every day of the range and its opening and closing balance.
+     * @throws TransactionException If summaries are disabled or the range is invalid.
+     */
+    public AccountSummaryDto summarize(Account account, LocalDate from, LocalDate to) {
+        if (!isEnabled()) {
+            throw new TransactionException(Constants.SUMMARIES_DISABLED);
+        }
+        if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= Constants.MAX_SUMMARY_DAYS) {
+            throw new TransactionException(Constants.INVALID_SUMMARY_RANGE);
+        }
+
+        Map<LocalDate, Map<TransactionType, TypeSummaryDto>> days = new TreeMap<>();
+        Money changeAfterRange = Money.ZERO;
+        for (DailySummary summary : dailySummaryRepository.findByAccountIdAndSummaryDateGreaterThanEqual(account.getAccountId(), from)) {
+            if (summary.getSummaryDate().isAfter(to)) {
+                changeAfterRange = changeAfterRange.plus(summary.getBalanceChange());
+            } else {
+                days.computeIfAbsent(summary.getSummaryDate(), day -> new EnumMap<>(TransactionType.class))
+                        .merge(summary.getTransactionType(), toDto(summary), DailySummaryService::plus);
+            }
+        }
+
+        // Walk backwards from the balance at the end of the range
+        Money closingBalance = account.getBalance().minus(changeAfterRange);
+        Money balance = closingBalance;
+        List<DailySummaryDto> result = new ArrayList<>();
+        Map<TransactionType, TypeSummaryDto> totals = new EnumMap<>(TransactionType.class);
+        for (LocalDate day = to; !day.isBefore(from); day = day.minusDays(1)) {
+            Map<TransactionType, TypeSummaryDto> transactions = days.getOrDefault(day, Map.of());
+            Money change = Money.ZERO;
+            for (Map.Entry<TransactionType, TypeSummaryDto> entry : transactions.entrySet()) {
+                change = change.plus(entry.getValue().getBalanceChange());
+                totals.merge(entry.getKey(), entry.getValue(), DailySummaryService::plus);
+            }
+            Money openingBalance = balance.minus(change);
+            result.add(new DailySummaryDto(day, openingBalance, balance, transactions));
+            balance = openingBalance;
+        }
+        Collections.reverse(result);
+        return new AccountSummaryDto(account.getAccountNr(), from, to, balance, closingBalance, totals, result);
+    }
+
+    private void write(DailySummary sum) {
+        Object[] arguments = {sum.getTransactionCount(), sum.getAmountTotal().minorUnits(), sum.getBalanceChange().minorUnits(),
+                sum.getAccountId(), sum.getSummaryDate(), sum.getTransactionType().name(), sum.getSlot()};
+        if (jdbcTemplate.update(UPDATE, arguments) == 0) {
+            try {
+                jdbcTemplate.update(INSERT, arguments);
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update(UPDATE, arguments); // Inserted concurrently by another update
+            }
+        }
+    }
+
+    private static TypeSummaryDto toDto(DailySummary summary) {
+        return new TypeSummaryDto(summary.getTransactionCount(), summary.getAmountTotal(), summary.getBalanceChange());
+    }
+
+    private static TypeSummaryDto plus(TypeSummaryDto first, TypeSummaryDto second) {
+        return new TypeSummaryDto(first.getCount() + second.getCount(), first.getTotal().plus(second.getTotal()),
+                first.getBalanceChange().plus(second.getBalanceChange()));
+    }
+}
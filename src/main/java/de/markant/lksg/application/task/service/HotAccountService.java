@@ -0,0 +1,164 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.config.EngineProperties;
+import de.markant.lksg.application.task.config.HotAccountProperties;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.BalanceSlot;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import de.markant.lksg.application.task.repository.BalanceSlotRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * The HotAccountService spreads the credits of hot accounts, i.e. accounts receiving a large share of all
+ * deposits and transfers, across several BalanceSlots. A credit adds its amount to a randomly chosen slot
+ * with a single UPDATE statement and neither reads nor locks the account row, so credits to the same
+ * account only wait for each other when they pick the same slot. Debits first move the slots' balances
+ * back into the account row while holding the slots' locks, and reads add the slots to the account's
+ * balance in one statement, so both always see one exact balance.
+ * Slots are created together with a hot account and, for accounts that existed before they were configured
+ * as hot, on startup, so a credit never has to create them. Hot accounts require the STATE ledger mode and
+ * cannot be combined with the BalanceEngine, which keeps balances in memory anyway.
+ */
+@Service
+@Slf4j
+public class HotAccountService {
+
+    private final BalanceSlotRepository balanceSlotRepository;
+
+    private final AccountRepository accountRepository;
+
+    private final HotAccountProperties properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public HotAccountService(BalanceSlotRepository balanceSlotRepository,
+                             AccountRepository accountRepository,
+                             HotAccountProperties properties,
+                             EngineProperties engineProperties,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${banking.ledger.mode:STATE}") LedgerMode ledgerMode) {
+        if (!properties.getAccountNumbers().isEmpty()) {
+            if (ledgerMode != LedgerMode.STATE) {
+                throw new IllegalStateException("Hot accounts require the STATE ledger mode.");
+            }
+            if (engineProperties.isEnabled()) {
+                throw new IllegalStateException("Hot accounts cannot be used together with the balance engine.");
+            }
+            if (properties.getSlots() < 1) {
+                throw new IllegalStateException("Hot accounts need at least one balance slot.");
+            }
+        }
+        this.balanceSlotRepository = balanceSlotRepository;
+        this.accountRepository = accountRepository;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Creates the missing slots of the configured hot accounts that exist already.
+     */
+    @PostConstruct
+    public void start() {
+        for (String accountNumber : properties.getAccountNumbers()) {
+            accountRepository.findAccountByAccountNr(accountNumber).ifPresent(this::createSlots);
+        }
+    }
+
+    /**
+     * @param accountNumber The account number to check.
+     * @return Whether the account's credits are spread across balance slots.
+     */
+    public boolean isHot(String accountNumber) {
+        return properties.getAccountNumbers().contains(accountNumber);
+    }
+
+    /**
+     * Adds an amount to a random slot of a hot account. The slot stays locked until the surrounding transaction ends.
+     * @param account The hot account to credit.
+     * @param amount The amount to add.
+     * @return The account's balance including the credit, as seen by the surrounding transaction.
+     * @throws IllegalStateException If the account's slots were not created.
+     */
+    public Money credit(Account account, Money amount) {
+        int slot = randomSlot(account.getAccountNr());
+        if (balanceSlotRepository.credit(account.getAccountId(), slot, amount.minorUnits()) == 0) {
+            throw new IllegalStateException("Balance slot " + slot + " of account " + account.getAccountNr()
+                    + " is missing; restart the application to create the slots of newly configured hot accounts.");
+        }
+        return totalBalance(account);
+    }
+
+    /**
+     * @param accountNumber The account number.
+     * @return A random slot index for a hot account, 0 for any other account.
+     */
+    public int randomSlot(String accountNumber) {
+        return isHot(accountNumber) ? ThreadLocalRandom.current().nextInt(properties.getSlots()) : 0;
+    }
+
+    /**
+     * @param account The account to read.
+     * @return The account's balance including its slots.
+     */
+    public Money totalBalance(Account account) {
+        return Money.ofMinor(balanceSlotRepository.totalBalance(account.getAccountId()));
+    }
+
+    /**
+     * Empties the slots of an account and locks them until the surrounding transaction ends, so no credit
+     * is added to them before the caller has added their balance to the account.
+     * @param account The account whose slots are emptied.
+     * @return The sum of the slots' balances, which the caller must add to the account's balance.
+     */
+    public Money sweep(Account account) {
+        long total = 0;
+        for (BalanceSlot slot : balanceSlotRepository.lockByAccount(account)) {
+            total = Math.addExact(total, slot.getBalance().minorUnits());
+        }
+        if (total != 0) {
+            balanceSlotRepository.empty(account.getAccountId());
+        }
+        return Money.ofMinor(total);
+    }
+
+    /**
+     * Deletes the slots of an account, e.g. before the account itself is deleted.
+     * @param account The account whose slots are deleted.
+     */
+    public void deleteSlots(Account account) {
+        balanceSlotRepository.deleteByAccount(account);
+    }
+
+    /**
+     * Creates the missing slots of a hot account; does nothing for other accounts.
+     * @param account The account, e.g. right after it was created.
+     */
+    public void createSlots(Account account) {
+        if (!isHot(account.getAccountNr())) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Set<Integer> existing = Set.copyOf(balanceSlotRepository.findSlotIndexes(account));
+                List<BalanceSlot> missing = IntStream.range(0, properties.getSlots())
+                        .filter(slot -> !existing.contains(slot))
+                        .mapToObj(slot -> BalanceSlot.builder().account(account).slot(slot).balance(Money.ZERO).build())
+                        .toList();
+                balanceSlotRepository.saveAll(missing);
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.info("Balance slots of account {} were created concurrently", account.getAccountNr());
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package de.markant.lksg.application.task.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.markant.lksg.application.task.config.IdempotencyProperties;
+import de.markant.lksg.application.task.constants.Constants;
+import de.markant.lksg.application.task.dto.TransactionResponseDto;
+import de.markant.lksg.application.task.exception.IdempotencyKeyException;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.IdempotencyRecord;
+import de.markant.lksg.application.task.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The IdempotencyStore executes a request sent with an Idempotency-Key at most once and answers every
+ * repetition of it with the original response, without running the operation again.
+ * Responses are kept in a bounded in-memory cache that forgets keys after the configured time to live.
+ * A repetition arriving while the first request is still running waits for its outcome. Failed requests
+ * are not remembered, so they can be retried with the same key.
+ * With banking.idempotency.persistent=true the keys are also stored in the database: a key is claimed by
+ * inserting its row before the operation runs, so replays reach every instance and survive restarts.
+ * If an instance dies between the operation and storing its response, the key stays claimed without a
+ * response and is rejected as in progress until it expires, since it is unknown whether the operation ran.
+ * If storing the response fails while the instance keeps running, the response is still returned and the
+ * claim is released instead, so the key is not blocked; only this instance's cache then replays it.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    static final String REPLAYS_METRIC = "banking.idempotency.replays";
+
+    private final IdempotencyProperties properties;
+
+    private final IdempotencyRecordRepository repository;
+
+    private final ObjectMapper objectMapper;
+
+    private final AsyncCache<String, StoredResponse> cache;
+
+    private final Counter replays;
+
+    private ScheduledExecutorService purger;
+
+    public IdempotencyStore(IdempotencyProperties properties,
+                            IdempotencyRecordRepository repository,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        // Futures that complete exceptionally are removed by the cache; running ones never expire
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(Duration.ofSeconds(properties.getTtlSeconds()))
+                .buildAsync();
+        this.replays = meterRegistry.counter(REPLAYS_METRIC);
+    }
+
+    /**
+     * Starts deleting expired keys from the database, if keys are persisted.
+     */
+    @PostConstruct
+    public void start() {
+        if (!properties.isPersistent()) {
+            return;
+        }
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeQuietly, properties.getPurgeIntervalSeconds(),
+                properties.getPurgeIntervalSeconds(), TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (purger != null) {
+            purger.shutdownNow();
+            purger = null;
+        }
+    }
+
+    /**
+     * Executes an operation once per Idempotency-Key.
+     * @param key The Idempotency-Key sent by the client.
+     * @param request The operation and its parameters; a key may only be repeated with the same request.
+     * @param operation The operation producing the response.
+     * @return The response and whether it was replayed.
+     * @throws TransactionException If the key is blank or too long.
+     * @throws IdempotencyKeyException If the key was used for a different request or that request is still running on another instance.
+     */
+    public Result execute(String key, String request, Supplier<TransactionResponseDto> operation) {
+        if (key.isBlank() || key.length() > Constants.MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new TransactionException(Constants.INVALID_IDEMPOTENCY_KEY);
+        }
+
+        CompletableFuture<StoredResponse> claim = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = cache.asMap().putIfAbsent(key, claim);
+        if (existing != null) {
+            return replay(request, await(existing));
+        }
+
+        try {
+            StoredResponse persisted = properties.isPersistent() ? claimPersistent(key, request) : null;
+            if (persisted != null) {
+                claim.complete(persisted);
+                return replay(request, persisted);
+            }
+            StoredResponse stored = new StoredResponse(request, run(key, operation));
+            claim.complete(stored);
+            return new Result(stored.response(), false);
+        } catch (RuntimeException e) {
+            claim.completeExceptionally(e); // Waiting repetitions fail the same way
+            throw e;
+        }
+    }
+
+    /**
+     * Deletes the keys older than the time to live from the database.
+     * @return The number of deleted keys.
+     */
+    public int purge() {
+        return repository.deleteCreatedBefore(LocalDateTime.now().minusSeconds(properties.getTtlSeconds()));
+    }
+
+    private TransactionResponseDto run(String key, Supplier<TransactionResponseDto> operation) {
+        if (!properties.isPersistent()) {
+            return operation.get();
+        }
+        TransactionResponseDto response;
+        try {
+            response = operation.get();
+        } catch (RuntimeException e) {
+            repository.deleteById(key); // Nothing happened, the key may be used again
+            throw e;
+        }
+        try {
+            repository.complete(key, write(response));
+        } catch (RuntimeException e) {
+            // The operation committed, so its response is returned; a claim without response would block the key
+            log.error("Storing the response for idempotency key {} failed, releasing the key", key, e);
+            release(key);
+        }
+        return response;
+    }
+
+    private void release(String key) {
+        try {
+            repository.deleteById(key);
+        } catch (RuntimeException e) {
+            log.error("Releasing idempotency key {} failed, it stays in progress until it expires", key, e);
+        }
+    }
+
+    /**
+     * Claims the key in the database.
+     * @return The stored response if the key was claimed before, or null if this request claimed it.
+     */
+    private StoredResponse claimPersistent(String key, String request) {
+        try {
+            repository.claim(key, request, LocalDateTime.now());
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            IdempotencyRecord record = repository.findById(key)
+                    .orElseThrow(() -> new IdempotencyKeyException(Constants.IDEMPOTENCY_KEY_IN_PROGRESS, HttpStatus.CONFLICT));
+            if (record.getResponse() == null) {
+                if (!record.getRequest().equals(request)) {
+                    throw new IdempotencyKeyException(Constants.IDEMPOTENCY_KEY_REUSED, HttpStatus.UNPROCESSABLE_ENTITY);
+                }
+                throw new IdempotencyKeyException(Constants.IDEMPOTENCY_KEY_IN_PROGRESS, HttpStatus.CONFLICT);
+            }
+            return new StoredResponse(record.getRequest(), read(record.getResponse()));
+        }
+    }
+
+    private Result replay(String request, StoredResponse stored) {
+        if (!stored.request().equals(request)) {
+            throw new IdempotencyKeyException(Constants.IDEMPOTENCY_KEY_REUSED, HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        replays.increment();
+        return new Result(stored.response(), true);
+    }
+
+    private static StoredResponse await(CompletableFuture<StoredResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String write(TransactionResponseDto response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private TransactionResponseDto read(String response) {
+        try {
+            return objectMapper.readValue(response, TransactionResponseDto.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void purgeQuietly() {
+        try {
+            int purged = purge();
+            log.debug("Deleted {} expired idempotency keys", purged);
+        } catch (RuntimeException e) {
+            log.warn("Deleting expired idempotency keys failed", e);
+        }
+    }
+
+    /**
+     * The response to a request together with the request it answered.
+     */
+    private record StoredResponse(String request, TransactionResponseDto response) {
+    }
+
+    /**
+     * The response to return and whether it is the stored response of an earlier request.
+     */
+    public record Result(TransactionResponseDto response, boolean replayed) {
+    }
+}
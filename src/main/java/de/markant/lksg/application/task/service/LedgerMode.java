@@ -0,0 +1,17 @@
+package de.markant.lksg.application.task.service;
+
+/**
+ * Enum representing where the current balance of an account is kept.
+ * The mode is selected with the banking.ledger.mode property.
+ */
+public enum LedgerMode {
+
+    /** The balance column of the account is updated in place; transactions are a history of the changes. */
+    STATE,
+
+    /**
+     * The transaction log is the source of truth: balances are derived from the latest balance snapshot
+     * plus the transactions written after it, and balance updates only append transactions.
+     */
+    EVENT_SOURCED
+}
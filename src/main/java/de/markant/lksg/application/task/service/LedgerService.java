@@ -0,0 +1,208 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.feed.TransactionFeed;
+import de.markant.lksg.application.task.journal.TransactionJournal;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.BalanceSnapshot;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.outbox.TransactionOutbox;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import de.markant.lksg.application.task.repository.BalanceSnapshotRepository;
+import de.markant.lksg.application.task.repository.LedgerTail;
+import de.markant.lksg.application.task.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The LedgerService decides, according to the configured LedgerMode, where balances are read from and
+ * how balance updates are written.
+ * In the STATE mode the account's balance column is the balance and is updated with every change.
+ * In the EVENT_SOURCED mode the transaction log is the source of truth: the balance of an account is its
+ * newest BalanceSnapshot (or, before the first one, the opening balance the account was created with) plus
+ * the balance changes of the transactions written after it. Updates only insert transactions and never
+ * touch the account row, so accounts receiving many updates are not a hot row. While an update holds an
+ * account's lock, a new snapshot is written once snapshot-interval transactions have piled up after the
+ * last one, which keeps balance reads bounded to the snapshot plus a short tail.
+ * The EVENT_SOURCED mode relies on the AccountLockManager to order the appends of an account, so it
+ * requires the LOCKING concurrency mode. As the account row is never updated, the accounts it hands out
+ * carry the id of the account's newest transaction as their version, which orders them in the AccountCache.
+ * In the STATE mode the transactions can be inserted after the update committed by the AsyncLedgerWriter,
+ * and the balance of a hot account also includes its balance slots, see HotAccountService.
+ * In every mode the transactions are added to the DailySummaryService and the TransactionOutbox in the update's
+ * transaction and published to the TransactionFeed once it committed.
+ */
+@Service
+public class LedgerService {
+
+    private final AccountRepository accountRepository;
+
+    private final TransactionRepository transactionRepository;
+
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionJournal transactionJournal;
+
+    private final AsyncLedgerWriter ledgerWriter;
+
+    private final HotAccountService hotAccountService;
+
+    private final DailySummaryService dailySummaryService;
+
+    private final TransactionFeed transactionFeed;
+
+    private final TransactionOutbox transactionOutbox;
+
+    private final LedgerMode ledgerMode;
+
+    private final int snapshotInterval;
+
+    public LedgerService(AccountRepository accountRepository,
+                         TransactionRepository transactionRepository,
+                         BalanceSnapshotRepository balanceSnapshotRepository,
+                         EntityManager entityManager,
+                         TransactionJournal transactionJournal,
+                         AsyncLedgerWriter ledgerWriter,
+                         HotAccountService hotAccountService,
+                         DailySummaryService dailySummaryService,
+                         TransactionFeed transactionFeed,
+                         TransactionOutbox transactionOutbox,
+                         @Value("${banking.ledger.mode:STATE}") LedgerMode ledgerMode,
+                         @Value("${banking.ledger.snapshot-interval:100}") int snapshotInterval,
+                         @Value("${banking.concurrency.mode:LOCKING}") ConcurrencyMode concurrencyMode) {
+        if (ledgerMode == LedgerMode.EVENT_SOURCED && concurrencyMode != ConcurrencyMode.LOCKING) {
+            throw new IllegalStateException("The EVENT_SOURCED ledger mode requires the LOCKING concurrency mode.");
+        }
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.entityManager = entityManager;
+        this.transactionJournal = transactionJournal;
+        this.ledgerWriter = ledgerWriter;
+        this.hotAccountService = hotAccountService;
+        this.dailySummaryService = dailySummaryService;
+        this.transactionFeed = transactionFeed;
+        this.transactionOutbox = transactionOutbox;
+        this.ledgerMode = ledgerMode;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Prepares an account read for display.
+     * @param account The account as read from the database.
+     * @return The account itself, or a copy carrying the derived balance and newest transaction id in
+     *         EVENT_SOURCED mode or the balance including the balance slots for hot accounts.
+     */
+    public Account forRead(Account account) {
+        if (ledgerMode == LedgerMode.STATE && !hotAccountService.isHot(account.getAccountNr())) {
+            return account;
+        }
+        Account copy = new Account(account.getAccountNr(), account.getBalance());
+        copy.setAccountId(account.getAccountId());
+        copy.setVersion(account.getVersion());
+        if (ledgerMode == LedgerMode.STATE) {
+            copy.setBalance(hotAccountService.totalBalance(account));
+        } else {
+            currentState(account, false).applyTo(copy);
+        }
+        return copy;
+    }
+
+    /**
+     * Prepares an account read inside a balance update, while its lock is held.
+     * In EVENT_SOURCED mode the account is detached, so that changing its balance never updates the
+     * account row, and its balance and version are set to the derived ones; a snapshot is written if it is due.
+     * The balance slots of a hot account are moved into its balance and stay locked until the update ends.
+     * @param account The account as read in the update's transaction.
+     * @return The account whose balance the update may change.
+     */
+    public Account forUpdate(Account account) {
+        if (ledgerMode == LedgerMode.STATE) {
+            if (hotAccountService.isHot(account.getAccountNr())) {
+                account.setBalance(account.getBalance().plus(hotAccountService.sweep(account)));
+            }
+            return account;
+        }
+        entityManager.detach(account);
+        currentState(account, true).applyTo(account);
+        return account;
+    }
+
+    /**
+     * Writes the result of a balance update; the transactions are journaled and published once the update commits.
+     * With the asynchronous ledger writer the transactions get their ids now but are inserted after the commit.
+     * In EVENT_SOURCED mode the version of each account becomes the id of its newest transaction.
+     * @param accounts The accounts whose balance changed, as returned by forUpdate.
+     * @param transactions The transactions describing the changes.
+     */
+    public void record(Collection<Account> accounts, List<Transaction> transactions) {
+        if (ledgerMode == LedgerMode.STATE) {
+            accountRepository.saveAll(accounts);
+        }
+        if (ledgerWriter.isAsync()) {
+            ledgerWriter.writeAfterCommit(transactions);
+        } else {
+            transactionRepository.saveAll(transactions);
+        }
+        if (ledgerMode == LedgerMode.EVENT_SOURCED) {
+            for (Transaction transaction : transactions) {
+                Account account = transaction.getAccount();
+                account.setVersion(Math.max(account.getVersion(), transaction.getTransactionId()));
+            }
+        }
+        dailySummaryService.add(transactions);
+        transactionOutbox.add(transactions);
+        transactionJournal.appendAfterCommit(transactions);
+        transactionFeed.publishAfterCommit(transactions);
+    }
+
+    /**
+     * Deletes the ledger data that is not removed together with an account, after waiting for the
+     * account's queued transactions to be inserted.
+     * @param account The account about to be deleted.
+     */
+    public void deleteSnapshots(Account account) {
+        ledgerWriter.flush();
+        hotAccountService.deleteSlots(account); // Also when the account is no longer configured as hot
+        dailySummaryService.delete(account);
+        if (ledgerMode == LedgerMode.EVENT_SOURCED) {
+            balanceSnapshotRepository.deleteByAccount(account);
+        }
+    }
+
+    private LedgerState currentState(Account account, boolean snapshotIfDue) {
+        Optional<BalanceSnapshot> snapshot = balanceSnapshotRepository.findFirstByAccountOrderByLastTransactionIdDesc(account);
+        Money snapshotBalance = snapshot.map(BalanceSnapshot::getBalance).orElse(account.getBalance());
+        LedgerTail tail = transactionRepository.summarizeAfter(account, snapshot.map(BalanceSnapshot::getLastTransactionId).orElse(0L));
+
+        Money balance = snapshotBalance.plus(Money.ofMinor(tail.getBalanceChange()));
+        if (snapshotIfDue && tail.getTransactions() >= snapshotInterval) {
+            balanceSnapshotRepository.save(BalanceSnapshot.builder()
+                    .account(account)
+                    .balance(balance)
+                    .lastTransactionId(tail.getLastTransactionId())
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        return new LedgerState(balance, tail.getLastTransactionId());
+    }
+
+    /**
+     * The derived balance of an account and the id of its newest transaction, which serves as its version.
+     */
+    private record LedgerState(Money balance, Long lastTransactionId) {
+
+        void applyTo(Account account) {
+            account.setBalance(balance);
+            account.setVersion(lastTransactionId);
+        }
+    }
+}
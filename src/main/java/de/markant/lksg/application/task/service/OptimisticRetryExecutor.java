@@ -0,0 +1,76 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.config.OptimisticRetryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * The OptimisticRetryExecutor runs a balance update and repeats it when it fails because the
+ * account's version changed concurrently. Retries wait for a randomized, exponentially growing
+ * backoff so that competing requests spread out instead of colliding again.
+ * Attempts, conflicts and exhausted retries are counted per operation so the conflict rate
+ * (conflicts / attempts) can be monitored.
+ */
+@Component
+public class OptimisticRetryExecutor {
+
+    static final String ATTEMPTS_METRIC = "banking.optimistic.attempts";
+    static final String CONFLICTS_METRIC = "banking.optimistic.conflicts";
+    static final String EXHAUSTED_METRIC = "banking.optimistic.exhausted";
+
+    @Autowired
+    private OptimisticRetryProperties retryProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Runs an action, retrying it on optimistic locking conflicts.
+     * The action must start and commit its own transaction so every attempt sees fresh data.
+     * @param operation The operation name used for the retry policy and the metric tags.
+     * @param action The action to run.
+     * @return The result of the first successful attempt.
+     * @throws OptimisticLockingFailureException If every attempt ran into a conflict.
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        OptimisticRetryProperties.Policy policy = retryProperties.forOperation(operation);
+        Counter attempts = meterRegistry.counter(ATTEMPTS_METRIC, "operation", operation);
+        Counter conflicts = meterRegistry.counter(CONFLICTS_METRIC, "operation", operation);
+
+        for (int attempt = 1; ; attempt++) {
+            attempts.increment();
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                conflicts.increment();
+                if (attempt >= policy.getMaxAttempts()) {
+                    meterRegistry.counter(EXHAUSTED_METRIC, "operation", operation).increment();
+                    throw e instanceof OptimisticLockingFailureException springException
+                            ? springException
+                            : new OptimisticLockingFailureException(e.getMessage(), e);
+                }
+                backOff(policy, attempt);
+            }
+        }
+    }
+
+    private void backOff(OptimisticRetryProperties.Policy policy, int attempt) {
+        long ceiling = Math.min(policy.getMaxBackoffMs(), policy.getInitialBackoffMs() << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1)); // Full jitter
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticLockingFailureException("Interrupted while waiting to retry after a conflict");
+        }
+    }
+}
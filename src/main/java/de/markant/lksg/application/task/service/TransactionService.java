@@ -1,11 +1,36 @@
 package de.markant.lksg.application.task.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.markant.lksg.application.task.constants.Constants;
+import de.markant.lksg.application.task.dto.ExportFormat;
+import de.markant.lksg.application.task.dto.TransactionPageDto;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.Account;
 import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
 import de.markant.lksg.application.task.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * The TransactionService handles transaction operations like fetching all transactions
@@ -15,9 +40,21 @@ import java.util.List;
 @Service
 public class TransactionService {
 
+    private static final String CURSOR_SEPARATOR = "|";
+
+    private static final String MYSQL = "MySQL";
+
     @Autowired
     private TransactionRepository transactionRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean mySql;
+
     /**
      * Retrieves all transactions.
      * @return List of all Transaction entities.
@@ -35,4 +72,151 @@ public class TransactionService {
     public List<Transaction> getTransactionsByAccountNr(String accountNumber){
         return transactionRepository.findByAccount_AccountNr(accountNumber);
     }
+
+    /**
+     * Fetches one page of an account's transactions, newest first.
+     * One row more than the page size is read to find out whether another page follows.
+     * @param account The account for which to fetch transactions.
+     * @param cursor The cursor returned with the previous page, or null for the first page.
+     * @param size The maximum number of transactions in the page.
+     * @param from Inclusive lower bound of the time range, or null.
+     * @param to Exclusive upper bound of the time range, or null.
+     * @param type Only return transactions of this type, or null for all types.
+     * @return The requested page together with the cursor for the next one.
+     * @throws TransactionException If the page size or the cursor is invalid.
+     */
+    public TransactionPageDto getTransactionPage(Account account, String cursor, int size,
+                                                 LocalDateTime from, LocalDateTime to, TransactionType type) {
+        if (size < 1 || size > Constants.MAX_PAGE_SIZE) {
+            throw new TransactionException(Constants.INVALID_PAGE_SIZE);
+        }
+
+        CursorPosition position = (cursor == null || cursor.isBlank()) ? CursorPosition.START : decodeCursor(cursor);
+
+        List<Transaction> rows = transactionRepository.findPageByAccount(
+                account, type, from, to, position.timeStamp(), position.transactionId(), Limit.of(size + 1));
+
+        boolean hasMore = rows.size() > size;
+        List<Transaction> page = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
+
+        return new TransactionPageDto(page, nextCursor, hasMore);
+    }
+
+    /**
+     * Writes the full transaction history of an account to the given stream, oldest first.
+     * Rows are streamed from the database and detached once written, so memory use stays
+     * constant regardless of the length of the history. CSV fields are quoted as described in RFC 4180.
+     * @param account The account whose transactions are exported.
+     * @param format The output format.
+     * @param outputStream The stream to write to; it is flushed but not closed.
+     * @throws IOException If writing to the stream fails.
+     */
+    @Transactional(readOnly = true)
+    public void exportTransactions(Account account, ExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        if (format == ExportFormat.CSV) {
+            writer.write(Constants.CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<Transaction> transactions = isMySql()
+                ? transactionRepository.streamByAccountRowByRow(account)
+                : transactionRepository.streamByAccount(account)) {
+            transactions.forEach(transaction -> {
+                try {
+                    if (format == ExportFormat.CSV) {
+                        writer.write(toCsvLine(transaction));
+                    } else {
+                        jsonWriter.writeValue(writer, transaction);
+                    }
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                entityManager.detach(transaction); // Keep the persistence context from growing with the export
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Finds out once whether the database is MySQL, whose driver only streams a result with a special fetch size.
+     * @return True if the transactions are stored in MySQL.
+     */
+    private boolean isMySql() {
+        Boolean result = mySql;
+        if (result == null) {
+            String product = entityManager.unwrap(Session.class)
+                    .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+            result = MYSQL.equalsIgnoreCase(product);
+            mySql = result;
+        }
+        return result;
+    }
+
+    private static String toCsvLine(Transaction transaction) {
+        return String.join(",",
+                csvField(transaction.getTransactionId()),
+                csvField(transaction.getTransactionType()),
+                csvField(transaction.getTimeStamp()),
+                csvField(transaction.getOldBalance()),
+                csvField(transaction.getNewBalance()),
+                csvField(transaction.getTransactionAmount()),
+                csvField(transaction.getTargetAccountNr()));
+    }
+
+    /**
+     * Formats a CSV field: a value containing a comma, a quote or a line break is enclosed in quotes
+     * and its quotes are doubled; null becomes an empty field.
+     */
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Encodes the keyset position of a transaction as an opaque, URL safe cursor. The time stamp part is
+     * empty for legacy transactions without one.
+     * @param transaction The last transaction of a page.
+     * @return The encoded cursor.
+     */
+    static String encodeCursor(Transaction transaction) {
+        String timeStamp = transaction.getTimeStamp() == null ? "" : transaction.getTimeStamp().toString();
+        String position = timeStamp + CURSOR_SEPARATOR + transaction.getTransactionId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CursorPosition decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.indexOf(CURSOR_SEPARATOR);
+            if (separator < 0) {
+                throw new TransactionException(Constants.INVALID_CURSOR);
+            }
+            String timeStamp = position.substring(0, separator);
+            return new CursorPosition(timeStamp.isEmpty() ? null : LocalDateTime.parse(timeStamp),
+                    Long.valueOf(position.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new TransactionException(Constants.INVALID_CURSOR);
+        }
+    }
+
+    /**
+     * Keyset position of the last transaction of a page. Both values are null for the first page, and only
+     * the time stamp is null after a transaction without one.
+     */
+    private record CursorPosition(LocalDateTime timeStamp, Long transactionId) {
+        private static final CursorPosition START = new CursorPosition(null, null);
+    }
 }
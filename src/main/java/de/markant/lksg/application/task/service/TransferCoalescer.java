@@ -0,0 +1,298 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.config.TransferCoalescingProperties;
+import de.markant.lksg.application.task.exception.ResourceNotFoundException;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The TransferCoalescer applies concurrent transfers in batches instead of one transaction per transfer.
+ * Transfers wait in a bounded queue; a background thread takes the first one, collects the transfers
+ * arriving within max-wait-ms (at most max-batch-size) and applies them in request order in a single
+ * transaction, which reads all involved accounts with one query and writes each modified account once.
+ * Every caller waits for its own transfer only and receives its own result or error, exactly as if its
+ * transfer had been applied alone; a rejected transfer does not affect the others of its batch. If the batch
+ * fails as a whole, e.g. because an account is busy, its transfers are applied again one by one.
+ * Transfers from or to the same busy account therefore share one lock acquisition and one account update.
+ */
+@Component
+@Slf4j
+public class TransferCoalescer {
+
+    static final String BATCH_SIZE_METRIC = "banking.transfer.coalescing.batch.size";
+
+    private static final String NOT_APPLIED = "The transfer was not applied, please try again.";
+
+    private final TransferCoalescingProperties properties;
+
+    private final AccountRepository accountRepository;
+
+    private final AccountUpdateExecutor accountUpdateExecutor;
+
+    private final LedgerService ledgerService;
+
+    private final BlockingQueue<PendingTransfer> queue;
+
+    private final DistributionSummary batchSize;
+
+    private volatile boolean running;
+
+    private Thread dispatcher;
+
+    public TransferCoalescer(TransferCoalescingProperties properties,
+                             AccountRepository accountRepository,
+                             AccountUpdateExecutor accountUpdateExecutor,
+                             LedgerService ledgerService,
+                             MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.accountRepository = accountRepository;
+        this.accountUpdateExecutor = accountUpdateExecutor;
+        this.ledgerService = ledgerService;
+        this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+        this.batchSize = DistributionSummary.builder(BATCH_SIZE_METRIC)
+                .description("Transfers applied per transaction by the transfer coalescer")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        running = true;
+        dispatcher = new Thread(this::run, "transfer-coalescer");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Applies the waiting transfers and stops the dispatcher.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (dispatcher == null) {
+            return;
+        }
+        running = false;
+        dispatcher.join(properties.getShutdownTimeoutMs());
+        if (dispatcher.isAlive()) {
+            log.error("Transfer coalescer stopped with {} transfers not applied", queue.size());
+            dispatcher.interrupt();
+        }
+        List<PendingTransfer> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(pending -> pending.result().completeExceptionally(new TransactionException(NOT_APPLIED)));
+        dispatcher = null;
+    }
+
+    /**
+     * Queues a transfer for the next batch and waits until the batch committed.
+     * @param sourceAccountNumber The account number from which to transfer the amount.
+     * @param targetAccountNumber The account number to which the amount is to be transferred.
+     * @param transferAmount The amount to be transferred.
+     * @return The ledger entries of the source and the target account, in this order.
+     * @throws ResourceNotFoundException If one of the accounts is not found.
+     * @throws TransactionException If the transfer is invalid or too many transfers are waiting.
+     */
+    public List<Transaction> transfer(String sourceAccountNumber, String targetAccountNumber, Money transferAmount) {
+        PendingTransfer pending = new PendingTransfer(sourceAccountNumber, targetAccountNumber, transferAmount, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            throw new TransactionException("Too many transfers are waiting, please try again.");
+        }
+        try {
+            return pending.result().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void run() {
+        List<PendingTransfer> batch = new ArrayList<>(properties.getMaxBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTransfer first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getMaxWaitMs());
+                while (batch.size() < properties.getMaxBatchSize()) {
+                    if (queue.drainTo(batch, properties.getMaxBatchSize() - batch.size()) > 0) {
+                        continue;
+                    }
+                    PendingTransfer next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                batchSize.record(batch.size());
+                applyBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pending -> pending.result().completeExceptionally(new TransactionException(NOT_APPLIED)));
+                return;
+            } catch (RuntimeException e) {
+                // Transfers still waiting fail with it, so no caller waits forever
+                log.error("Transfer coalescer failed to apply a batch of {} transfers", batch.size(), e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Applies a batch. If it fails as a whole, e.g. because of a busy account, exhausted optimistic retries or
+     * a transfer failing unexpectedly, each transfer is applied in its own transaction, so only the callers whose
+     * transfer fails on its own receive the error.
+     */
+    private void applyBatch(List<PendingTransfer> batch) {
+        try {
+            apply(batch);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            log.warn("Transfer coalescer failed to apply a batch of {} transfers, applying them one by one: {}",
+                    batch.size(), e.toString());
+            for (PendingTransfer pending : batch) {
+                try {
+                    apply(List.of(pending));
+                } catch (RuntimeException transferFailure) {
+                    pending.result().completeExceptionally(transferFailure);
+                }
+            }
+        }
+    }
+
+    private void apply(List<PendingTransfer> batch) {
+        Set<String> accountNumbers = new HashSet<>();
+        for (PendingTransfer pending : batch) {
+            accountNumbers.add(pending.sourceAccountNumber());
+            accountNumbers.add(pending.targetAccountNumber());
+        }
+
+        List<Outcome> outcomes = accountUpdateExecutor.execute("transfer", accountNumbers, () -> {
+            Map<String, Account> accounts = new HashMap<>();
+            for (Account account : accountRepository.findByAccountNrIn(accountNumbers)) {
+                accounts.put(account.getAccountNr(), ledgerService.forUpdate(account));
+            }
+
+            LocalDateTime timeStamp = LocalDateTime.now();
+            List<Transaction> ledger = new ArrayList<>(batch.size() * 2);
+            List<Outcome> results = new ArrayList<>(batch.size());
+            for (PendingTransfer pending : batch) {
+                try {
+                    List<Transaction> transactions = apply(pending, accounts, timeStamp);
+                    ledger.addAll(transactions);
+                    results.add(new Outcome(transactions, null));
+                } catch (ResourceNotFoundException | TransactionException e) {
+                    results.add(new Outcome(null, e));
+                }
+            }
+
+            // Modified accounts are written once each when the transaction commits
+            ledgerService.record(accounts.values(), ledger);
+            return results;
+        });
+
+        for (int i = 0; i < batch.size(); i++) {
+            Outcome outcome = outcomes.get(i);
+            if (outcome.failure() != null) {
+                batch.get(i).result().completeExceptionally(outcome.failure());
+            } else {
+                batch.get(i).result().complete(outcome.transactions());
+            }
+        }
+    }
+
+    /**
+     * Applies one transfer to the in-memory balances, with the same checks and messages as AccountService.transfer.
+     */
+    private static List<Transaction> apply(PendingTransfer pending, Map<String, Account> accounts, LocalDateTime timeStamp) {
+        Account sourceAccount = find(accounts, pending.sourceAccountNumber());
+        Account targetAccount = find(accounts, pending.targetAccountNumber());
+        Money transferAmount = pending.transferAmount();
+        if (transferAmount.isGreaterThan(sourceAccount.getBalance())) {
+            throw new TransactionException("Insufficient balance for transfer!");
+        }
+        if (transferAmount.signum() <= 0) {
+            throw new TransactionException("Invalid transfer amount.");
+        }
+
+        Money sourceOldBalance = sourceAccount.getBalance();
+        sourceAccount.setBalance(sourceOldBalance.minus(transferAmount));
+        Money targetOldBalance = targetAccount.getBalance();
+        targetAccount.setBalance(targetOldBalance.plus(transferAmount));
+
+        return List.of(
+                Transaction.transactionBuilder()
+                        .account(sourceAccount)
+                        .transactionType(TransactionType.TRANSFER)
+                        .oldBalance(sourceOldBalance)
+                        .newBalance(sourceAccount.getBalance())
+                        .transactionAmount(transferAmount)
+                        .targetAccountNr(targetAccount.getAccountNr())
+                        .timeStamp(timeStamp)
+                        .build(),
+                Transaction.transactionBuilder()
+                        .account(targetAccount)
+                        .transactionType(TransactionType.TRANSFER)
+                        .oldBalance(targetOldBalance)
+                        .newBalance(targetAccount.getBalance())
+                        .transactionAmount(transferAmount)
+                        .targetAccountNr(sourceAccount.getAccountNr())
+                        .timeStamp(timeStamp)
+                        .build());
+    }
+
+    private static Account find(Map<String, Account> accounts, String accountNumber) {
+        Account account = accounts.get(accountNumber);
+        if (account == null) {
+            throw new ResourceNotFoundException("Account number " + accountNumber + " not found!");
+        }
+        return account;
+    }
+
+    /**
+     * A transfer waiting for its batch, and the future its caller waits on.
+     */
+    private record PendingTransfer(String sourceAccountNumber, String targetAccountNumber, Money transferAmount,
+                                   CompletableFuture<List<Transaction>> result) {
+    }
+
+    /**
+     * The ledger entries of an applied transfer, or the reason it was rejected.
+     */
+    private record Outcome(List<Transaction> transactions, RuntimeException failure) {
+    }
+}
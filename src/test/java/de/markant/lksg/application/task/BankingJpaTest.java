@@ -0,0 +1,60 @@
+package de.markant.lksg.application.task;
+
+import de.markant.lksg.application.task.config.EngineProperties;
+import de.markant.lksg.application.task.config.FeedProperties;
+import de.markant.lksg.application.task.config.HotAccountProperties;
+import de.markant.lksg.application.task.config.JournalProperties;
+import de.markant.lksg.application.task.config.LedgerWriterProperties;
+import de.markant.lksg.application.task.config.OptimisticRetryProperties;
+import de.markant.lksg.application.task.config.OutboxProperties;
+import de.markant.lksg.application.task.config.SummaryProperties;
+import de.markant.lksg.application.task.config.TransferCoalescingProperties;
+import de.markant.lksg.application.task.engine.BalanceEngine;
+import de.markant.lksg.application.task.feed.TransactionFeed;
+import de.markant.lksg.application.task.journal.TransactionJournal;
+import de.markant.lksg.application.task.outbox.TransactionOutbox;
+import de.markant.lksg.application.task.service.AccountCache;
+import de.markant.lksg.application.task.service.AccountLockManager;
+import de.markant.lksg.application.task.service.AccountService;
+import de.markant.lksg.application.task.service.AccountUpdateExecutor;
+import de.markant.lksg.application.task.service.AsyncLedgerWriter;
+import de.markant.lksg.application.task.service.BankingMetrics;
+import de.markant.lksg.application.task.service.BulkTransferService;
+import de.markant.lksg.application.task.service.DailySummaryService;
+import de.markant.lksg.application.task.service.HotAccountService;
+import de.markant.lksg.application.task.service.LedgerService;
+import de.markant.lksg.application.task.service.OptimisticRetryExecutor;
+import de.markant.lksg.application.task.service.TransactionService;
+import de.markant.lksg.application.task.service.TransferCoalescer;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * JPA slice test with the banking services wired the way the application wires them. New services and their
+ * properties are added here once instead of in every test class; a test that needs a further bean imports it itself.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@DataJpaTest
+@Import({AccountService.class, TransactionService.class, BulkTransferService.class, AccountLockManager.class, AccountUpdateExecutor.class,
+        AccountCache.class, BankingMetrics.class, LedgerService.class,
+        OptimisticRetryExecutor.class, OptimisticRetryProperties.class,
+        BalanceEngine.class, EngineProperties.class, TransactionJournal.class, JournalProperties.class,
+        AsyncLedgerWriter.class, LedgerWriterProperties.class,
+        HotAccountService.class, HotAccountProperties.class, TransferCoalescer.class, TransferCoalescingProperties.class,
+        DailySummaryService.class, SummaryProperties.class, TransactionFeed.class, FeedProperties.class,
+        TransactionOutbox.class, OutboxProperties.class})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class})
+public @interface BankingJpaTest {
+}
@@ -2,6 +2,7 @@ package de.markant.lksg.application.task.controller;
 
 import de.markant.lksg.application.task.dto.AccountDto;
 import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
 import de.markant.lksg.application.task.repository.AccountRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -38,7 +39,7 @@ class AccountControllerIntegrationTest {
 
     @Test
     void testCreateAccountIntegration() throws Exception {
-        AccountDto accountDto = new AccountDto("12345", 1000.0);
+        AccountDto accountDto = new AccountDto("12345", Money.of(1000.0));
 
         MvcResult result = mockMvc.perform(post("/accounts")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -51,12 +52,12 @@ class AccountControllerIntegrationTest {
         // Optionally verify repository state
         Optional<Account> accountOpt = accountRepository.findAccountByAccountNr("12345");
         assertEquals(true, accountOpt.isPresent());
-        assertEquals(1000.0, accountOpt.get().getBalance());
+        assertEquals(Money.of(1000.0), accountOpt.get().getBalance());
     }
 
     @Test
     void testDepositIntegration() throws Exception {
-        Account account = new Account("12345", 1000.0);
+        Account account = new Account("12345", Money.of(1000.0));
         accountRepository.save(account);
 
         mockMvc.perform(post("/accounts/12345/deposit")
@@ -68,12 +69,12 @@ class AccountControllerIntegrationTest {
 
         // Optionally verify repository state
         Account updatedAccount = accountRepository.findAccountByAccountNr("12345").orElse(null);
-        assertEquals(1500.0, updatedAccount.getBalance());
+        assertEquals(Money.of(1500.0), updatedAccount.getBalance());
     }
 
     @Test
     void testDeleteAccountIntegration() throws Exception {
-        Account account = new Account("12345", 1000.0);
+        Account account = new Account("12345", Money.of(1000.0));
         accountRepository.save(account);
 
         mockMvc.perform(delete("/accounts/12345"))
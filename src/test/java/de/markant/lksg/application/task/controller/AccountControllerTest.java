@@ -1,23 +1,31 @@
 package de.markant.lksg.application.task.controller;
 
 import de.markant.lksg.application.task.dto.AccountDto;
+import de.markant.lksg.application.task.dto.AccountPageDto;
+import de.markant.lksg.application.task.dto.BulkTransferReportDto;
+import de.markant.lksg.application.task.dto.BulkTransferResultDto;
+import de.markant.lksg.application.task.dto.TransactionPageDto;
+import de.markant.lksg.application.task.dto.TransactionResponseDto;
+import de.markant.lksg.application.task.dto.TransactionResultDto;
 import de.markant.lksg.application.task.dto.TransferDto;
 import de.markant.lksg.application.task.exception.ResourceNotFoundException;
 import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
 import de.markant.lksg.application.task.model.Transaction;
 import de.markant.lksg.application.task.service.AccountService;
+import de.markant.lksg.application.task.service.BulkTransferService;
+import de.markant.lksg.application.task.service.IdempotencyStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -31,6 +39,12 @@ class AccountControllerTest {
     @Mock
     private AccountService accountService;
 
+    @Mock
+    private BulkTransferService bulkTransferService;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -38,22 +52,21 @@ class AccountControllerTest {
 
     @Test
     void testGetAllAccounts() {
-        Account account = new Account();
-        account.setAccountNr("12345");
-        account.setBalance(1000.0);
+        AccountPageDto page = new AccountPageDto(List.of(new AccountDto("12345", Money.of(1000.0))), 0, 50, false);
 
-        when(accountService.getAllAccounts()).thenReturn(Arrays.asList(account));
+        when(accountService.getAccountPage(0, 50, "accountNr", Sort.Direction.ASC)).thenReturn(page);
 
-        List<Account> accounts = accountController.getAllAccounts();
-        assertEquals(1, accounts.size());
-        assertEquals("12345", accounts.get(0).getAccountNr());
+        ResponseEntity<AccountPageDto> response = accountController.getAllAccounts(0, 50, "accountNr", Sort.Direction.ASC);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().getAccounts().size());
+        assertEquals("12345", response.getBody().getAccounts().get(0).getAccountNr());
     }
 
     @Test
     void testGetAccountByNumberFound() {
         Account account = new Account();
         account.setAccountNr("12345");
-        account.setBalance(1000.0);
+        account.setBalance(Money.of(1000.0));
 
         when(accountService.findAccountByNr("12345")).thenReturn(account);
 
@@ -66,12 +79,12 @@ class AccountControllerTest {
 
     @Test
     void testCreateAccount() {
-        AccountDto accountDto = new AccountDto("12345", 1000.0);
+        AccountDto accountDto = new AccountDto("12345", Money.of(1000.0));
         Account account = new Account();
         account.setAccountNr("12345");
-        account.setBalance(1000.0);
+        account.setBalance(Money.of(1000.0));
 
-        when(accountService.createAccount(any(String.class), any(Double.class))).thenReturn(account);
+        when(accountService.createAccount(any(String.class), any(Money.class))).thenReturn(account);
 
         ResponseEntity<Account> response = accountController.createAccount(accountDto);
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -81,72 +94,104 @@ class AccountControllerTest {
     @Test
     void testDeposit() {
         String accountNumber = "12345";
-        double amount = 1000.0;
+        Money amount = Money.of(1000.0);
 
-        // Mocking the findAccountByNr method
-        when(accountService.findAccountByNr(accountNumber)).thenReturn(new Account(accountNumber, 1000.0));
-
-        doNothing().when(accountService).deposit(any(), any());
+        // Mocking the deposit method
+        when(accountService.deposit(accountNumber, amount)).thenReturn(TransactionResultDto.builder()
+                .transactionId(1L).accountNumber(accountNumber).newBalance(Money.of(2000.0)).amount(amount).build());
 
         // Calling the deposit method in the controller
-        ResponseEntity<Map<String, Object>> response = accountController.deposit(accountNumber, amount);
+        ResponseEntity<TransactionResponseDto> response = accountController.deposit(accountNumber, amount, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertTrue(response.getBody().containsKey("message"));
+        assertEquals("Amount 1000.00 deposited successfully!", response.getBody().getMessage());
+        assertEquals(Money.of(2000.0), response.getBody().getNewBalance());
+        verify(accountService, never()).findAccountByNr(any());
+    }
+
+
+    @Test
+    void testDepositReplayedForIdempotencyKey() {
+        TransactionResponseDto original = TransactionResponseDto.builder().transactionId(1L).newBalance(Money.of(2000.0)).build();
+        when(idempotencyStore.execute(eq("key-1"), eq("deposit 12345 1000.00"), any())).thenReturn(new IdempotencyStore.Result(original, true));
+
+        ResponseEntity<TransactionResponseDto> response = accountController.deposit("12345", Money.of(1000.0), "key-1");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(original, response.getBody());
+        assertEquals("true", response.getHeaders().getFirst("Idempotent-Replayed"));
+        verifyNoInteractions(accountService);
     }
 
 
     @Test
     void testWithdraw() {
         String accountNumber = "12345";
-        double amount = 500.0;
-
-        // Mock the account retrieval
-        Account account = new Account(accountNumber, 1000.0);
-        when(accountService.findAccountByNr(accountNumber)).thenReturn(account);
+        Money amount = Money.of(500.0);
 
-        doNothing().when(accountService).withdraw(accountNumber, amount);
+        when(accountService.withdraw(accountNumber, amount)).thenReturn(TransactionResultDto.builder()
+                .transactionId(1L).accountNumber(accountNumber).newBalance(Money.of(500.0)).amount(amount).build());
 
-        ResponseEntity<Map<String, Object>> response = accountController.withdraw(accountNumber, amount);
+        ResponseEntity<TransactionResponseDto> response = accountController.withdraw(accountNumber, amount, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertTrue(response.getBody().containsKey("message"));
+        assertNotNull(response.getBody().getMessage());
+        assertEquals(Money.of(500.0), response.getBody().getNewBalance());
     }
 
 
     @Test
     void testTransfer() {
-        TransferDto transferDto = new TransferDto("12345", "67890", 500.0);
+        TransferDto transferDto = new TransferDto("12345", "67890", Money.of(500.0));
 
-        doNothing().when(accountService).transfer(any(), any(), any());
+        when(accountService.transfer(any(), any(), any())).thenReturn(TransactionResultDto.builder()
+                .transactionId(1L).accountNumber("12345").newBalance(Money.of(500.0))
+                .targetAccountNumber("67890").targetNewBalance(Money.of(1500.0)).amount(Money.of(500.0)).build());
 
         // Calling the transfer method in the controller
-        ResponseEntity<Map<String, Object>> response = accountController.transfer(transferDto);
+        ResponseEntity<TransactionResponseDto> response = accountController.transfer(transferDto, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertTrue(response.getBody().containsKey("message"));
+        assertNotNull(response.getBody().getMessage());
+        assertEquals(Money.of(500.0), response.getBody().getSourceNewBalance());
+        assertEquals(Money.of(1500.0), response.getBody().getTargetNewBalance());
     }
 
     @Test
     void testTransferInvalidAmount() {
-        TransferDto transferDto = new TransferDto("12345", "67890", -500.0);
+        TransferDto transferDto = new TransferDto("12345", "67890", Money.of(-500.0));
 
         // Mocking the transfer service to throw exception for invalid amount
         doThrow(new IllegalArgumentException("Invalid transfer amount"))
-                .when(accountService).transfer(anyString(), anyString(), eq(-500.0));
+                .when(accountService).transfer(anyString(), anyString(), eq(Money.of(-500.0)));
 
-        ResponseEntity<Map<String, Object>> response = accountController.transfer(transferDto);
+        ResponseEntity<TransactionResponseDto> response = accountController.transfer(transferDto, null);
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     }
 
+    @Test
+    void testBulkTransfer() {
+        List<TransferDto> transfers = List.of(new TransferDto("12345", "67890", Money.of(500.0)));
+        BulkTransferReportDto report = new BulkTransferReportDto(1, 1, 0, List.of(new BulkTransferResultDto(0, true, null)));
+
+        when(bulkTransferService.transferAll(transfers)).thenReturn(report);
+
+        ResponseEntity<BulkTransferReportDto> response = accountController.bulkTransfer(transfers);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(report, response.getBody());
+    }
+
     @Test
     void testGetTransactionsForAccount() {
         String accountNumber = "12345";
-        when(accountService.getTransactionsForAccount(accountNumber)).thenReturn(Collections.emptyList());
+        TransactionPageDto page = new TransactionPageDto(Collections.singletonList(new Transaction()), "next", true);
+        when(accountService.getTransactionPage(accountNumber, null, 50, null, null, null)).thenReturn(page);
 
-        ResponseEntity<List<Transaction>> response = accountController.getTransactionsForAccount(accountNumber);
-        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        ResponseEntity<TransactionPageDto> response = accountController.getTransactionsForAccount(accountNumber, null, 50, null, null, null);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
     }
 
     @Test
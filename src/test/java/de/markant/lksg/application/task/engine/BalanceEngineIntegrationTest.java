@@ -0,0 +1,198 @@
+package de.markant.lksg.application.task.engine;
+
+import de.markant.lksg.application.task.BankingJpaTest;
+import de.markant.lksg.application.task.config.EngineProperties;
+import de.markant.lksg.application.task.dto.TransactionResultDto;
+import de.markant.lksg.application.task.exception.ResourceNotFoundException;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.feed.TransactionFeed;
+import de.markant.lksg.application.task.journal.TransactionJournal;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.EngineCheckpoint;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.TransactionType;
+import de.markant.lksg.application.task.outbox.TransactionOutbox;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import de.markant.lksg.application.task.repository.EngineCheckpointRepository;
+import de.markant.lksg.application.task.repository.TransactionRepository;
+import de.markant.lksg.application.task.service.DailySummaryService;
+import de.markant.lksg.application.task.service.LedgerMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@BankingJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // The engine writes in its own transactions
+public class BalanceEngineIntegrationTest {
+
+    private static final int ACCOUNTS = 4;
+    private static final int TRANSFERS = 2_000;
+
+    @Autowired
+    private BalanceEngine balanceEngine;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EngineCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TransactionJournal transactionJournal;
+
+    @Autowired
+    private DailySummaryService dailySummaryService;
+
+    @Autowired
+    private TransactionFeed transactionFeed;
+
+    @Autowired
+    private TransactionOutbox transactionOutbox;
+
+    @DynamicPropertySource
+    static void engineProperties(DynamicPropertyRegistry registry) throws IOException {
+        Path walDirectory = Files.createTempDirectory("wal");
+        registry.add("banking.engine.enabled", () -> "true");
+        registry.add("banking.engine.wal-directory", walDirectory::toString);
+        registry.add("banking.engine.flush-interval-ms", () -> "600000"); // Tests flush explicitly
+    }
+
+    @BeforeEach
+    public void setup() {
+        cleanup();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        balanceEngine.flush();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        checkpointRepository.deleteAll();
+    }
+
+    @Test
+    public void testOperationsAreWrittenBehind() {
+        accountRepository.save(new Account("ENG-1", Money.of(1_000.0)));
+        accountRepository.save(new Account("ENG-2", Money.of(0.0)));
+
+        balanceEngine.deposit("ENG-1", Money.of(100.0));
+        balanceEngine.withdraw("ENG-1", Money.of(50.0));
+        TransactionResultDto result = balanceEngine.transfer("ENG-1", "ENG-2", Money.of(300.0));
+
+        assertThat(result.getNewBalance()).isEqualTo(Money.of(750.0));
+        assertThat(result.getTargetNewBalance()).isEqualTo(Money.of(300.0));
+        assertThat(balanceEngine.findAccount("ENG-1").getBalance()).isEqualTo(Money.of(750.0));
+        assertThat(accountRepository.findAccountByAccountNr("ENG-1").orElseThrow().getBalance()).isEqualTo(Money.of(1_000.0));
+
+        balanceEngine.flush();
+
+        assertThat(accountRepository.findAccountByAccountNr("ENG-1").orElseThrow().getBalance()).isEqualTo(Money.of(750.0));
+        assertThat(accountRepository.findAccountByAccountNr("ENG-2").orElseThrow().getBalance()).isEqualTo(Money.of(300.0));
+        assertThat(transactionRepository.count()).isEqualTo(4); // The transfer is written as two legs
+    }
+
+    @Test
+    public void testRejectedOperationsAreNotLogged() {
+        accountRepository.save(new Account("ENG-3", Money.of(100.0)));
+
+        TransactionException withdrawal = assertThrows(TransactionException.class, () -> balanceEngine.withdraw("ENG-3", Money.of(200.0)));
+        assertThat(withdrawal.getMessage()).isEqualTo("Insufficient balance");
+        assertThrows(TransactionException.class, () -> balanceEngine.transfer("ENG-3", "ENG-3", Money.of(-1.0)));
+        assertThrows(ResourceNotFoundException.class, () -> balanceEngine.transfer("ENG-3", "UNKNOWN", Money.of(10.0)));
+        assertThrows(ResourceNotFoundException.class, () -> balanceEngine.deposit("UNKNOWN", Money.of(10.0)));
+
+        balanceEngine.flush();
+
+        assertThat(balanceEngine.findAccount("ENG-3").getBalance()).isEqualTo(Money.of(100.0));
+        assertThat(transactionRepository.count()).isZero();
+    }
+
+    @Test
+    public void testConcurrentTransfersKeepTheTotal() throws Exception {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountRepository.save(new Account("ENG-C" + i, Money.of(10_000.0)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < TRANSFERS; i++) {
+            String source = "ENG-C" + (i % ACCOUNTS);
+            String target = "ENG-C" + ((i + 1) % ACCOUNTS);
+            futures.add(executor.submit(() -> balanceEngine.transfer(source, target, Money.of(1.0))));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        balanceEngine.flush();
+
+        Money total = Money.ZERO;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            Money balance = balanceEngine.findAccount("ENG-C" + i).getBalance();
+            assertThat(accountRepository.findAccountByAccountNr("ENG-C" + i).orElseThrow().getBalance()).isEqualTo(balance);
+            total = total.plus(balance);
+        }
+        assertThat(total).isEqualTo(Money.of(ACCOUNTS * 10_000.0));
+        assertThat(transactionRepository.count()).isEqualTo(2L * TRANSFERS);
+    }
+
+    @Test
+    public void testRecoveryWritesRecordsAfterTheCheckpoint() throws Exception {
+        accountRepository.save(new Account("ENG-R", Money.of(100.0)));
+        checkpointRepository.save(new EngineCheckpoint(7, 1L));
+
+        Path walDirectory = Files.createTempDirectory("wal-recovery");
+        Path walFile = walDirectory.resolve("shard-7.wal");
+        try (WriteAheadLog wal = new WriteAheadLog(walFile)) {
+            LocalDateTime now = LocalDateTime.now();
+            wal.append(new WalRecord(1, TransactionType.DEPOSIT, "ENG-R", null, Money.of(1_000.0), now)); // Already in the database
+            wal.append(new WalRecord(2, TransactionType.DEPOSIT, "ENG-R", null, Money.of(50.0), now));
+            wal.append(new WalRecord(3, TransactionType.WITHDRAWAL, "ENG-R", null, Money.of(20.0), now));
+            wal.sync();
+        }
+        Files.write(walFile, new byte[]{0, 0, 0, 42, 1}, StandardOpenOption.APPEND); // A torn append
+
+        EngineProperties properties = new EngineProperties();
+        properties.setEnabled(true);
+        properties.setShards(1);
+        properties.setWalDirectory(walDirectory.toString());
+        BalanceEngine recovering = new BalanceEngine(properties, accountRepository, transactionRepository,
+                checkpointRepository, transactionTemplate, transactionJournal, dailySummaryService, transactionFeed, transactionOutbox, LedgerMode.STATE);
+        recovering.start();
+        try {
+            assertThat(accountRepository.findAccountByAccountNr("ENG-R").orElseThrow().getBalance()).isEqualTo(Money.of(130.0));
+            assertThat(transactionRepository.count()).isEqualTo(2);
+            assertThat(checkpointRepository.findById(7).orElseThrow().getLastSequence()).isEqualTo(3L);
+            assertThat(Files.size(walFile)).isZero();
+            assertThat(recovering.findAccount("ENG-R").getBalance()).isEqualTo(Money.of(130.0));
+        } finally {
+            recovering.stop();
+        }
+    }
+}
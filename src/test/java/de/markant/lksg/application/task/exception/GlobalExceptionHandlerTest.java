@@ -1,6 +1,9 @@
 package de.markant.lksg.application.task.exception;
 
+import de.markant.lksg.application.task.constants.Constants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -8,7 +11,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class GlobalExceptionHandlerTest {
 
-    private final GlobalExceptionHandler globalExceptionHandler = new GlobalExceptionHandler();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final GlobalExceptionHandler globalExceptionHandler = new GlobalExceptionHandler(meterRegistry);
 
     @Test
     void testHandleResourceNotFoundException() {
@@ -32,5 +37,31 @@ class GlobalExceptionHandlerTest {
 
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals(message, response.getBody());
+        assertEquals(1.0, meterRegistry.get(GlobalExceptionHandler.ERRORS_METRIC)
+                .tags("exception", "TransactionException", "status", "400").counter().count());
+    }
+
+    @Test
+    void testHandleOptimisticLockingFailureException() {
+
+        OptimisticLockingFailureException exception = new OptimisticLockingFailureException("Row was updated by another transaction");
+
+        ResponseEntity<String> response = globalExceptionHandler.handleOptimisticLockingFailureException(exception);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(Constants.CONCURRENT_MODIFICATION, response.getBody());
+    }
+
+    @Test
+    void testHandleAccountBusyException() {
+
+        AccountBusyException exception = new AccountBusyException(Constants.ACCOUNT_BUSY);
+
+        ResponseEntity<String> response = globalExceptionHandler.handleAccountBusyException(exception);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(Constants.ACCOUNT_BUSY, response.getBody());
+        assertEquals(1.0, meterRegistry.get(GlobalExceptionHandler.ERRORS_METRIC)
+                .tags("exception", "AccountBusyException", "status", "409").counter().count());
     }
 }
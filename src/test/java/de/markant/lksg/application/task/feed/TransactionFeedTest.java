@@ -0,0 +1,180 @@
+package de.markant.lksg.application.task.feed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.markant.lksg.application.task.config.FeedProperties;
+import de.markant.lksg.application.task.exception.ResourceNotFoundException;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TransactionFeedTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final FeedProperties properties = new FeedProperties();
+
+    private TransactionFeed feed;
+
+    private long ids;
+
+    @AfterEach
+    public void tearDown() {
+        feed.stop();
+    }
+
+    @Test
+    public void testSubscriberReceivesBalanceAndCommittedTransactionsOfItsAccount() throws Exception {
+        start();
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        feed.subscribe("FEED-1", () -> account("FEED-1", 100.0), emitter);
+
+        feed.publish(List.of(transaction("FEED-1", 100.0, 150.0), transaction("FEED-2", 0.0, 10.0)));
+
+        assertThat(emitter.next()).contains("event:balance", "\"balance\":100.0");
+        assertThat(emitter.next()).contains("event:transaction", "id:1", "\"newBalance\":150.0");
+        assertThat(emitter.next()).contains("event:balance", "\"balance\":150.0");
+        assertThat(emitter.frames.poll(200, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    public void testSlowSubscriberDropsOldestEventsAndIsToldToResync() throws Exception {
+        properties.setBufferSize(4);
+        start();
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter emitter = new RecordingEmitter(release);
+        feed.subscribe("FEED-1", () -> account("FEED-1", 0.0), emitter);
+        assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue(); // Blocked sending the initial balance
+
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            transactions.add(transaction("FEED-1", i, i + 1));
+        }
+        feed.publish(transactions);
+        release.countDown();
+
+        assertThat(emitter.next()).contains("event:balance", "\"balance\":0");
+        assertThat(emitter.next()).contains("event:resync", "data:7");
+        assertThat(emitter.next()).contains("event:transaction", "id:8");
+        assertThat(emitter.next()).contains("id:9");
+        assertThat(emitter.next()).contains("id:10");
+        assertThat(emitter.next()).contains("event:balance", "\"balance\":10.0");
+        assertThat(meterRegistry.counter(TransactionFeed.DROPPED_METRIC).count()).isEqualTo(7.0);
+        assertThat(feed.getSubscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSlowSubscriberIsDisconnected() throws Exception {
+        properties.setBufferSize(2);
+        properties.setSlowConsumerPolicy(SlowConsumerPolicy.DISCONNECT);
+        start();
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(1));
+        feed.subscribe("FEED-1", () -> account("FEED-1", 0.0), emitter);
+        assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        feed.publish(List.of(transaction("FEED-1", 0.0, 1.0), transaction("FEED-1", 1.0, 2.0)));
+
+        assertThat(emitter.completed).isTrue();
+        assertThat(feed.getSubscriberCount()).isZero();
+    }
+
+    @Test
+    public void testSubscriptionsAreLimited() {
+        properties.setMaxSubscribers(1);
+        start();
+        feed.subscribe("FEED-1", () -> account("FEED-1", 0.0), new RecordingEmitter(null));
+
+        assertThrows(TransactionException.class, () -> feed.subscribe("FEED-2", () -> account("FEED-2", 0.0), new RecordingEmitter(null)));
+        assertThat(feed.getSubscriberCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSubscriptionToUnknownAccountIsRemoved() {
+        start();
+
+        assertThrows(ResourceNotFoundException.class, () -> feed.subscribe("FEED-1", () -> {
+            throw new ResourceNotFoundException("Account number FEED-1 not found!");
+        }, new RecordingEmitter(null)));
+        assertThat(feed.getSubscriberCount()).isZero();
+    }
+
+    private void start() {
+        feed = new TransactionFeed(properties, new ObjectMapper().findAndRegisterModules(), meterRegistry);
+        feed.start();
+    }
+
+    private static Account account(String accountNumber, double balance) {
+        return new Account(accountNumber, Money.of(balance));
+    }
+
+    private Transaction transaction(String accountNumber, double oldBalance, double newBalance) {
+        Transaction transaction = Transaction.transactionBuilder()
+                .account(account(accountNumber, newBalance))
+                .transactionType(TransactionType.DEPOSIT)
+                .oldBalance(Money.of(oldBalance))
+                .newBalance(Money.of(newBalance))
+                .transactionAmount(Money.of(newBalance - oldBalance))
+                .build();
+        transaction.setTransactionId(++ids);
+        return transaction;
+    }
+
+    /**
+     * Records the frames sent to the client; optionally blocks the first send until released.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        private final CountDownLatch release;
+
+        private volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            sending.countDown();
+            try {
+                if (release != null) {
+                    release.await();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            frames.add(items.stream().map(item -> item.getData().toString()).collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        String next() throws InterruptedException {
+            String frame = frames.poll(5, TimeUnit.SECONDS);
+            assertThat(frame).isNotNull();
+            return frame;
+        }
+    }
+}
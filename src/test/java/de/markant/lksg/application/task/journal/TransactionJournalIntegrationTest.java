@@ -0,0 +1,149 @@
+package de.markant.lksg.application.task.journal;
+
+import de.markant.lksg.application.task.BankingJpaTest;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.BalanceSlot;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import de.markant.lksg.application.task.repository.BalanceSlotRepository;
+import de.markant.lksg.application.task.repository.OutboxEventRepository;
+import de.markant.lksg.application.task.repository.TransactionRepository;
+import de.markant.lksg.application.task.service.AccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that committed transactions are journaled and that transactions lost by the database are restored.
+ */
+@BankingJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Transactions are journaled after their commit
+public class TransactionJournalIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransactionJournal transactionJournal;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BalanceSlotRepository balanceSlotRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @DynamicPropertySource
+    static void journalProperties(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("journal").toString();
+        registry.add("banking.journal.enabled", () -> "true");
+        registry.add("banking.journal.directory", () -> directory);
+        registry.add("banking.account-cache.ttl-seconds", () -> "0");
+        registry.add("banking.hot-accounts.account-numbers", () -> "333");
+        registry.add("banking.outbox.enabled", () -> "true");
+        registry.add("banking.outbox.relay-enabled", () -> "false");
+    }
+
+    @BeforeEach
+    public void setup() {
+        cleanup();
+        Account account = accountService.createAccount("111", Money.of(1_000.0));
+        accountService.createInitialTransaction(account);
+        accountService.createAccount("222", Money.of(0.0));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        outboxEventRepository.deleteAll();
+        balanceSlotRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    public void testCommittedTransactionsAreJournaled() {
+        long start = transactionJournal.endPosition();
+        accountService.deposit("111", Money.of(100.0));
+        accountService.transfer("111", "222", Money.of(50.0));
+
+        JournalReader reader = transactionJournal.reader(start);
+        JournalEntry deposit = reader.poll();
+        assertThat(deposit.accountNumber()).isEqualTo("111");
+        assertThat(deposit.newBalance()).isEqualTo(Money.of(1_100.0));
+        assertThat(reader.poll().targetAccountNumber()).isEqualTo("222");
+        assertThat(reader.poll().targetAccountNumber()).isEqualTo("111");
+        assertThat(reader.poll()).isNull();
+    }
+
+    @Test
+    public void testReplayRestoresLostTransactionsAndBalance() {
+        accountService.deposit("111", Money.of(100.0));
+        accountService.withdraw("111", Money.of(30.0));
+        accountService.transfer("111", "222", Money.of(20.0));
+
+        // The database loses the last two commits: the withdrawal and the transfer
+        List<Transaction> transactions = transactionRepository.findAll().stream()
+                .sorted(Comparator.comparing(Transaction::getTransactionId))
+                .toList();
+        List<Transaction> lost = transactions.subList(transactions.size() - 3, transactions.size());
+        transactionRepository.deleteAll(lost);
+        Account source = accountRepository.findAccountByAccountNr("111").orElseThrow();
+        source.setBalance(Money.of(1_100.0));
+        accountRepository.save(source);
+        Account target = accountRepository.findAccountByAccountNr("222").orElseThrow();
+        target.setBalance(Money.of(0.0));
+        accountRepository.save(target);
+
+        assertThat(transactionJournal.replay()).isEqualTo(3);
+
+        assertThat(transactionRepository.findExistingIds(lost.stream().map(Transaction::getTransactionId).toList())).hasSize(3);
+        assertThat(accountRepository.findAccountByAccountNr("111").orElseThrow().getBalance()).isEqualTo(Money.of(1_050.0));
+        assertThat(accountRepository.findAccountByAccountNr("222").orElseThrow().getBalance()).isEqualTo(Money.of(20.0));
+        assertThat(transactionJournal.replay()).isZero();
+    }
+
+    @Test
+    public void testReplayOfAHotAccountDoesNotCountItsSlotsTwice() {
+        accountService.createAccount("333", Money.of(0.0));
+        accountService.deposit("333", Money.of(50.0));
+        accountService.deposit("333", Money.of(30.0));
+
+        // The database loses the second deposit: its transaction, its outbox event and its credit to a slot
+        Transaction lost = transactionRepository.findByAccount_AccountNr("333").stream()
+                .max(Comparator.comparing(Transaction::getTransactionId))
+                .orElseThrow();
+        transactionRepository.delete(lost);
+        outboxEventRepository.deleteAll(outboxEventRepository.findAll().stream()
+                .filter(event -> event.getTransactionId().equals(lost.getTransactionId()))
+                .toList());
+        List<BalanceSlot> slots = balanceSlotRepository.findAll();
+        slots.forEach(slot -> slot.setBalance(Money.ZERO));
+        slots.get(0).setBalance(Money.of(50.0));
+        balanceSlotRepository.saveAll(slots);
+
+        assertThat(transactionJournal.replay()).isEqualTo(1);
+
+        assertThat(accountService.findAccountByNr("333").getBalance()).isEqualTo(Money.of(80.0));
+        assertThat(outboxEventRepository.findAll())
+                .filteredOn(event -> event.getTransactionId().equals(lost.getTransactionId()))
+                .hasSize(1);
+    }
+}
@@ -0,0 +1,163 @@
+package de.markant.lksg.application.task.journal;
+
+import de.markant.lksg.application.task.config.JournalProperties;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
+import de.markant.lksg.application.task.service.LedgerMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TransactionJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    private TransactionJournal journal;
+
+    @AfterEach
+    public void tearDown() {
+        if (journal != null) {
+            journal.stop();
+        }
+    }
+
+    @Test
+    public void testAppendedTransactionsAreReadBack() throws Exception {
+        journal = open(JournalDurability.GROUP, 1 << 20);
+        Transaction deposit = transaction(TransactionType.DEPOSIT, null);
+        Transaction transfer = transaction(TransactionType.TRANSFER, "TARGET");
+
+        journal.append(List.of(deposit, transfer));
+
+        JournalReader reader = journal.reader(journal.firstPosition());
+        JournalEntry entry = reader.poll();
+        assertThat(entry.transactionId()).isEqualTo(deposit.getTransactionId());
+        assertThat(entry.accountId()).isEqualTo(7L);
+        assertThat(entry.accountNumber()).isEqualTo("JOURNAL-1");
+        assertThat(entry.type()).isEqualTo(TransactionType.DEPOSIT);
+        assertThat(entry.newBalance()).isEqualTo(deposit.getNewBalance());
+        assertThat(entry.timeStamp()).isEqualTo(deposit.getTimeStamp());
+        assertThat(entry.targetAccountNumber()).isNull();
+        assertThat(reader.poll().targetAccountNumber()).isEqualTo("TARGET");
+        assertThat(reader.poll()).isNull();
+        assertThat(reader.position()).isEqualTo(journal.endPosition());
+    }
+
+    @Test
+    public void testTailReaderFollowsAppendsAcrossSegments() throws Exception {
+        journal = open(JournalDurability.NONE, 4096);
+        JournalReader reader = journal.reader(journal.firstPosition());
+        assertThat(reader.poll()).isNull();
+
+        List<Long> appended = new ArrayList<>();
+        List<Long> read = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Transaction transaction = transaction(TransactionType.WITHDRAWAL, null);
+            journal.append(List.of(transaction));
+            appended.add(transaction.getTransactionId());
+            if (i % 7 == 0) {
+                for (JournalEntry entry = reader.poll(); entry != null; entry = reader.poll()) {
+                    read.add(entry.transactionId());
+                }
+            }
+        }
+        for (JournalEntry entry = reader.poll(); entry != null; entry = reader.poll()) {
+            read.add(entry.transactionId());
+        }
+
+        assertThat(read).isEqualTo(appended);
+        assertThat(JournalSegment.list(directory).size()).isGreaterThan(5);
+    }
+
+    @Test
+    public void testReopenedJournalContinuesAfterTheLastCompleteRecord() throws Exception {
+        journal = open(JournalDurability.SYNC, 1 << 16);
+        journal.append(List.of(transaction(TransactionType.DEPOSIT, null), transaction(TransactionType.DEPOSIT, null)));
+        long end = journal.endPosition();
+        journal.stop();
+
+        // A record whose length was written but whose payload was not
+        try (RandomAccessFile file = new RandomAccessFile(JournalSegment.path(directory, 0).toFile(), "rw")) {
+            file.seek(end);
+            file.writeInt(40);
+        }
+
+        journal = open(JournalDurability.SYNC, 1 << 16);
+        assertThat(journal.endPosition()).isEqualTo(end);
+        journal.append(List.of(transaction(TransactionType.WITHDRAWAL, null)));
+
+        JournalReader reader = journal.reader(journal.firstPosition());
+        int entries = 0;
+        while (reader.poll() != null) {
+            entries++;
+        }
+        assertThat(entries).isEqualTo(3);
+    }
+
+    @Test
+    public void testConcurrentAppendsShareForces() throws Exception {
+        journal = open(JournalDurability.GROUP, 1 << 20);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            futures.add(executor.submit(() -> journal.append(List.of(transaction(TransactionType.DEPOSIT, null)))));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Set<Long> read = new HashSet<>();
+        JournalReader reader = journal.reader(journal.firstPosition());
+        for (JournalEntry entry = reader.poll(); entry != null; entry = reader.poll()) {
+            read.add(entry.transactionId());
+        }
+        assertThat(read).hasSize(2_000);
+    }
+
+    private TransactionJournal open(JournalDurability durability, int segmentSize) throws Exception {
+        JournalProperties properties = new JournalProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory.toString());
+        properties.setDurability(durability);
+        properties.setSegmentSizeBytes(segmentSize);
+        TransactionJournal opened = new TransactionJournal(properties, null, null, null, null, null, null, LedgerMode.STATE);
+        opened.start();
+        return opened;
+    }
+
+    private Transaction transaction(TransactionType type, String targetAccountNumber) {
+        Account account = new Account("JOURNAL-1", Money.of(100.0));
+        account.setAccountId(7L);
+        Transaction transaction = Transaction.transactionBuilder()
+                .account(account)
+                .transactionType(type)
+                .oldBalance(Money.of(100.0))
+                .newBalance(Money.of(110.5))
+                .transactionAmount(Money.of(10.5))
+                .targetAccountNr(targetAccountNumber)
+                .timeStamp(LocalDateTime.now())
+                .build();
+        transaction.setTransactionId(ids.incrementAndGet());
+        return transaction;
+    }
+}
@@ -19,7 +19,7 @@ class AccountTest {
         // Initialize the account object before each test
         account = Account.builder()
                 .accountNr("123456789")
-                .balance(1000.00)
+                .balance(Money.of(1000.00))
                 .build();
     }
 
@@ -28,15 +28,15 @@ class AccountTest {
         // Test if the account is created successfully
         assertNotNull(account);
         assertEquals("123456789", account.getAccountNr());
-        assertEquals(1000.00, account.getBalance());
+        assertEquals(Money.of(1000.00), account.getBalance());
         
     }
 
     @Test
     void testAccountBalanceUpdate() {
         // Test if the account balance can be updated
-        account.setBalance(2000.00);
-        assertEquals(2000.00, account.getBalance());
+        account.setBalance(Money.of(2000.00));
+        assertEquals(Money.of(2000.00), account.getBalance());
     }
 
 
@@ -46,7 +46,7 @@ class AccountTest {
         // Test if the account number is unique
         Account account1 = Account.builder()
                 .accountNr("987654321")
-                .balance(500.00)
+                .balance(Money.of(500.00))
                 .build();
 
         assertEquals("987654321", account1.getAccountNr());
@@ -57,11 +57,11 @@ class AccountTest {
         // Test the builder pattern
         Account accountFromBuilder = Account.builder()
                 .accountNr("111222333")
-                .balance(1500.00)
+                .balance(Money.of(1500.00))
                 .build();
 
         assertEquals("111222333", accountFromBuilder.getAccountNr());
-        assertEquals(1500.00, accountFromBuilder.getBalance());
+        assertEquals(Money.of(1500.00), accountFromBuilder.getBalance());
         
     
     }
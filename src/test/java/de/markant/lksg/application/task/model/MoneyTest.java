@@ -0,0 +1,48 @@
+package de.markant.lksg.application.task.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testParsing() {
+        assertEquals(12575, Money.of("125.75").minorUnits());
+        assertEquals(12500, Money.of(new BigDecimal("125")).minorUnits());
+        assertEquals(10, Money.of(0.1).minorUnits());
+        assertEquals("125.70", Money.of("125.7").toString());
+    }
+
+    @Test
+    void testMoreThanTwoDecimalPlacesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> Money.of("0.001"));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(0.105));
+    }
+
+    @Test
+    void testArithmeticIsExact() {
+        Money sum = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            sum = sum.plus(Money.of(0.1));
+        }
+        assertEquals(Money.of(1.0), sum);
+        assertEquals(Money.of("-0.50"), Money.of(1.0).minus(Money.of(1.5)));
+        assertTrue(Money.of(1.0).minus(Money.of(1.5)).isNegative());
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+    }
+
+    @Test
+    void testJsonRoundTrip() throws Exception {
+        assertEquals("1250.75", objectMapper.writeValueAsString(Money.of("1250.75")));
+        assertEquals(Money.of("1250.75"), objectMapper.readValue("1250.75", Money.class));
+        assertEquals(Money.of("1250.75"), objectMapper.readValue("\"1250.75\"", Money.class));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("1.005", Money.class));
+    }
+}
@@ -18,7 +18,7 @@ class TransactionTest {
         // Initializing a mock account for transaction tests
         account = Account.builder()
                 .accountNr("123456789")
-                .balance(1000.00)
+                .balance(Money.of(1000.00))
                 .transactions(new ArrayList<>())
                 .build();
 
@@ -26,9 +26,9 @@ class TransactionTest {
         transaction = Transaction.transactionBuilder()
                 .account(account)
                 .transactionType(TransactionType.DEPOSIT)
-                .oldBalance(1000.00)
-                .newBalance(1500.00)
-                .transactionAmount(500.00)
+                .oldBalance(Money.of(1000.00))
+                .newBalance(Money.of(1500.00))
+                .transactionAmount(Money.of(500.00))
                 .targetAccountNr(null) // No target account for deposit
                 .timeStamp(LocalDateTime.now())
                 .build();
@@ -39,9 +39,9 @@ class TransactionTest {
         // Testing if the transaction is created successfully
         assertNotNull(transaction);
         assertEquals(TransactionType.DEPOSIT, transaction.getTransactionType());
-        assertEquals(1000.00, transaction.getOldBalance());
-        assertEquals(1500.00, transaction.getNewBalance());
-        assertEquals(500.00, transaction.getTransactionAmount());
+        assertEquals(Money.of(1000.00), transaction.getOldBalance());
+        assertEquals(Money.of(1500.00), transaction.getNewBalance());
+        assertEquals(Money.of(500.00), transaction.getTransactionAmount());
         assertEquals(account, transaction.getAccount());
         assertNotNull(transaction.getTimeStamp());
     }
@@ -57,9 +57,9 @@ class TransactionTest {
     @Test
     void testOldAndNewBalance() {
         // Checking if old and new balances are correctly set
-        transaction.setOldBalance(1000.00);
-        transaction.setNewBalance(2000.00);
-        assertEquals(1000.00, transaction.getOldBalance());
-        assertEquals(2000.00, transaction.getNewBalance());
+        transaction.setOldBalance(Money.of(1000.00));
+        transaction.setNewBalance(Money.of(2000.00));
+        assertEquals(Money.of(1000.00), transaction.getOldBalance());
+        assertEquals(Money.of(2000.00), transaction.getNewBalance());
     }
 }
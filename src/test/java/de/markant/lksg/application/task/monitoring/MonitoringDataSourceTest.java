@@ -0,0 +1,77 @@
+package de.markant.lksg.application.task.monitoring;
+
+import de.markant.lksg.application.task.config.SqlMonitoringProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonitoringDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SqlMonitoringProperties properties = new SqlMonitoringProperties();
+
+    private MonitoringDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:monitoring;DB_CLOSE_DELAY=-1");
+        dataSource = new MonitoringDataSource(h2, properties, meterRegistry);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS item (id BIGINT, name VARCHAR(20))");
+            statement.execute("DELETE FROM item");
+        }
+    }
+
+    @Test
+    void testStatementsAreTimedAndCounted() throws SQLException {
+        StatementCounter.start();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO item (id, name) VALUES (?, ?)")) {
+            for (int i = 0; i < 3; i++) {
+                insert.setLong(1, i);
+                insert.setString(2, "item-" + i);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            connection.createStatement().executeQuery("SELECT COUNT(*) FROM item").close();
+        }
+
+        assertEquals(2, StatementCounter.stop());
+        assertEquals(0, StatementCounter.stop()); // Not counting any more
+        assertTrue(meterRegistry.get(MonitoringDataSource.DURATION_METRIC).timer().count() >= 2);
+        assertTrue(meterRegistry.find(MonitoringDataSource.SLOW_METRIC).counters().isEmpty());
+    }
+
+    @Test
+    void testSlowStatementsAreCountedWithTheirOrigin() throws SQLException {
+        properties.setSlowQueryThresholdMs(0); // Every statement is slow
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement query = connection.prepareStatement("SELECT name FROM item WHERE id = ?")) {
+            query.setLong(1, 1);
+            query.executeQuery().close();
+        }
+
+        assertEquals(1.0, meterRegistry.get(MonitoringDataSource.SLOW_METRIC)
+                .tag("origin", "MonitoringDataSourceTest.testSlowStatementsAreCountedWithTheirOrigin").counter().count());
+    }
+
+    @Test
+    void testProxiesAreOnlyEqualToThemselves() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Connection other = dataSource.getConnection()) {
+            assertEquals(connection, connection);
+            assertNotEquals(connection, other);
+            assertEquals(System.identityHashCode(connection), connection.hashCode());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package de.markant.lksg.application.task.outbox;
+
+import de.markant.lksg.application.task.model.OutboxEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FileOutboxSinkTest {
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testBatchesAreAppendedInOrder() throws Exception {
+        Path file = directory.resolve("outbox").resolve("events.ndjson");
+        FileOutboxSink sink = new FileOutboxSink(file);
+
+        sink.publish(List.of(event("{\"transactionId\":1}"), event("{\"transactionId\":2}")));
+        sink.publish(List.of(event("{\"transactionId\":3}")));
+
+        assertThat(Files.readAllLines(file)).containsExactly(
+                "{\"transactionId\":1}", "{\"transactionId\":2}", "{\"transactionId\":3}");
+    }
+
+    private static OutboxEvent event(String payload) {
+        return OutboxEvent.builder().payload(payload).build();
+    }
+}
@@ -0,0 +1,190 @@
+package de.markant.lksg.application.task.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.markant.lksg.application.task.BankingJpaTest;
+import de.markant.lksg.application.task.dto.TransactionEventDto;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.OutboxEvent;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import de.markant.lksg.application.task.repository.BalanceSlotRepository;
+import de.markant.lksg.application.task.repository.OutboxEventRepository;
+import de.markant.lksg.application.task.repository.TransactionRepository;
+import de.markant.lksg.application.task.service.AccountService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that every committed transaction is published exactly through the outbox, in the order of each
+ * account's transactions except for hot accounts, and that a failed batch is published again.
+ */
+@BankingJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Every operation commits its own transaction
+@Import({OutboxRelay.class, InMemoryOutboxSink.class})
+@TestPropertySource(properties = {
+        "banking.outbox.enabled=true",
+        "banking.outbox.relay-enabled=false", // Batches are relayed by the tests
+        "banking.outbox.batch-size=50",
+        "banking.hot-accounts.account-numbers=444"
+})
+public class OutboxRelayIntegrationTest {
+
+    private static final int THREADS = 4;
+    private static final int TRANSFERS_PER_THREAD = 50;
+    private static final String HOT_ACCOUNT = "444";
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private InMemoryOutboxSink sink;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BalanceSlotRepository balanceSlotRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    public void setup() {
+        cleanup();
+        for (String accountNumber : List.of("111", "222", "333")) {
+            Account account = accountService.createAccount(accountNumber, Money.of(1_000.0));
+            accountService.createInitialTransaction(account);
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        sink.clear();
+        outboxEventRepository.deleteAll();
+        transactionRepository.deleteAll();
+        balanceSlotRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    public void testEveryTransactionIsPublishedInAccountOrder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            String source = t % 2 == 0 ? "111" : "222";
+            String target = t % 2 == 0 ? "222" : "333";
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    accountService.transfer(source, target, Money.of(1.0));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        int published = 0;
+        for (int relayed = outboxRelay.relayBatch(); relayed > 0; relayed = outboxRelay.relayBatch()) {
+            published += relayed;
+        }
+
+        assertThat(published).isEqualTo(transactionRepository.count()).isEqualTo(3 + 2 * THREADS * TRANSFERS_PER_THREAD);
+        assertThat(outboxEventRepository.count()).isZero();
+        Map<String, Money> balances = new HashMap<>();
+        for (OutboxEvent event : sink.getEvents()) {
+            TransactionEventDto transaction = objectMapper.readValue(event.getPayload(), TransactionEventDto.class);
+            assertThat(transaction.getAccountNumber()).isEqualTo(event.getAccountNr());
+            // Each event continues where the previous event of its account ended
+            assertThat(transaction.getOldBalance()).isEqualTo(balances.getOrDefault(event.getAccountNr(), Money.ZERO));
+            balances.put(event.getAccountNr(), transaction.getNewBalance());
+        }
+        for (String accountNumber : List.of("111", "222", "333")) {
+            assertThat(balances.get(accountNumber)).isEqualTo(accountService.findAccountByNr(accountNumber).getBalance());
+        }
+    }
+
+    @Test
+    public void testHotAccountCreditsArePublishedWithoutOrder() throws Exception {
+        accountService.createAccount(HOT_ACCOUNT, Money.of(0.0));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    accountService.deposit(HOT_ACCOUNT, Money.of(1.0));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        while (outboxRelay.relayBatch() > 0) {
+            // Relay everything
+        }
+
+        // Every credit is published once, but concurrent credits are not ordered, so only the sum is checked
+        List<Long> transactionIds = new ArrayList<>();
+        Money credited = Money.ZERO;
+        for (OutboxEvent event : sink.getEvents()) {
+            if (event.getAccountNr().equals(HOT_ACCOUNT)) {
+                TransactionEventDto transaction = objectMapper.readValue(event.getPayload(), TransactionEventDto.class);
+                transactionIds.add(transaction.getTransactionId());
+                credited = credited.plus(transaction.getTransactionAmount());
+            }
+        }
+        assertThat(transactionIds).hasSize(THREADS * TRANSFERS_PER_THREAD).doesNotHaveDuplicates();
+        assertThat(credited).isEqualTo(accountService.findAccountByNr(HOT_ACCOUNT).getBalance());
+    }
+
+    @Test
+    public void testFailedBatchIsPublishedAgain() {
+        accountService.deposit("111", Money.of(10.0));
+        sink.failNext(1);
+
+        UncheckedIOException failure = assertThrows(UncheckedIOException.class, () -> outboxRelay.relayBatch());
+        assertThat(failure.getCause()).isInstanceOf(IOException.class);
+        assertThat(outboxEventRepository.count()).isEqualTo(4);
+
+        assertThat(outboxRelay.relayBatch()).isEqualTo(4);
+        assertThat(sink.getEvents()).hasSize(4);
+    }
+
+    @Test
+    public void testRejectedUpdateWritesNoEvent() {
+        assertThrows(TransactionException.class, () -> accountService.withdraw("111", Money.of(5_000.0)));
+
+        assertThat(outboxEventRepository.count()).isEqualTo(3);
+    }
+}
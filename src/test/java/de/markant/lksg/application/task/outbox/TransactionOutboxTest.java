@@ -0,0 +1,22 @@
+package de.markant.lksg.application.task.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.markant.lksg.application.task.config.LedgerWriterProperties;
+import de.markant.lksg.application.task.config.OutboxProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TransactionOutboxTest {
+
+    @Test
+    public void testOutboxIsRejectedWithTheAsynchronousLedgerWriter() {
+        OutboxProperties outboxProperties = new OutboxProperties();
+        outboxProperties.setEnabled(true);
+        LedgerWriterProperties ledgerWriterProperties = new LedgerWriterProperties();
+        ledgerWriterProperties.setAsync(true);
+
+        assertThrows(IllegalStateException.class,
+                () -> new TransactionOutbox(outboxProperties, null, new ObjectMapper(), ledgerWriterProperties));
+    }
+}
@@ -1,13 +1,19 @@
 package de.markant.lksg.application.task.repository;
 
+import de.markant.lksg.application.task.dto.AccountDto;
 import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -37,7 +43,7 @@ public class AccountRepositoryIntegrationTest {
         String accountNumber = "123456";
         Account account = new Account();
         account.setAccountNr(accountNumber);
-        account.setBalance(100.0);
+        account.setBalance(Money.of(100.0));
         accountRepository.save(account);
 
         Optional<Account> foundAccount = accountRepository.findAccountByAccountNr(accountNumber);
@@ -46,6 +52,20 @@ public class AccountRepositoryIntegrationTest {
         assertThat(foundAccount.get().getAccountNr()).isEqualTo(accountNumber);
     }
 
+    @Test
+    public void testFindAccountPage_SortedByBalance() {
+        accountRepository.saveAll(List.of(
+                new Account("111", Money.of(300.0)), new Account("222", Money.of(100.0)), new Account("333", Money.of(200.0))));
+
+        Slice<AccountDto> firstPage = accountRepository.findAccountPage(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "balance")));
+        Slice<AccountDto> secondPage = accountRepository.findAccountPage(PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "balance")));
+
+        assertThat(firstPage.getContent()).extracting(AccountDto::getAccountNr).containsExactly("111", "333");
+        assertThat(firstPage.hasNext()).isTrue();
+        assertThat(secondPage.getContent()).extracting(AccountDto::getAccountNr).containsExactly("222");
+        assertThat(secondPage.hasNext()).isFalse();
+    }
+
     @Test
     public void testFindAccountByAccountNr_NotFound() {
 
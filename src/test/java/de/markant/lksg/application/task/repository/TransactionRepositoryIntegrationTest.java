@@ -0,0 +1,116 @@
+package de.markant.lksg.application.task.repository;
+
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Transactional // Rollback after each test
+public class TransactionRepositoryIntegrationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    private Account account;
+
+    @BeforeEach
+    public void setup() {
+        account = accountRepository.save(new Account("123456", Money.of(0.0)));
+        // Five deposits one minute apart and two withdrawals sharing the same time stamp
+        for (int i = 0; i < 5; i++) {
+            saveTransaction(TransactionType.DEPOSIT, START.plusMinutes(i));
+        }
+        saveTransaction(TransactionType.WITHDRAWAL, START.plusMinutes(10));
+        saveTransaction(TransactionType.WITHDRAWAL, START.plusMinutes(10));
+    }
+
+    @Test
+    public void testFindPageByAccount_WalksAllPagesNewestFirst() {
+        List<Transaction> firstPage = transactionRepository.findPageByAccount(account, null, null, null, null, null, Limit.of(3));
+        assertThat(firstPage).hasSize(3);
+        assertThat(firstPage.get(0).getTimeStamp()).isEqualTo(START.plusMinutes(10));
+        assertThat(firstPage.get(0).getTransactionId()).isGreaterThan(firstPage.get(1).getTransactionId());
+
+        Transaction last = firstPage.get(2);
+        List<Transaction> secondPage = transactionRepository.findPageByAccount(
+                account, null, null, null, last.getTimeStamp(), last.getTransactionId(), Limit.of(3));
+        assertThat(secondPage).hasSize(3);
+        assertThat(secondPage).doesNotContainAnyElementsOf(firstPage);
+
+        last = secondPage.get(2);
+        List<Transaction> thirdPage = transactionRepository.findPageByAccount(
+                account, null, null, null, last.getTimeStamp(), last.getTransactionId(), Limit.of(3));
+        assertThat(thirdPage).hasSize(1);
+        assertThat(thirdPage.get(0).getTimeStamp()).isEqualTo(START);
+    }
+
+    @Test
+    public void testFindPageByAccount_ContinuesWithTransactionsWithoutTimeStamp() {
+        Transaction legacy1 = saveTransaction(TransactionType.TRANSFER, null);
+        Transaction legacy2 = saveTransaction(TransactionType.TRANSFER, null);
+
+        List<Transaction> firstPage = transactionRepository.findPageByAccount(account, null, null, null, null, null, Limit.of(7));
+        assertThat(firstPage).hasSize(7).doesNotContain(legacy1, legacy2);
+
+        Transaction last = firstPage.get(6);
+        List<Transaction> secondPage = transactionRepository.findPageByAccount(
+                account, null, null, null, last.getTimeStamp(), last.getTransactionId(), Limit.of(1));
+        assertThat(secondPage).containsExactly(legacy2);
+
+        List<Transaction> thirdPage = transactionRepository.findPageByAccount(
+                account, null, null, null, null, legacy2.getTransactionId(), Limit.of(3));
+        assertThat(thirdPage).containsExactly(legacy1);
+    }
+
+    @Test
+    public void testFindPageByAccount_FiltersByTypeAndTimeRange() {
+        List<Transaction> withdrawals = transactionRepository.findPageByAccount(
+                account, TransactionType.WITHDRAWAL, null, null, null, null, Limit.of(10));
+        assertThat(withdrawals).hasSize(2);
+
+        List<Transaction> inRange = transactionRepository.findPageByAccount(
+                account, null, START.plusMinutes(1), START.plusMinutes(3), null, null, Limit.of(10));
+        assertThat(inRange).extracting(Transaction::getTimeStamp)
+                .containsExactly(START.plusMinutes(2), START.plusMinutes(1));
+    }
+
+    @Test
+    public void testStreamByAccount_OldestFirst() {
+        try (Stream<Transaction> transactions = transactionRepository.streamByAccount(account)) {
+            List<Transaction> streamed = transactions.toList();
+            assertThat(streamed).hasSize(7);
+            assertThat(streamed.get(0).getTimeStamp()).isEqualTo(START);
+            assertThat(streamed.get(6).getTimeStamp()).isEqualTo(START.plusMinutes(10));
+        }
+    }
+
+    private Transaction saveTransaction(TransactionType type, LocalDateTime timeStamp) {
+        Transaction transaction = Transaction.transactionBuilder()
+                .account(account)
+                .transactionType(type)
+                .oldBalance(Money.of(0.0))
+                .newBalance(Money.of(10.0))
+                .transactionAmount(Money.of(10.0))
+                .build();
+        transaction.setTimeStamp(timeStamp); // The builder defaults a missing time stamp, as legacy rows have none
+        return transactionRepository.save(transaction);
+    }
+}
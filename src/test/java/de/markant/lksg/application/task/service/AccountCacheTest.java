@@ -0,0 +1,76 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AccountCache accountCache = new AccountCache(100, 60, meterRegistry);
+
+    @Test
+    void testGetReturnsCopyOfCachedAccount() {
+        accountCache.put(account(1000.0, 1L));
+
+        Account cached = accountCache.get("12345");
+        cached.setBalance(Money.of(0.0));
+
+        assertEquals(Money.of(1000.0), accountCache.get("12345").getBalance());
+        assertNull(accountCache.get("67890"));
+    }
+
+    @Test
+    void testPutKeepsNewerVersion() {
+        accountCache.put(account(1500.0, 2L));
+        accountCache.put(account(1000.0, 1L));
+
+        assertEquals(Money.of(1500.0), accountCache.get("12345").getBalance());
+
+        accountCache.put(account(2000.0, 3L));
+
+        assertEquals(Money.of(2000.0), accountCache.get("12345").getBalance());
+    }
+
+    @Test
+    void testPutReplacesRecreatedAccount() {
+        accountCache.put(account(1500.0, 5L));
+        Account recreated = account(100.0, 0L);
+        recreated.setAccountId(2L);
+
+        accountCache.put(recreated);
+
+        assertEquals(Money.of(100.0), accountCache.get("12345").getBalance());
+    }
+
+    @Test
+    void testEvict() {
+        accountCache.put(account(1000.0, 1L));
+
+        accountCache.evict("12345");
+
+        assertNull(accountCache.get("12345"));
+    }
+
+    @Test
+    void testHitsAndMissesArePublished() {
+        accountCache.get("12345");
+        accountCache.put(account(1000.0, 1L));
+        accountCache.get("12345");
+        accountCache.get("12345");
+
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", "accounts").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "accounts").tag("result", "miss").functionCounter().count());
+    }
+
+    private static Account account(double balance, long version) {
+        Account account = new Account("12345", Money.of(balance));
+        account.setAccountId(1L);
+        account.setVersion(version);
+        return account;
+    }
+}
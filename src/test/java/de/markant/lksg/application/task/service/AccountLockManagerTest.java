@@ -0,0 +1,102 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.exception.AccountBusyException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccountLockManagerTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 20_000;
+
+    @Test
+    void testConcurrentUpdatesOnSameAccountAreNotLost() throws InterruptedException {
+        AccountLockManager lockManager = new AccountLockManager(64, 5000);
+        long[] balance = new long[1];
+
+        runConcurrently(() -> lockManager.withLock("12345", () -> balance[0]++));
+
+        assertEquals((long) THREADS * OPERATIONS_PER_THREAD, balance[0]);
+    }
+
+    @Test
+    void testOpposingTransfersNeitherDeadlockNorLoseMoney() throws InterruptedException {
+        AccountLockManager lockManager = new AccountLockManager(64, 5000);
+        String[] accountNumbers = {"A-1", "A-2", "A-3", "A-4", "A-5", "A-6", "A-7", "A-8"};
+        long[] balances = new long[accountNumbers.length];
+        Arrays.fill(balances, 1_000);
+
+        long start = System.nanoTime();
+        runConcurrently(() -> {
+            int source = ThreadLocalRandom.current().nextInt(accountNumbers.length);
+            int target = (source + 1 + ThreadLocalRandom.current().nextInt(accountNumbers.length - 1)) % accountNumbers.length;
+            lockManager.withLocks(accountNumbers[source], accountNumbers[target], () -> {
+                if (balances[source] > 0) {
+                    balances[source]--;
+                    balances[target]++;
+                }
+                return null;
+            });
+        });
+        double opsPerSecond = (double) THREADS * OPERATIONS_PER_THREAD / ((System.nanoTime() - start) / 1e9);
+
+        assertEquals(1_000L * accountNumbers.length, Arrays.stream(balances).sum());
+        assertTrue(opsPerSecond > 1_000, "Expected thousands of transfers per second but got " + opsPerSecond);
+    }
+
+    @Test
+    void testSameStripeIsLockedOnce() {
+        AccountLockManager lockManager = new AccountLockManager(1, 100);
+
+        assertEquals("done", lockManager.withLocks("12345", "67890", () -> "done"));
+    }
+
+    @Test
+    void testLockTimeout() throws InterruptedException {
+        AccountLockManager lockManager = new AccountLockManager(1, 50);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = new Thread(() -> lockManager.withLock("12345", () -> {
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        holder.start();
+        locked.await();
+
+        assertThrows(AccountBusyException.class, () -> lockManager.withLock("12345", () -> null));
+
+        release.countDown();
+        holder.join();
+    }
+
+    private void runConcurrently(Runnable operation) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < THREADS; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    operation.run();
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS), "Operations did not finish, possible deadlock");
+    }
+}
@@ -0,0 +1,11 @@
+package de.markant.lksg.application.task.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the concurrency scenarios of AccountServiceConcurrencyIntegrationTest in atomic mode,
+ * where every balance change is a conditional UPDATE statement and the database serializes them.
+ */
+@TestPropertySource(properties = "banking.concurrency.mode=ATOMIC")
+public class AccountServiceAtomicConcurrencyIntegrationTest extends AccountServiceConcurrencyIntegrationTest {
+}
@@ -0,0 +1,85 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.BankingJpaTest;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import de.markant.lksg.application.task.repository.TransactionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the JDBC statements a transfer sends to the database.
+ * With pooled sequence ids and JDBC batching the two account updates and the two transaction
+ * inserts of a transfer are each sent as one batch. Collecting the statistics does not log every session.
+ */
+@BankingJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Every transfer commits its own transaction
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ExtendWith(OutputCaptureExtension.class)
+public class AccountServiceBatchingIntegrationTest {
+
+    private static final int TRANSFERS = 200;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    public void setup() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        accountService.createAccount("111", Money.of(10_000.0));
+        accountService.createAccount("222", Money.of(10_000.0));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    public void testTransferIsFlushedAsBatches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            accountService.transfer("111", "222", Money.of(1.0));
+        }
+
+        double statementsPerTransfer = (double) statistics.getPrepareStatementCount() / TRANSFERS;
+
+        // 2 selects + 1 update batch + 1 insert batch, plus an occasional sequence fetch
+        assertThat(statementsPerTransfer).isLessThan(4.5);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(2L * TRANSFERS);
+        assertThat(accountService.findAccountByNr("222").getBalance()).isEqualTo(Money.of(10_000.0 + TRANSFERS));
+    }
+
+    @Test
+    public void testSessionsAreNotLogged(CapturedOutput output) {
+        accountService.transfer("111", "222", Money.of(1.0));
+
+        assertThat(output).doesNotContain("Session Metrics");
+    }
+}
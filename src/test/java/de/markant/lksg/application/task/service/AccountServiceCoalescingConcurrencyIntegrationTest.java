@@ -0,0 +1,91 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.exception.ResourceNotFoundException;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the concurrency scenarios of AccountServiceConcurrencyIntegrationTest with transfer coalescing enabled,
+ * where concurrent transfers are applied in batches, and checks that a failing batch does not fail the callers
+ * whose transfers can be applied alone.
+ */
+@TestPropertySource(properties = {
+        "banking.transfer.coalescing.enabled=true",
+        "banking.transfer.coalescing.max-wait-ms=5",
+        "banking.transfer.coalescing.max-batch-size=16"
+})
+public class AccountServiceCoalescingConcurrencyIntegrationTest extends AccountServiceConcurrencyIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testEveryCallerGetsItsOwnOutcome() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(12);
+        List<CompletableFuture<Money>> futures = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            int caller = i;
+            futures.add(CompletableFuture.supplyAsync(() -> switch (caller % 3) {
+                case 0 -> accountService.transfer("111", "222", Money.of(10.0)).getNewBalance();
+                case 1 -> accountService.transfer("111", "UNKNOWN", Money.of(10.0)).getNewBalance();
+                default -> accountService.transfer("222", "111", Money.of(20_000.0)).getNewBalance();
+            }, executor));
+        }
+        executor.shutdown();
+
+        for (int i = 0; i < futures.size(); i++) {
+            CompletableFuture<Money> future = futures.get(i);
+            switch (i % 3) {
+                case 0 -> assertThat(future.get()).isNotNull();
+                case 1 -> assertThat(assertThrows(Exception.class, future::get)).hasCauseInstanceOf(ResourceNotFoundException.class);
+                default -> assertThat(assertThrows(Exception.class, future::get)).cause()
+                        .isInstanceOf(TransactionException.class).hasMessage("Insufficient balance for transfer!");
+            }
+        }
+        assertThat(accountService.findAccountByNr("111").getBalance()).isEqualTo(Money.of(9_960.0));
+        assertThat(accountService.findAccountByNr("222").getBalance()).isEqualTo(Money.of(10_040.0));
+        assertThat(accountService.getTransactionsForAccount("222")).extracting(Transaction::getTransactionId).doesNotContainNull().hasSize(4);
+        assertThat(meterRegistry.get(TransferCoalescer.BATCH_SIZE_METRIC).summary().count()).isPositive();
+    }
+
+    @Test
+    public void testFailedBatchIsAppliedTransferByTransfer() throws Exception {
+        accountService.createAccount("999", Money.ofMinor(Long.MAX_VALUE - 100));
+        ExecutorService executor = Executors.newFixedThreadPool(12);
+        List<CompletableFuture<Money>> futures = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            // Every third transfer overflows the target balance, which fails the whole batch it is part of
+            String target = i % 3 == 0 ? "999" : "222";
+            futures.add(CompletableFuture.supplyAsync(() -> accountService.transfer("111", target, Money.of(10.0)).getNewBalance(), executor));
+        }
+        executor.shutdown();
+
+        for (int i = 0; i < futures.size(); i++) {
+            if (i % 3 == 0) {
+                assertThat(assertThrows(Exception.class, futures.get(i)::get)).hasCauseInstanceOf(ArithmeticException.class);
+            } else {
+                assertThat(futures.get(i).get()).isNotNull();
+            }
+        }
+        assertThat(accountService.findAccountByNr("111").getBalance()).isEqualTo(Money.of(9_920.0));
+        assertThat(accountService.findAccountByNr("222").getBalance()).isEqualTo(Money.of(10_080.0));
+        assertThat(accountService.findAccountByNr("999").getBalance()).isEqualTo(Money.ofMinor(Long.MAX_VALUE - 100));
+    }
+}
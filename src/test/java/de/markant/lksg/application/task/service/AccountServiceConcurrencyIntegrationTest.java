@@ -0,0 +1,139 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.BankingJpaTest;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import de.markant.lksg.application.task.repository.BalanceSnapshotRepository;
+import de.markant.lksg.application.task.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs deposits, withdrawals and transfers from many threads against the real persistence layer
+ * and checks that no balance update is lost.
+ */
+@BankingJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Every operation commits on its own thread
+public class AccountServiceConcurrencyIntegrationTest {
+
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 100;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @BeforeEach
+    public void setup() {
+        balanceSnapshotRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        accountService.createAccount("111", Money.of(10_000.0));
+        accountService.createAccount("222", Money.of(10_000.0));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        balanceSnapshotRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    public void testConcurrentDepositsAndWithdrawalsAreNotLost() throws Exception {
+        runConcurrently(thread -> {
+            if (thread % 2 == 0) {
+                accountService.deposit("111", Money.of(2.0));
+            } else {
+                accountService.withdraw("111", Money.of(1.0));
+            }
+        });
+
+        double expected = 10_000.0 + (THREADS / 2) * OPERATIONS_PER_THREAD * (2.0 - 1.0);
+        assertThat(accountService.findAccountByNr("111").getBalance()).isEqualTo(Money.of(expected));
+        assertThat(transactionRepository.count()).isEqualTo((long) THREADS * OPERATIONS_PER_THREAD);
+    }
+
+    @Test
+    public void testConcurrentOpposingTransfersKeepTotalBalance() throws Exception {
+        runConcurrently(thread -> {
+            if (thread % 2 == 0) {
+                accountService.transfer("111", "222", Money.of(3.0));
+            } else {
+                accountService.transfer("222", "111", Money.of(1.0));
+            }
+        });
+
+        double moved = (THREADS / 2) * OPERATIONS_PER_THREAD * (3.0 - 1.0);
+        assertThat(accountService.findAccountByNr("111").getBalance()).isEqualTo(Money.of(10_000.0 - moved));
+        assertThat(accountService.findAccountByNr("222").getBalance()).isEqualTo(Money.of(10_000.0 + moved));
+    }
+
+    @Test
+    public void testConcurrentWithdrawalsNeverOverdraw() throws Exception {
+        AtomicInteger succeeded = new AtomicInteger();
+        runConcurrently(thread -> {
+            try {
+                accountService.withdraw("111", Money.of(30.0));
+                succeeded.incrementAndGet();
+            } catch (TransactionException e) {
+                assertThat(e.getMessage()).isEqualTo("Insufficient balance");
+            }
+        });
+
+        // 24,000 are requested from 10,000, so exactly floor(10,000 / 30) withdrawals can succeed
+        assertThat(succeeded.get()).isEqualTo(333);
+        assertThat(accountService.findAccountByNr("111").getBalance()).isEqualTo(Money.of(10.0));
+        assertThat(transactionRepository.count()).isEqualTo((long) succeeded.get());
+    }
+
+    private void runConcurrently(ThreadOperation operation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    operation.run(thread);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS); // Rethrows any failure of a worker
+        }
+        executor.shutdown();
+    }
+
+    @FunctionalInterface
+    private interface ThreadOperation {
+        void run(int thread);
+    }
+}
@@ -0,0 +1,14 @@
+package de.markant.lksg.application.task.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the concurrency scenarios of AccountServiceConcurrencyIntegrationTest with the event sourced ledger,
+ * where balances are derived from snapshots and the transaction log instead of being updated in place.
+ */
+@TestPropertySource(properties = {
+        "banking.ledger.mode=EVENT_SOURCED",
+        "banking.ledger.snapshot-interval=50"
+})
+public class AccountServiceEventSourcedConcurrencyIntegrationTest extends AccountServiceConcurrencyIntegrationTest {
+}
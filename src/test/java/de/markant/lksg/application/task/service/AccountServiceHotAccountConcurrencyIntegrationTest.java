@@ -0,0 +1,66 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.model.BalanceSlot;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.repository.BalanceSlotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the concurrency scenarios of AccountServiceConcurrencyIntegrationTest with account 111 marked as hot,
+ * so its credits go to balance slots and its debits and reads include the slots.
+ */
+@TestPropertySource(properties = {
+        "banking.hot-accounts.account-numbers=111",
+        "banking.hot-accounts.slots=4"
+})
+public class AccountServiceHotAccountConcurrencyIntegrationTest extends AccountServiceConcurrencyIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceSlotRepository balanceSlotRepository;
+
+    @Autowired
+    private HotAccountService hotAccountService;
+
+    @AfterEach
+    public void deleteSlots() {
+        balanceSlotRepository.deleteAll();
+    }
+
+    @Test
+    public void testCreditsToHotAccountGoToSlots() {
+        for (int i = 0; i < 20; i++) {
+            accountService.deposit("111", Money.of(5.0));
+            accountService.transfer("222", "111", Money.of(1.0));
+        }
+
+        Money slotTotal = balanceSlotRepository.findAll().stream().map(BalanceSlot::getBalance).reduce(Money.ZERO, Money::plus);
+        assertThat(balanceSlotRepository.count()).isEqualTo(4);
+        assertThat(slotTotal).isEqualTo(Money.of(120.0));
+        assertThat(accountService.findAccountByNr("111").getBalance()).isEqualTo(Money.of(10_120.0));
+
+        // A debit moves the slots back into the account
+        assertThat(accountService.withdraw("111", Money.of(10_100.0)).getNewBalance()).isEqualTo(Money.of(20.0));
+        assertThat(balanceSlotRepository.findAll()).allMatch(slot -> slot.getBalance().signum() == 0);
+        assertThat(accountService.findAccountByNr("111").getBalance()).isEqualTo(Money.of(20.0));
+    }
+
+    @Test
+    public void testSlotsAreCreatedWithTheAccountAndOnStartup() {
+        assertThat(balanceSlotRepository.count()).isEqualTo(4);
+
+        // An account that existed before it was configured as hot gets its slots on startup
+        balanceSlotRepository.deleteAll();
+        hotAccountService.start();
+        assertThat(balanceSlotRepository.count()).isEqualTo(4);
+        hotAccountService.start();
+        assertThat(balanceSlotRepository.count()).isEqualTo(4);
+    }
+}
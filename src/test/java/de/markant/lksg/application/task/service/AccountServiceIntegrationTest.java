@@ -3,6 +3,7 @@ package de.markant.lksg.application.task.service;
 import de.markant.lksg.application.task.exception.ResourceNotFoundException;
 import de.markant.lksg.application.task.exception.TransactionException;
 import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
 import de.markant.lksg.application.task.model.Transaction;
 import de.markant.lksg.application.task.model.TransactionType;
 import de.markant.lksg.application.task.repository.AccountRepository;
@@ -43,7 +44,7 @@ public class AccountServiceIntegrationTest {
     @Test
     public void testCreateAccount() {
         String accountNumber = "123456";
-        double initialBalance = 100.0;
+        Money initialBalance = Money.of(100.0);
 
         Account account = accountService.createAccount(accountNumber, initialBalance);
 
@@ -55,7 +56,7 @@ public class AccountServiceIntegrationTest {
     @Test
     public void testCreateAccount_AccountAlreadyExists() {
         String accountNumber = "123456";
-        double initialBalance = 100.0;
+        Money initialBalance = Money.of(100.0);
 
         accountService.createAccount(accountNumber, initialBalance);
 
@@ -69,14 +70,14 @@ public class AccountServiceIntegrationTest {
     @Test
     public void testDeposit() {
         String accountNumber = "123456";
-        double initialBalance = 100.0;
+        Money initialBalance = Money.of(100.0);
         accountService.createAccount(accountNumber, initialBalance);
 
-        double depositAmount = 50.0;
+        Money depositAmount = Money.of(50.0);
         accountService.deposit(accountNumber, depositAmount);
 
         Account account = accountService.findAccountByNr(accountNumber);
-        assertThat(account.getBalance()).isEqualTo(initialBalance + depositAmount);
+        assertThat(account.getBalance()).isEqualTo(initialBalance.plus(depositAmount));
 
         List<Transaction> transactions = accountService.getTransactionsForAccount(accountNumber);
         assertThat(transactions).hasSize(1);
@@ -87,14 +88,14 @@ public class AccountServiceIntegrationTest {
     @Test
     public void testWithdraw() {
         String accountNumber = "123456";
-        double initialBalance = 100.0;
+        Money initialBalance = Money.of(100.0);
         accountService.createAccount(accountNumber, initialBalance);
 
-        double withdrawAmount = 30.0;
+        Money withdrawAmount = Money.of(30.0);
         accountService.withdraw(accountNumber, withdrawAmount);
 
         Account account = accountService.findAccountByNr(accountNumber);
-        assertThat(account.getBalance()).isEqualTo(initialBalance - withdrawAmount);
+        assertThat(account.getBalance()).isEqualTo(initialBalance.minus(withdrawAmount));
 
         List<Transaction> transactions = accountService.getTransactionsForAccount(accountNumber);
         assertThat(transactions).hasSize(1);
@@ -105,11 +106,11 @@ public class AccountServiceIntegrationTest {
     @Test
     public void testWithdraw_InsufficientBalance() {
         String accountNumber = "123456";
-        double initialBalance = 50.0;
+        Money initialBalance = Money.of(50.0);
         accountService.createAccount(accountNumber, initialBalance);
 
         TransactionException exception = assertThrows(TransactionException.class, () -> {
-            accountService.withdraw(accountNumber, 100.0);
+            accountService.withdraw(accountNumber, Money.of(100.0));
         });
 
         assertThat(exception.getMessage()).contains("Insufficient balance");
@@ -119,17 +120,17 @@ public class AccountServiceIntegrationTest {
     public void testTransfer() {
         String sourceAccountNumber = "123456";
         String targetAccountNumber = "654321";
-        accountService.createAccount(sourceAccountNumber, 200.0);
-        accountService.createAccount(targetAccountNumber, 100.0);
+        accountService.createAccount(sourceAccountNumber, Money.of(200.0));
+        accountService.createAccount(targetAccountNumber, Money.of(100.0));
 
-        double transferAmount = 50.0;
+        Money transferAmount = Money.of(50.0);
         accountService.transfer(sourceAccountNumber, targetAccountNumber, transferAmount);
 
         Account sourceAccount = accountService.findAccountByNr(sourceAccountNumber);
         Account targetAccount = accountService.findAccountByNr(targetAccountNumber);
 
-        assertThat(sourceAccount.getBalance()).isEqualTo(200.0 - transferAmount);
-        assertThat(targetAccount.getBalance()).isEqualTo(100.0 + transferAmount);
+        assertThat(sourceAccount.getBalance()).isEqualTo(Money.of(200.0).minus(transferAmount));
+        assertThat(targetAccount.getBalance()).isEqualTo(Money.of(100.0).plus(transferAmount));
 
         List<Transaction> sourceTransactions = accountService.getTransactionsForAccount(sourceAccountNumber);
         List<Transaction> targetTransactions = accountService.getTransactionsForAccount(targetAccountNumber);
@@ -146,7 +147,7 @@ public class AccountServiceIntegrationTest {
     @Test
     public void testDeleteAccount() {
         String accountNumber = "123456";
-        accountService.createAccount(accountNumber, 100.0);
+        accountService.createAccount(accountNumber, Money.of(100.0));
 
         accountService.deleteAccount(accountNumber);
 
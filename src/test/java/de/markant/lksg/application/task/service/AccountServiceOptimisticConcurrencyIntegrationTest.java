@@ -0,0 +1,17 @@
+package de.markant.lksg.application.task.service;
+
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Runs the concurrency scenarios of AccountServiceConcurrencyIntegrationTest in optimistic mode,
+ * where conflicting updates are detected by the account version and retried.
+ */
+@TestPropertySource(properties = {
+        "banking.concurrency.mode=OPTIMISTIC",
+        "banking.optimistic.max-attempts=1000",
+        "banking.optimistic.operations.transfer.max-attempts=1000",
+        "banking.optimistic.initial-backoff-ms=1",
+        "banking.optimistic.max-backoff-ms=10"
+})
+public class AccountServiceOptimisticConcurrencyIntegrationTest extends AccountServiceConcurrencyIntegrationTest {
+}
@@ -1,17 +1,34 @@
 package de.markant.lksg.application.task.service;
 
+import de.markant.lksg.application.task.constants.Constants;
+import de.markant.lksg.application.task.dto.AccountDto;
+import de.markant.lksg.application.task.dto.AccountPageDto;
+import de.markant.lksg.application.task.dto.TransactionResultDto;
+import de.markant.lksg.application.task.engine.BalanceEngine;
 import de.markant.lksg.application.task.exception.ResourceNotFoundException;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.feed.TransactionFeed;
+import de.markant.lksg.application.task.journal.TransactionJournal;
 import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
 import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.outbox.TransactionOutbox;
 import de.markant.lksg.application.task.repository.AccountRepository;
 import de.markant.lksg.application.task.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,27 +46,101 @@ class AccountServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private BalanceEngine balanceEngine;
+
+    @Mock
+    private TransactionJournal transactionJournal;
+
+    @Mock
+    private AsyncLedgerWriter ledgerWriter;
+
+    @Mock
+    private HotAccountService hotAccountService;
+
+    @Mock
+    private TransferCoalescer transferCoalescer;
+
+    @Mock
+    private DailySummaryService dailySummaryService;
+
+    @Mock
+    private TransactionFeed transactionFeed;
+
+    @Mock
+    private TransactionOutbox transactionOutbox;
+
+    @Spy
+    private AccountUpdateExecutor accountUpdateExecutor = new AccountUpdateExecutor(new AccountLockManager(16, 1000),
+            null, new TransactionTemplate(mock(PlatformTransactionManager.class)), ConcurrencyMode.LOCKING);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private AccountCache accountCache = new AccountCache(100, 60, meterRegistry);
+
+    @Spy
+    private BankingMetrics bankingMetrics = new BankingMetrics(meterRegistry);
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(accountService, "ledgerService", new LedgerService(accountRepository, transactionRepository,
+                null, null, transactionJournal, ledgerWriter, hotAccountService, dailySummaryService, transactionFeed, transactionOutbox, LedgerMode.STATE, 100, ConcurrencyMode.LOCKING));
+    }
+
+    @Test
+    void testGetAccountPage() {
+        PageRequest request = PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "balance").and(Sort.by(Sort.Direction.DESC, "accountNr")));
+        when(accountRepository.findAccountPage(request))
+                .thenReturn(new SliceImpl<>(List.of(new AccountDto("12345", Money.of(1000.0)), new AccountDto("67890", Money.of(500.0))), request, true));
+
+        AccountPageDto page = accountService.getAccountPage(1, 2, "balance", Sort.Direction.DESC);
+
+        assertEquals(2, page.getAccounts().size());
+        assertEquals(1, page.getPage());
+        assertTrue(page.isHasMore());
     }
 
     @Test
-    void testGetAllAccounts() {
-        when(accountRepository.findAll()).thenReturn(Collections.singletonList(new Account("12345", 1000.0)));
-        List<Account> accounts = accountService.getAllAccounts();
-        assertFalse(accounts.isEmpty());
+    void testGetAccountPageRejectsUnknownSortProperty() {
+        Exception exception = assertThrows(TransactionException.class,
+                () -> accountService.getAccountPage(0, 10, "transactions", Sort.Direction.ASC));
+        assertEquals(Constants.INVALID_ACCOUNT_SORT, exception.getMessage());
+        verifyNoInteractions(accountRepository);
     }
 
     @Test
     void testFindAccountByNrFound() {
-        when(accountRepository.findAccountByAccountNr("12345")).thenReturn(Optional.of(new Account("12345", 1000.0)));
+        when(accountRepository.findAccountByAccountNr("12345")).thenReturn(Optional.of(new Account("12345", Money.of(1000.0))));
 
         Account account = accountService.findAccountByNr("12345");
         assertNotNull(account);
         assertEquals("12345", account.getAccountNr());
     }
 
+    @Test
+    void testFindAccountByNrIsCached() {
+        when(accountRepository.findAccountByAccountNr("12345")).thenReturn(Optional.of(new Account("12345", Money.of(1000.0))));
+
+        accountService.findAccountByNr("12345");
+        Account account = accountService.findAccountByNr("12345");
+
+        assertEquals(Money.of(1000.0), account.getBalance());
+        verify(accountRepository, times(1)).findAccountByAccountNr("12345");
+    }
+
+    @Test
+    void testDepositUpdatesCachedAccount() {
+        Account account = new Account("12345", Money.of(1000.0));
+        when(accountRepository.findAccountByAccountNr("12345")).thenReturn(Optional.of(account));
+        accountService.findAccountByNr("12345");
+
+        accountService.deposit("12345", Money.of(500.0));
+
+        assertEquals(Money.of(1500.0), accountService.findAccountByNr("12345").getBalance());
+    }
+
     @Test
     void testFindAccountByNrNotFound() {
         when(accountRepository.findAccountByAccountNr("12345")).thenReturn(Optional.empty());
@@ -62,49 +153,100 @@ class AccountServiceTest {
 
     @Test
     void testCreateAccount() {
-        Account account = new Account("12345", 1000.0);
+        Account account = new Account("12345", Money.of(1000.0));
         when(accountRepository.findAccountByAccountNr("12345")).thenReturn(Optional.empty());
         when(accountRepository.save(any())).thenReturn(account);
 
-        Account createdAccount = accountService.createAccount("12345", 1000.0);
+        Account createdAccount = accountService.createAccount("12345", Money.of(1000.0));
         assertNotNull(createdAccount);
         assertEquals("12345", createdAccount.getAccountNr());
     }
 
     @Test
     void testDeposit() {
-        Account account = new Account("12345", 1000.0);
+        Account account = new Account("12345", Money.of(1000.0));
         when(accountRepository.findAccountByAccountNr("12345")).thenReturn(Optional.of(account));
 
-        accountService.deposit("12345", 500.0);
-        assertEquals(1500.0, account.getBalance());
+        TransactionResultDto result = accountService.deposit("12345", Money.of(500.0));
+        assertEquals(Money.of(1500.0), account.getBalance());
+        assertEquals(Money.of(1500.0), result.getNewBalance());
+        assertEquals(Money.of(500.0), result.getAmount());
+    }
+
+    @Test
+    void testDepositRecordsMetrics() {
+        when(accountRepository.findAccountByAccountNr("12345")).thenReturn(Optional.of(new Account("12345", Money.of(1000.0))));
+
+        accountService.deposit("12345", Money.of(500.0));
+
+        assertEquals(1, meterRegistry.get(BankingMetrics.DURATION_METRIC)
+                .tags("type", "DEPOSIT", "outcome", "success").timer().count());
+        assertEquals(500.0, meterRegistry.get(BankingMetrics.AMOUNT_METRIC)
+                .tag("type", "DEPOSIT").summary().totalAmount());
+    }
+
+    @Test
+    void testFailedWithdrawRecordsException() {
+        when(accountRepository.findAccountByAccountNr("12345")).thenReturn(Optional.of(new Account("12345", Money.of(100.0))));
+
+        assertThrows(TransactionException.class, () -> accountService.withdraw("12345", Money.of(500.0)));
+
+        assertEquals(1, meterRegistry.get(BankingMetrics.DURATION_METRIC)
+                .tags("type", "WITHDRAWAL", "outcome", "failure", "exception", "TransactionException").timer().count());
+        assertNull(meterRegistry.find(BankingMetrics.AMOUNT_METRIC).summary());
     }
 
     @Test
     void testWithdraw() {
-        Account account = new Account("12345", 1000.0);
+        Account account = new Account("12345", Money.of(1000.0));
         when(accountRepository.findAccountByAccountNr("12345")).thenReturn(Optional.of(account));
 
-        accountService.withdraw("12345", 500.0);
-        assertEquals(500.0, account.getBalance());
+        accountService.withdraw("12345", Money.of(500.0));
+        assertEquals(Money.of(500.0), account.getBalance());
+    }
+
+    @Test
+    void testAtomicWithdrawIsOneConditionalUpdate() {
+        doReturn(true).when(accountUpdateExecutor).isAtomic();
+        when(accountRepository.debit("12345", 50000)).thenReturn(1);
+        when(accountRepository.findAccountByAccountNr("12345")).thenReturn(Optional.of(new Account("12345", Money.of(500.0))));
+
+        TransactionResultDto result = accountService.withdraw("12345", Money.of(500.0));
+
+        assertEquals(Money.of(500.0), result.getNewBalance());
+        verify(accountRepository).debit("12345", 50000);
+        verify(transactionRepository).saveAll(argThat(transactions -> ((List<Transaction>) transactions).get(0).getOldBalance().equals(Money.of(1000.0))));
+    }
+
+    @Test
+    void testAtomicWithdrawTellsInsufficientBalanceFromMissingAccount() {
+        doReturn(true).when(accountUpdateExecutor).isAtomic();
+        when(accountRepository.debit(anyString(), anyLong())).thenReturn(0);
+        when(accountRepository.findAccountByAccountNr("12345")).thenReturn(Optional.of(new Account("12345", Money.of(100.0))));
+
+        TransactionException insufficient = assertThrows(TransactionException.class, () -> accountService.withdraw("12345", Money.of(500.0)));
+        assertEquals("Insufficient balance", insufficient.getMessage());
+        assertThrows(ResourceNotFoundException.class, () -> accountService.withdraw("99999", Money.of(500.0)));
     }
 
     @Test
     void testTransfer() {
-        Account sourceAccount = new Account("12345", 1000.0);
-        Account targetAccount = new Account("67890", 500.0);
+        Account sourceAccount = new Account("12345", Money.of(1000.0));
+        Account targetAccount = new Account("67890", Money.of(500.0));
         when(accountRepository.findAccountByAccountNr("12345")).thenReturn(Optional.of(sourceAccount));
         when(accountRepository.findAccountByAccountNr("67890")).thenReturn(Optional.of(targetAccount));
 
-        accountService.transfer("12345", "67890", 300.0);
-        assertEquals(700.0, sourceAccount.getBalance());
-        assertEquals(800.0, targetAccount.getBalance());
+        TransactionResultDto result = accountService.transfer("12345", "67890", Money.of(300.0));
+        assertEquals(Money.of(700.0), sourceAccount.getBalance());
+        assertEquals(Money.of(800.0), targetAccount.getBalance());
+        assertEquals(Money.of(700.0), result.getNewBalance());
+        assertEquals(Money.of(800.0), result.getTargetNewBalance());
     }
 
 
     @Test
     void testDeleteAccount() {
-        Account account = new Account("12345", 1000.0);
+        Account account = new Account("12345", Money.of(1000.0));
         when(accountRepository.findAccountByAccountNr("12345")).thenReturn(Optional.of(account));
         doNothing().when(accountRepository).delete(account);
         accountService.deleteAccount("12345");
@@ -0,0 +1,143 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.BankingJpaTest;
+import de.markant.lksg.application.task.dto.TransactionResultDto;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.LedgerDeadLetter;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import de.markant.lksg.application.task.repository.LedgerDeadLetterRepository;
+import de.markant.lksg.application.task.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that with the asynchronous ledger writer balance updates return their final transaction ids
+ * and every transaction is inserted, also when the writer is stopped right after the updates, and that a
+ * transaction the database rejects is kept in the dead letter table without stopping the writer.
+ */
+@BankingJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Every operation commits its own transaction
+@TestPropertySource(properties = {"banking.ledger.writer.async=true", "banking.ledger.writer.batch-size=50"})
+public class AsyncLedgerWriterIntegrationTest {
+
+    private static final int TRANSFERS = 200;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AsyncLedgerWriter ledgerWriter;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private LedgerDeadLetterRepository deadLetterRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        ledgerWriter.start(); // No-op unless a test stopped it
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        accountService.createAccount("111", Money.of(1_000.0));
+        accountService.createAccount("222", Money.of(0.0));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        ledgerWriter.flush();
+        transactionRepository.deleteAll();
+        deadLetterRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    public void testTransactionsAreInsertedWithTheReturnedIds() {
+        List<TransactionResultDto> results = new ArrayList<>();
+        for (int i = 0; i < TRANSFERS; i++) {
+            results.add(accountService.transfer("111", "222", Money.of(1.0)));
+        }
+        assertThrows(TransactionException.class, () -> accountService.withdraw("222", Money.of(1_000.0)));
+
+        ledgerWriter.flush();
+
+        assertThat(transactionRepository.count()).isEqualTo(2L * TRANSFERS);
+        Transaction last = transactionRepository.findById(results.get(TRANSFERS - 1).getTransactionId()).orElseThrow();
+        assertThat(last.getNewBalance()).isEqualTo(Money.of(1_000.0 - TRANSFERS));
+        assertThat(results).extracting(TransactionResultDto::getTransactionId).doesNotHaveDuplicates();
+        assertThat(accountService.findAccountByNr("222").getBalance()).isEqualTo(Money.of(TRANSFERS));
+    }
+
+    @Test
+    public void testStopInsertsEverythingQueued() throws InterruptedException {
+        for (int i = 0; i < TRANSFERS; i++) {
+            accountService.deposit("111", Money.of(1.0));
+        }
+
+        ledgerWriter.stop();
+
+        assertThat(transactionRepository.count()).isEqualTo(TRANSFERS);
+    }
+
+    @Test
+    public void testRejectedTransactionIsMovedToTheDeadLetterTable() {
+        Account account = accountService.findAccountByNr("111");
+        Account missing = new Account("999", Money.of(0.0));
+        missing.setAccountId(-1L); // No such row, so the foreign key rejects the transaction
+        Transaction accepted = deposit(account);
+        Transaction rejected = deposit(missing);
+        double deadLettersBefore = meterRegistry.counter(AsyncLedgerWriter.DEAD_LETTER_METRIC).count();
+
+        transactionTemplate.executeWithoutResult(status -> ledgerWriter.writeAfterCommit(List.of(accepted, rejected)));
+        ledgerWriter.flush();
+
+        assertThat(transactionRepository.existsById(accepted.getTransactionId())).isTrue();
+        assertThat(transactionRepository.existsById(rejected.getTransactionId())).isFalse();
+        LedgerDeadLetter deadLetter = deadLetterRepository.findById(rejected.getTransactionId()).orElseThrow();
+        assertThat(deadLetter.getAccountNr()).isEqualTo("999");
+        assertThat(deadLetter.getTransactionAmount()).isEqualTo(Money.of(5.0));
+        assertThat(deadLetter.getError()).isNotBlank();
+        assertThat(meterRegistry.counter(AsyncLedgerWriter.DEAD_LETTER_METRIC).count()).isEqualTo(deadLettersBefore + 1);
+
+        // The writer keeps running and its capacity was returned
+        TransactionResultDto result = accountService.deposit("111", Money.of(1.0));
+        ledgerWriter.flush();
+        assertThat(transactionRepository.existsById(result.getTransactionId())).isTrue();
+    }
+
+    private static Transaction deposit(Account account) {
+        return Transaction.transactionBuilder()
+                .account(account)
+                .transactionType(TransactionType.DEPOSIT)
+                .oldBalance(Money.of(0.0))
+                .newBalance(Money.of(5.0))
+                .transactionAmount(Money.of(5.0))
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.BankingJpaTest;
+import de.markant.lksg.application.task.constants.Constants;
+import de.markant.lksg.application.task.dto.BulkTransferReportDto;
+import de.markant.lksg.application.task.dto.TransferDto;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import de.markant.lksg.application.task.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@BankingJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Every chunk commits its own transaction
+@TestPropertySource(properties = {"banking.bulk.chunk-size=100", "banking.locking.stripes=400", "banking.locking.timeout-ms=200"})
+public class BulkTransferServiceIntegrationTest {
+
+    private static final int ACCOUNTS = 10;
+    private static final int TRANSFERS = 2_000;
+
+    @Autowired
+    private BulkTransferService bulkTransferService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private AccountLockManager accountLockManager;
+
+    @BeforeEach
+    public void setup() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountService.createAccount("ACC-" + i, Money.of(100_000.0));
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    public void testTransferAll_ReportsEveryItem() {
+        List<TransferDto> transfers = List.of(
+                new TransferDto("ACC-0", "ACC-1", Money.of(100.0)),
+                new TransferDto("ACC-0", "ACC-1", Money.of(-5.0)),
+                new TransferDto("ACC-0", "UNKNOWN", Money.of(10.0)),
+                new TransferDto("ACC-1", "ACC-2", Money.of(1_000_000.0)),
+                new TransferDto("ACC-1", "ACC-2", Money.of(100_100.0))); // Only possible because of the first transfer
+
+        BulkTransferReportDto report = bulkTransferService.transferAll(transfers);
+
+        assertThat(report.getTotal()).isEqualTo(5);
+        assertThat(report.getSucceeded()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(3);
+        assertThat(report.getResults().get(1).getMessage()).isEqualTo("Invalid transfer amount.");
+        assertThat(report.getResults().get(2).getMessage()).isEqualTo("Account number UNKNOWN not found!");
+        assertThat(report.getResults().get(3).getMessage()).isEqualTo("Insufficient balance for transfer!");
+        assertThat(report.getResults().get(4).isSuccess()).isTrue();
+
+        assertThat(accountService.findAccountByNr("ACC-0").getBalance()).isEqualTo(Money.of(99_900.0));
+        assertThat(accountService.findAccountByNr("ACC-1").getBalance()).isEqualTo(Money.of(0.0));
+        assertThat(accountService.findAccountByNr("ACC-2").getBalance()).isEqualTo(Money.of(200_100.0));
+        assertThat(transactionRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    public void testTransferAll_FromNdjsonStopsAtMalformedLine() throws IOException {
+        String body = "{\"sourceAccountNumber\":\"ACC-0\",\"targetAccountNumber\":\"ACC-1\",\"transferAmount\":1.0}\n"
+                + "{\"sourceAccountNumber\":\"ACC-1\",\"targetAccountNumber\":\"ACC-2\",\"transferAmount\":2.0}\n"
+                + "{not json\n"
+                + "{\"sourceAccountNumber\":\"ACC-2\",\"targetAccountNumber\":\"ACC-3\",\"transferAmount\":3.0}\n";
+
+        BulkTransferReportDto report = bulkTransferService.transferAll(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.getSucceeded()).isEqualTo(2);
+        assertThat(report.getResults().get(2).getMessage()).isEqualTo("Malformed transfer.");
+        assertThat(accountService.findAccountByNr("ACC-3").getBalance()).isEqualTo(Money.of(100_000.0));
+    }
+
+    @Test
+    public void testTransferAll_ThroughputComparedToSingleTransfers() {
+        List<TransferDto> transfers = new ArrayList<>(TRANSFERS);
+        for (int i = 0; i < TRANSFERS; i++) {
+            transfers.add(new TransferDto("ACC-" + (i % ACCOUNTS), "ACC-" + ((i + 1) % ACCOUNTS), Money.of(1.0)));
+        }
+
+        long start = System.nanoTime();
+        for (TransferDto transfer : transfers) {
+            accountService.transfer(transfer.getSourceAccountNumber(), transfer.getTargetAccountNumber(), transfer.getTransferAmount());
+        }
+        long singleNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        BulkTransferReportDto report = bulkTransferService.transferAll(transfers);
+        long bulkNanos = System.nanoTime() - start;
+
+        assertThat(report.getSucceeded()).isEqualTo(TRANSFERS);
+        assertThat(transactionRepository.count()).isEqualTo(4L * TRANSFERS);
+        assertThat(bulkNanos).isLessThan(singleNanos);
+    }
+
+    @Test
+    public void testTransferAll_FailsOnlyTheChunkWithABusyAccount() throws Exception {
+        // 400 stripes limit the chunks to 50 transfers, so the busy account only fails the second chunk
+        List<TransferDto> transfers = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            transfers.add(new TransferDto("ACC-0", "ACC-1", Money.of(1.0)));
+        }
+        for (int i = 0; i < 10; i++) {
+            transfers.add(new TransferDto("ACC-8", "ACC-9", Money.of(1.0)));
+        }
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> accountLockManager.withLock("ACC-9", () -> {
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        holder.start();
+        locked.await();
+        BulkTransferReportDto report;
+        try {
+            report = bulkTransferService.transferAll(transfers);
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+
+        assertThat(report.getSucceeded()).isEqualTo(50);
+        assertThat(report.getFailed()).isEqualTo(10);
+        assertThat(report.getResults().get(50).getMessage()).isEqualTo(Constants.ACCOUNT_BUSY);
+        assertThat(accountService.findAccountByNr("ACC-1").getBalance()).isEqualTo(Money.of(100_050.0));
+        assertThat(accountService.findAccountByNr("ACC-9").getBalance()).isEqualTo(Money.of(100_000.0));
+    }
+}
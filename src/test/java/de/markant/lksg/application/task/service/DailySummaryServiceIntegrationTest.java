@@ -0,0 +1,170 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.BankingJpaTest;
+import de.markant.lksg.application.task.dto.AccountSummaryDto;
+import de.markant.lksg.application.task.dto.DailySummaryDto;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import de.markant.lksg.application.task.repository.BalanceSlotRepository;
+import de.markant.lksg.application.task.repository.DailySummaryRepository;
+import de.markant.lksg.application.task.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that the daily summaries follow every balance update and that the balances derived from them
+ * match the account's balance and the summaries rebuilt from the transaction table.
+ */
+@BankingJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Every operation commits its own transaction
+@TestPropertySource(properties = {
+        "banking.summaries.enabled=true",
+        "banking.hot-accounts.account-numbers=333",
+        "banking.hot-accounts.slots=4"
+})
+public class DailySummaryServiceIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private DailySummaryService dailySummaryService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private DailySummaryRepository dailySummaryRepository;
+
+    @Autowired
+    private BalanceSlotRepository balanceSlotRepository;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    public void setup() {
+        cleanup();
+        Account account = accountService.createAccount("111", Money.of(1_000.0));
+        accountService.createInitialTransaction(account);
+        accountService.createAccount("222", Money.of(0.0));
+        accountService.createAccount("333", Money.of(0.0));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        dailySummaryRepository.deleteAll();
+        balanceSlotRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    public void testSummariesFollowBalanceUpdates() {
+        for (int i = 0; i < 5; i++) {
+            accountService.deposit("111", Money.of(10.0));
+        }
+        accountService.withdraw("111", Money.of(50.0));
+        accountService.transfer("111", "222", Money.of(100.0));
+
+        AccountSummaryDto summary = accountService.getDailySummary("111", today.minusDays(1), today);
+
+        assertThat(summary.getOpeningBalance()).isEqualTo(Money.ZERO);
+        assertThat(summary.getClosingBalance()).isEqualTo(Money.of(900.0));
+        assertThat(summary.getDays()).extracting(DailySummaryDto::getDate).containsExactly(today.minusDays(1), today);
+        assertThat(summary.getDays().get(0).getTransactions()).isEmpty();
+        assertThat(summary.getDays().get(1).getOpeningBalance()).isEqualTo(Money.ZERO);
+        assertThat(summary.getTotals().get(TransactionType.ACCOUNT_CREATION).getTotal()).isEqualTo(Money.of(1_000.0));
+        assertThat(summary.getTotals().get(TransactionType.DEPOSIT).getCount()).isEqualTo(5);
+        assertThat(summary.getTotals().get(TransactionType.DEPOSIT).getTotal()).isEqualTo(Money.of(50.0));
+        assertThat(summary.getTotals().get(TransactionType.WITHDRAWAL).getBalanceChange()).isEqualTo(Money.of(-50.0));
+        assertThat(summary.getTotals().get(TransactionType.TRANSFER).getBalanceChange()).isEqualTo(Money.of(-100.0));
+
+        AccountSummaryDto target = accountService.getDailySummary("222", today, today);
+        assertThat(target.getTotals().get(TransactionType.TRANSFER).getBalanceChange()).isEqualTo(Money.of(100.0));
+        assertThat(target.getClosingBalance()).isEqualTo(Money.of(100.0));
+    }
+
+    @Test
+    public void testCreditsToHotAccountsAreSummedOverSlots() {
+        for (int i = 0; i < 20; i++) {
+            accountService.deposit("333", Money.of(1.0));
+        }
+        accountService.transfer("111", "333", Money.of(5.0));
+        accountService.withdraw("333", Money.of(10.0));
+
+        AccountSummaryDto summary = accountService.getDailySummary("333", today, today);
+
+        assertThat(summary.getTotals().get(TransactionType.DEPOSIT).getCount()).isEqualTo(20);
+        assertThat(summary.getTotals().get(TransactionType.TRANSFER).getTotal()).isEqualTo(Money.of(5.0));
+        assertThat(summary.getOpeningBalance()).isEqualTo(Money.ZERO);
+        assertThat(summary.getClosingBalance()).isEqualTo(Money.of(15.0));
+        assertThat(summary.getClosingBalance()).isEqualTo(accountService.findAccountByNr("333").getBalance());
+    }
+
+    @Test
+    public void testRebuildMatchesIncrementalSummaries() {
+        accountService.deposit("111", Money.of(10.0));
+        accountService.transfer("111", "222", Money.of(100.0));
+        accountService.deposit("333", Money.of(7.0));
+        List<AccountSummaryDto> incremental = List.of(accountService.getDailySummary("111", today, today),
+                accountService.getDailySummary("222", today, today), accountService.getDailySummary("333", today, today));
+
+        dailySummaryService.rebuild();
+
+        List<AccountSummaryDto> rebuilt = List.of(accountService.getDailySummary("111", today, today),
+                accountService.getDailySummary("222", today, today), accountService.getDailySummary("333", today, today));
+        assertThat(rebuilt).isEqualTo(incremental);
+    }
+
+    @Test
+    public void testBalancesOfPastDaysAreDerived() {
+        Account account = accountService.createAccount("444", Money.of(150.0));
+        transactionRepository.saveAll(List.of(
+                transaction(account, TransactionType.DEPOSIT, 0.0, 200.0, 3),
+                transaction(account, TransactionType.WITHDRAWAL, 200.0, 150.0, 2)));
+        dailySummaryService.rebuild();
+
+        AccountSummaryDto summary = accountService.getDailySummary("444", today.minusDays(4), today.minusDays(1));
+
+        assertThat(summary.getDays()).extracting(DailySummaryDto::getClosingBalance)
+                .containsExactly(Money.ZERO, Money.of(200.0), Money.of(150.0), Money.of(150.0));
+        assertThat(summary.getOpeningBalance()).isEqualTo(Money.ZERO);
+        assertThat(summary.getClosingBalance()).isEqualTo(Money.of(150.0));
+        assertThat(summary.getTotals().get(TransactionType.WITHDRAWAL).getTotal()).isEqualTo(Money.of(50.0));
+    }
+
+    @Test
+    public void testInvalidRangesAreRejected() {
+        assertThrows(TransactionException.class, () -> accountService.getDailySummary("111", today, today.minusDays(1)));
+        assertThrows(TransactionException.class, () -> accountService.getDailySummary("111", today.minusYears(2), today));
+    }
+
+    private Transaction transaction(Account account, TransactionType type, double oldBalance, double newBalance, int daysAgo) {
+        return Transaction.transactionBuilder()
+                .account(account)
+                .transactionType(type)
+                .oldBalance(Money.of(oldBalance))
+                .newBalance(Money.of(newBalance))
+                .transactionAmount(Money.of(Math.abs(newBalance - oldBalance)))
+                .timeStamp(today.minusDays(daysAgo).atTime(12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package de.markant.lksg.application.task.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.markant.lksg.application.task.config.IdempotencyProperties;
+import de.markant.lksg.application.task.dto.TransactionResponseDto;
+import de.markant.lksg.application.task.exception.IdempotencyKeyException;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Keys are claimed in their own transactions
+@Import({IdempotencyStore.class, IdempotencyProperties.class})
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, MetricsAutoConfiguration.class, SimpleMetricsExportAutoConfiguration.class})
+@TestPropertySource(properties = "banking.idempotency.persistent=true")
+public class IdempotencyStoreIntegrationTest {
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private IdempotencyProperties properties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    public void cleanup() {
+        repository.deleteAll();
+    }
+
+    @Test
+    public void testResponseIsReplayedFromTheDatabase() {
+        TransactionResponseDto response = TransactionResponseDto.builder()
+                .message("Amount 10.00 deposited successfully!")
+                .transactionId(7L)
+                .newBalance(Money.of(110.0))
+                .timeStamp(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .build();
+        idempotencyStore.execute("persisted-1", "deposit 123 10.00", () -> response);
+
+        // Another instance, or this one after a restart, only knows the database
+        IdempotencyStore restarted = new IdempotencyStore(properties, repository, objectMapper, new SimpleMeterRegistry());
+        IdempotencyStore.Result replay = restarted.execute("persisted-1", "deposit 123 10.00", () -> {
+            throw new AssertionError("Executed twice");
+        });
+
+        assertThat(replay.replayed()).isTrue();
+        assertThat(replay.response()).isEqualTo(response);
+    }
+
+    @Test
+    public void testKeyIsReleasedWhenTheResponseCannotBeStored() {
+        IdempotencyRecordRepository failingRepository = mock(IdempotencyRecordRepository.class, delegatesTo(repository));
+        doThrow(new DataAccessResourceFailureException("Connection lost")).when(failingRepository).complete(anyString(), anyString());
+        IdempotencyStore store = new IdempotencyStore(properties, failingRepository, objectMapper, new SimpleMeterRegistry());
+        TransactionResponseDto response = TransactionResponseDto.builder().message("Amount 10.00 deposited successfully!").build();
+
+        IdempotencyStore.Result result = store.execute("unstored-1", "deposit 123 10.00", () -> response);
+
+        assertThat(result.replayed()).isFalse();
+        assertThat(result.response()).isEqualTo(response);
+        assertThat(repository.findById("unstored-1")).isEmpty();
+        assertThat(store.execute("unstored-1", "deposit 123 10.00", () -> {
+            throw new AssertionError("Executed twice");
+        }).replayed()).isTrue();
+    }
+
+    @Test
+    public void testClaimedKeyWithoutResponseIsInProgress() {
+        repository.claim("claimed-1", "withdraw 123 5.00", LocalDateTime.now().minusDays(2));
+
+        IdempotencyKeyException exception = assertThrows(IdempotencyKeyException.class,
+                () -> idempotencyStore.execute("claimed-1", "withdraw 123 5.00", () -> null));
+
+        assertThat(exception.getStatus()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(idempotencyStore.purge()).isEqualTo(1);
+        assertThat(repository.findById("claimed-1")).isEmpty();
+    }
+}
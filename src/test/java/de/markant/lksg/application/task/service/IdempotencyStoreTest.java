@@ -0,0 +1,111 @@
+package de.markant.lksg.application.task.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.markant.lksg.application.task.config.IdempotencyProperties;
+import de.markant.lksg.application.task.dto.TransactionResponseDto;
+import de.markant.lksg.application.task.exception.IdempotencyKeyException;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class IdempotencyStoreTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+
+    private final IdempotencyStore idempotencyStore = new IdempotencyStore(new IdempotencyProperties(), repository, new ObjectMapper(), meterRegistry);
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @Test
+    void testRepeatedRequestReturnsOriginalResponse() {
+        IdempotencyStore.Result first = idempotencyStore.execute("key-1", "deposit 123 10.00", this::deposit);
+        IdempotencyStore.Result second = idempotencyStore.execute("key-1", "deposit 123 10.00", this::deposit);
+
+        assertFalse(first.replayed());
+        assertTrue(second.replayed());
+        assertSame(first.response(), second.response());
+        assertEquals(1, executions.get());
+        assertEquals(1.0, meterRegistry.get(IdempotencyStore.REPLAYS_METRIC).counter().count());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequestIsRejected() {
+        idempotencyStore.execute("key-1", "deposit 123 10.00", this::deposit);
+
+        IdempotencyKeyException exception = assertThrows(IdempotencyKeyException.class,
+                () -> idempotencyStore.execute("key-1", "deposit 123 20.00", this::deposit));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exception.getStatus());
+        assertEquals(1, executions.get());
+        assertThrows(TransactionException.class, () -> idempotencyStore.execute(" ", "deposit 123 10.00", this::deposit));
+    }
+
+    @Test
+    void testFailedRequestIsNotRemembered() {
+        assertThrows(TransactionException.class, () -> idempotencyStore.execute("key-1", "withdraw 123 10.00", () -> {
+            throw new TransactionException("Insufficient balance");
+        }));
+
+        IdempotencyStore.Result retry = idempotencyStore.execute("key-1", "withdraw 123 10.00", this::deposit);
+
+        assertFalse(retry.replayed());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testConcurrentRepetitionsExecuteOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<IdempotencyStore.Result> first = executor.submit(() -> idempotencyStore.execute("key-1", "transfer 1 2 5.00", () -> {
+                started.countDown();
+                await(release);
+                return deposit();
+            }));
+            started.await();
+            Future<IdempotencyStore.Result> second = executor.submit(() -> idempotencyStore.execute("key-1", "transfer 1 2 5.00", this::deposit));
+            Future<IdempotencyStore.Result> third = executor.submit(() -> idempotencyStore.execute("key-1", "transfer 1 2 5.00", this::deposit));
+            release.countDown();
+
+            assertFalse(first.get().replayed());
+            assertTrue(second.get().replayed());
+            assertTrue(third.get().replayed());
+            assertSame(first.get().response(), third.get().response());
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private TransactionResponseDto deposit() {
+        return TransactionResponseDto.builder()
+                .transactionId((long) executions.incrementAndGet())
+                .newBalance(Money.of(10.0))
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
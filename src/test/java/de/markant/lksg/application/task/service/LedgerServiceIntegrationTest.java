@@ -0,0 +1,123 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.BankingJpaTest;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.BalanceSnapshot;
+import de.markant.lksg.application.task.model.Money;
+import de.markant.lksg.application.task.repository.AccountRepository;
+import de.markant.lksg.application.task.repository.BalanceSnapshotRepository;
+import de.markant.lksg.application.task.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the event sourced ledger derives balances from snapshots and the transaction log
+ * and never updates the account row.
+ */
+@BankingJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // Every operation commits its own transaction
+@TestPropertySource(properties = {
+        "banking.ledger.mode=EVENT_SOURCED",
+        "banking.ledger.snapshot-interval=10",
+        "banking.account-cache.ttl-seconds=0" // Every read derives the balance
+})
+public class LedgerServiceIntegrationTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @BeforeEach
+    public void setup() {
+        cleanup();
+        Account account = accountService.createAccount("111", Money.of(1_000.0));
+        accountService.createInitialTransaction(account);
+        accountService.createAccount("222", Money.of(0.0));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        balanceSnapshotRepository.deleteAll();
+        transactionRepository.deleteAll();
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    public void testBalanceIsDerivedFromTheLog() {
+        for (int i = 0; i < 25; i++) {
+            accountService.deposit("111", Money.of(10.0));
+        }
+        accountService.withdraw("111", Money.of(50.0));
+        accountService.transfer("111", "222", Money.of(100.0));
+
+        assertThat(accountService.findAccountByNr("111").getBalance()).isEqualTo(Money.of(1_100.0));
+        assertThat(accountService.findAccountByNr("222").getBalance()).isEqualTo(Money.of(100.0));
+
+        // The account rows still hold the opening balances and were never updated
+        Account account = accountRepository.findAccountByAccountNr("111").orElseThrow();
+        assertThat(account.getBalance()).isEqualTo(Money.of(1_000.0));
+        assertThat(account.getVersion()).isZero();
+    }
+
+    @Test
+    public void testSnapshotsAreWrittenPeriodically() {
+        for (int i = 0; i < 25; i++) {
+            accountService.deposit("111", Money.of(10.0));
+        }
+
+        List<BalanceSnapshot> snapshots = balanceSnapshotRepository.findAll();
+        assertThat(snapshots).hasSize(2); // Before the 11th and the 21st deposit
+        BalanceSnapshot newest = balanceSnapshotRepository.findFirstByAccountOrderByLastTransactionIdDesc(
+                accountRepository.findAccountByAccountNr("111").orElseThrow()).orElseThrow();
+        assertThat(newest.getBalance()).isEqualTo(Money.of(1_200.0));
+        assertThat(accountService.findAccountByNr("111").getBalance()).isEqualTo(Money.of(1_250.0));
+    }
+
+    @Test
+    public void testVersionFollowsTheNewestTransaction() {
+        Account stale = ledgerService.forRead(accountRepository.findAccountByAccountNr("111").orElseThrow());
+        accountService.deposit("111", Money.of(10.0));
+        Account updated = accountService.findAccountByNr("111");
+
+        assertThat(updated.getVersion()).isGreaterThan(stale.getVersion());
+
+        // A read that started before the deposit cannot replace the deposit's result in the cache
+        AccountCache cache = new AccountCache(10, 60, new SimpleMeterRegistry());
+        cache.put(updated);
+        cache.put(stale);
+        assertThat(cache.get("111").getBalance()).isEqualTo(Money.of(1_010.0));
+    }
+
+    @Test
+    public void testDeleteAccountRemovesSnapshots() {
+        for (int i = 0; i < 15; i++) {
+            accountService.deposit("111", Money.of(10.0));
+        }
+
+        accountService.deleteAccount("111");
+
+        assertThat(balanceSnapshotRepository.count()).isZero();
+        assertThat(accountRepository.findAccountByAccountNr("111")).isEmpty();
+    }
+}
@@ -0,0 +1,78 @@
+package de.markant.lksg.application.task.service;
+
+import de.markant.lksg.application.task.config.OptimisticRetryProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticRetryExecutorTest {
+
+    @InjectMocks
+    private OptimisticRetryExecutor optimisticRetryExecutor;
+
+    @Spy
+    private OptimisticRetryProperties retryProperties = new OptimisticRetryProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        retryProperties.setInitialBackoffMs(1);
+        retryProperties.setMaxBackoffMs(2);
+    }
+
+    @Test
+    void testRetriesUntilSuccess() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = optimisticRetryExecutor.execute("deposit", () -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("Account", 1L);
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, calls.get());
+        assertEquals(3.0, meterRegistry.counter(OptimisticRetryExecutor.ATTEMPTS_METRIC, "operation", "deposit").count());
+        assertEquals(2.0, meterRegistry.counter(OptimisticRetryExecutor.CONFLICTS_METRIC, "operation", "deposit").count());
+    }
+
+    @Test
+    void testGivesUpAfterOperationSpecificMaxAttempts() {
+        retryProperties.getOperations().put("transfer", new OptimisticRetryProperties.Policy(2, null, null));
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> optimisticRetryExecutor.execute("transfer", () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Account", 1L);
+        }));
+
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.counter(OptimisticRetryExecutor.EXHAUSTED_METRIC, "operation", "transfer").count());
+    }
+
+    @Test
+    void testOtherExceptionsAreNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> optimisticRetryExecutor.execute("withdraw", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals(1, calls.get());
+    }
+}
@@ -1,17 +1,37 @@
 package de.markant.lksg.application.task.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.markant.lksg.application.task.constants.Constants;
+import de.markant.lksg.application.task.dto.ExportFormat;
+import de.markant.lksg.application.task.dto.TransactionPageDto;
+import de.markant.lksg.application.task.exception.TransactionException;
+import de.markant.lksg.application.task.model.Account;
+import de.markant.lksg.application.task.model.Money;
 import de.markant.lksg.application.task.model.Transaction;
+import de.markant.lksg.application.task.model.TransactionType;
 import de.markant.lksg.application.task.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Limit;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class TransactionServiceTest {
@@ -22,9 +42,20 @@ class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Session session;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(session.<String>doReturningWork(any())).thenReturn("H2");
     }
 
     @Test
@@ -62,4 +93,146 @@ class TransactionServiceTest {
         assertEquals(2, result.size());
         verify(transactionRepository, times(1)).findByAccount_AccountNr(accountNumber);
     }
+
+    @Test
+    void testGetTransactionPage() {
+        Account account = new Account("123456789", Money.of(100.0));
+        List<Transaction> rows = new ArrayList<>();
+        for (long id = 3; id > 0; id--) {
+            Transaction transaction = new Transaction();
+            transaction.setTransactionId(id);
+            transaction.setTimeStamp(LocalDateTime.of(2024, 1, 1, 10, 0));
+            rows.add(transaction);
+        }
+
+        when(transactionRepository.findPageByAccount(eq(account), isNull(), isNull(), isNull(), isNull(), isNull(), eq(Limit.of(3))))
+                .thenReturn(rows);
+
+        TransactionPageDto page = transactionService.getTransactionPage(account, null, 2, null, null, null);
+
+        assertEquals(2, page.getTransactions().size());
+        assertTrue(page.isHasMore());
+        assertEquals(TransactionService.encodeCursor(rows.get(1)), page.getNextCursor());
+
+        when(transactionRepository.findPageByAccount(eq(account), isNull(), isNull(), isNull(),
+                eq(LocalDateTime.of(2024, 1, 1, 10, 0)), eq(2L), eq(Limit.of(3))))
+                .thenReturn(rows.subList(2, 3));
+
+        TransactionPageDto nextPage = transactionService.getTransactionPage(account, page.getNextCursor(), 2, null, null, null);
+
+        assertEquals(1, nextPage.getTransactions().size());
+        assertFalse(nextPage.isHasMore());
+        assertNull(nextPage.getNextCursor());
+    }
+
+    @Test
+    void testGetTransactionPageAfterTransactionWithoutTimeStamp() {
+        Account account = new Account("123456789", Money.of(100.0));
+        List<Transaction> rows = new ArrayList<>();
+        for (long id = 3; id > 0; id--) {
+            Transaction transaction = new Transaction();
+            transaction.setTransactionId(id);
+            rows.add(transaction);
+        }
+
+        when(transactionRepository.findPageByAccount(eq(account), isNull(), isNull(), isNull(), isNull(), isNull(), eq(Limit.of(3))))
+                .thenReturn(rows);
+        when(transactionRepository.findPageByAccount(eq(account), isNull(), isNull(), isNull(), isNull(), eq(2L), eq(Limit.of(3))))
+                .thenReturn(rows.subList(2, 3));
+
+        TransactionPageDto page = transactionService.getTransactionPage(account, null, 2, null, null, null);
+        TransactionPageDto nextPage = transactionService.getTransactionPage(account, page.getNextCursor(), 2, null, null, null);
+
+        assertEquals(1, nextPage.getTransactions().size());
+        assertEquals(1L, nextPage.getTransactions().get(0).getTransactionId());
+    }
+
+    @Test
+    void testGetTransactionPageInvalidInput() {
+        Account account = new Account("123456789", Money.of(100.0));
+
+        assertThrows(TransactionException.class, () -> transactionService.getTransactionPage(account, null, 0, null, null, null));
+        assertThrows(TransactionException.class, () -> transactionService.getTransactionPage(account, "not-a-cursor", 10, null, null, null));
+    }
+
+    @Test
+    void testExportTransactionsAsNdjson() throws IOException {
+        Account account = new Account("123456789", Money.of(100.0));
+        Transaction deposit = Transaction.transactionBuilder()
+                .account(account)
+                .transactionType(TransactionType.DEPOSIT)
+                .oldBalance(Money.of(100.0))
+                .newBalance(Money.of(150.0))
+                .transactionAmount(Money.of(50.0))
+                .timeStamp(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .build();
+        when(transactionRepository.streamByAccount(account)).thenReturn(Stream.of(deposit, deposit));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transactionService.exportTransactions(account, ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("DEPOSIT", objectMapper.readTree(lines[0]).get("transactionType").asText());
+        verify(entityManager, times(2)).detach(deposit);
+    }
+
+    @Test
+    void testExportTransactionsAsCsv() throws IOException {
+        Account account = new Account("123456789", Money.of(100.0));
+        Transaction transfer = Transaction.transactionBuilder()
+                .account(account)
+                .transactionType(TransactionType.TRANSFER)
+                .oldBalance(Money.of(100.0))
+                .newBalance(Money.of(70.0))
+                .transactionAmount(Money.of(30.0))
+                .targetAccountNr("987654321")
+                .timeStamp(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .build();
+        transfer.setTransactionId(7L);
+        when(transactionRepository.streamByAccount(account)).thenReturn(Stream.of(transfer));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transactionService.exportTransactions(account, ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(Constants.CSV_HEADER, lines[0]);
+        assertEquals("7,TRANSFER,2024-01-01T10:00,100.00,70.00,30.00,987654321", lines[1]);
+    }
+
+    @Test
+    void testExportTransactionsAsCsvQuotesFields() throws IOException {
+        Account account = new Account("123456789", Money.of(100.0));
+        Transaction transfer = Transaction.transactionBuilder()
+                .account(account)
+                .transactionType(TransactionType.TRANSFER)
+                .oldBalance(Money.of(100.0))
+                .newBalance(Money.of(70.0))
+                .transactionAmount(Money.of(30.0))
+                .targetAccountNr("98,76\"54")
+                .timeStamp(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .build();
+        transfer.setTransactionId(7L);
+        when(transactionRepository.streamByAccount(account)).thenReturn(Stream.of(transfer));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transactionService.exportTransactions(account, ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("7,TRANSFER,2024-01-01T10:00,100.00,70.00,30.00,\"98,76\"\"54\"", lines[1]);
+        assertEquals("\"a\nb\"", TransactionService.csvField("a\nb"));
+        assertEquals("", TransactionService.csvField(null));
+    }
+
+    @Test
+    void testExportTransactionsStreamsRowByRowOnMySql() throws IOException {
+        Account account = new Account("123456789", Money.of(100.0));
+        when(session.<String>doReturningWork(any())).thenReturn("MySQL");
+        when(transactionRepository.streamByAccountRowByRow(account)).thenReturn(Stream.empty());
+
+        transactionService.exportTransactions(account, ExportFormat.NDJSON, new ByteArrayOutputStream());
+
+        verify(transactionRepository).streamByAccountRowByRow(account);
+        verify(transactionRepository, never()).streamByAccount(any());
+    }
 }